@@ -0,0 +1,48 @@
+package hr.fer.zemris.lsystems.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Command-line program which runs the benchmarks and writes their results
+ * into a JSON file, so the results of different releases can be compared.
+ * Takes the optional output file, which defaults to jmh-result.json, and an
+ * optional regular expression selecting the benchmarks to be run, which
+ * defaults to all of them.
+ *
+ * @author 0036502252
+ *
+ */
+public class BenchmarkRunner {
+	/**
+	 * The file the results are written into if none is given.
+	 */
+	private static final String DEFAULT_OUTPUT = "jmh-result.json";
+
+	/**
+	 * The main method.
+	 *
+	 * @param args
+	 *            the optional output file and the optional regular
+	 *            expression selecting the benchmarks
+	 * @throws RunnerException
+	 *             if the benchmarks could not be run
+	 */
+	public static void main(String[] args) throws RunnerException {
+		if (args.length > 2) {
+			System.out.println("Usage: BenchmarkRunner [output [regexp]]");
+			return;
+		}
+
+		String output = args.length > 0 ? args[0] : DEFAULT_OUTPUT;
+		String include = args.length > 1 ? args[1]
+				: BenchmarkRunner.class.getPackage().getName() + ".*";
+		Options options = new OptionsBuilder().include(include)
+				.resultFormat(ResultFormatType.JSON).result(output).build();
+		new Runner(options).run();
+		System.out.printf("Results written to %s.%n", output);
+	}
+}
@@ -0,0 +1,144 @@
+package hr.fer.zemris.lsystems.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.zemris.java.custom.collections.ArrayIndexedCollection;
+import hr.zemris.java.custom.collections.Dictionary;
+
+/**
+ * Benchmarks the {@link Dictionary} and the {@link ArrayIndexedCollection}
+ * classes at several sizes. Every benchmark leaves the size of its collection
+ * unchanged, so the size stays the same for all of the invocations.
+ *
+ * @author 0036502252
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectionsBenchmark {
+	/**
+	 * The number of elements in the collections.
+	 */
+	@Param({ "16", "1024" })
+	private int size;
+	/**
+	 * The keys of the dictionary, which are also the elements of the
+	 * collection.
+	 */
+	private Integer[] keys;
+	/**
+	 * The benchmarked dictionary.
+	 */
+	private Dictionary dictionary;
+	/**
+	 * The benchmarked collection.
+	 */
+	private ArrayIndexedCollection collection;
+	/**
+	 * The index of the key used by the next invocation.
+	 */
+	private int next;
+
+	/**
+	 * Fills the dictionary and the collection.
+	 */
+	@Setup
+	public void setUp() {
+		keys = new Integer[size];
+		dictionary = new Dictionary();
+		collection = new ArrayIndexedCollection(size + 1);
+		for (int i = 0; i < size; i++) {
+			keys[i] = i;
+			dictionary.put(keys[i], keys[i]);
+			collection.add(keys[i]);
+		}
+	}
+
+	/**
+	 * Private utility method. Returns the key used by this invocation,
+	 * cycling through all of the keys.
+	 *
+	 * @return the key
+	 */
+	private Integer nextKey() {
+		Integer key = keys[next];
+		next = next + 1 == size ? 0 : next + 1;
+		return key;
+	}
+
+	/**
+	 * Gets the value of an existing key from the dictionary.
+	 *
+	 * @return the value
+	 */
+	@Benchmark
+	public Object dictionaryGet() {
+		return dictionary.get(nextKey());
+	}
+
+	/**
+	 * Overwrites the value of an existing key in the dictionary.
+	 *
+	 * @return the dictionary
+	 */
+	@Benchmark
+	public Dictionary dictionaryPut() {
+		Integer key = nextKey();
+		dictionary.put(key, key);
+		return dictionary;
+	}
+
+	/**
+	 * Inserts an element at the beginning of the collection and removes it,
+	 * shifting all of the other elements twice.
+	 *
+	 * @return the collection
+	 */
+	@Benchmark
+	public ArrayIndexedCollection insertRemoveFirst() {
+		collection.insert(nextKey(), 0);
+		collection.remove(0);
+		return collection;
+	}
+
+	/**
+	 * Inserts an element in the middle of the collection and removes it.
+	 *
+	 * @return the collection
+	 */
+	@Benchmark
+	public ArrayIndexedCollection insertRemoveMiddle() {
+		collection.insert(nextKey(), size / 2);
+		collection.remove(size / 2);
+		return collection;
+	}
+
+	/**
+	 * Inserts an element at the end of the collection and removes it, without
+	 * shifting any elements.
+	 *
+	 * @return the collection
+	 */
+	@Benchmark
+	public ArrayIndexedCollection insertRemoveLast() {
+		collection.insert(nextKey(), size);
+		collection.remove(size);
+		return collection;
+	}
+}
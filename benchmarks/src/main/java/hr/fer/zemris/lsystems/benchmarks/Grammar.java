@@ -0,0 +1,81 @@
+package hr.fer.zemris.lsystems.benchmarks;
+
+import hr.fer.zemris.lsystems.impl.LSystemBuilderImpl;
+import hr.fer.zemris.lsystems.impl.LSystemImpl;
+
+/**
+ * The grammars the L-system benchmarks are run for, given as the lines of
+ * their text configurations.
+ *
+ * @author 0036502252
+ *
+ */
+public enum Grammar {
+	/**
+	 * The Koch curve, with a single production of five drawing symbols.
+	 */
+	KOCH("origin 0.05 0.4", "angle 0", "unitLength 0.9",
+			"unitLengthDegreeScaler 1.0 / 3.0", "command F draw 1",
+			"command + rotate 60", "command - rotate -60", "axiom F",
+			"production F F+F--F+F"),
+	/**
+	 * The dragon curve, whose length only doubles with every level.
+	 */
+	DRAGON("origin 0.3 0.5", "angle 0", "unitLength 0.01",
+			"unitLengthDegreeScaler 1.0", "command F draw 1",
+			"command + rotate 90", "command - rotate -90", "axiom FX",
+			"production X X+YF+", "production Y -FX-Y"),
+	/**
+	 * The Hilbert curve, with two mutually recursive productions.
+	 */
+	HILBERT("origin 0.05 0.05", "angle 0", "unitLength 0.9",
+			"unitLengthDegreeScaler 1.0 / 2.0", "command F draw 1",
+			"command + rotate 90", "command - rotate -90", "axiom L",
+			"production L +RF-LFL-FR+", "production R -LF+RFR+FL-"),
+	/**
+	 * A branching plant, which pushes and pops the turtle's state.
+	 */
+	PLANT("origin 0.5 0.0", "angle 90", "unitLength 0.1",
+			"unitLengthDegreeScaler 1.0 / 2.05", "command F draw 1",
+			"command + rotate 25.7", "command - rotate -25.7",
+			"command [ push", "command ] pop", "command G color 00FF00",
+			"axiom GF", "production F F[+F]F[-F]F");
+
+	/**
+	 * The lines of the configuration.
+	 */
+	private final String[] lines;
+
+	/**
+	 * Creates a new grammar.
+	 *
+	 * @param lines
+	 *            the lines of the configuration
+	 */
+	private Grammar(String... lines) {
+		this.lines = lines;
+	}
+
+	/**
+	 * Returns a copy of the lines of the configuration.
+	 *
+	 * @return the lines of the configuration
+	 */
+	public String[] getLines() {
+		return lines.clone();
+	}
+
+	/**
+	 * Builds the L-system of the grammar.
+	 *
+	 * @param generationCacheBudget
+	 *            the budget of the generation cache, in bytes; 0 disables
+	 *            the cache
+	 * @return the built L-system
+	 */
+	public LSystemImpl build(long generationCacheBudget) {
+		return new LSystemBuilderImpl()
+				.setGenerationCacheBudget(generationCacheBudget)
+				.configureFromText(lines).build();
+	}
+}
@@ -0,0 +1,104 @@
+package hr.fer.zemris.lsystems.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hr.fer.zemris.lsystems.LSystem;
+import hr.fer.zemris.lsystems.Painter;
+import hr.fer.zemris.lsystems.impl.LSystemBuilderImpl;
+import hr.fer.zemris.lsystems.impl.LSystemImpl;
+
+/**
+ * Benchmarks the generation, the drawing and the configuration of the
+ * L-systems, for each of the {@link Grammar grammars} at several levels. The
+ * generation cache is disabled, so every generation is computed from
+ * scratch; the lines are drawn into a painter which only hands their end
+ * points to the {@link Blackhole}, so the time measured is spent in the
+ * interpretation of the symbols.
+ *
+ * @author 0036502252
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LSystemBenchmark {
+	/**
+	 * The benchmarked grammar.
+	 */
+	@Param({ "KOCH", "DRAGON", "HILBERT", "PLANT" })
+	private Grammar grammar;
+	/**
+	 * The generated and drawn level.
+	 */
+	@Param({ "2", "5", "8" })
+	private int level;
+	/**
+	 * The L-system of the grammar, without a generation cache.
+	 */
+	private LSystemImpl system;
+	/**
+	 * The lines of the grammar's configuration.
+	 */
+	private String[] lines;
+
+	/**
+	 * Builds the L-system of the benchmarked grammar.
+	 */
+	@Setup
+	public void setUp() {
+		system = grammar.build(0);
+		lines = grammar.getLines();
+	}
+
+	/**
+	 * Generates the level.
+	 *
+	 * @return the generated level
+	 */
+	@Benchmark
+	public String generate() {
+		return system.generate(level);
+	}
+
+	/**
+	 * Draws the level into a painter which does nothing with the lines.
+	 *
+	 * @param blackhole
+	 *            the sink for the drawn lines
+	 */
+	@Benchmark
+	public void draw(Blackhole blackhole) {
+		Painter painter = (x0, y0, x1, y1, color, size) -> {
+			blackhole.consume(x1);
+			blackhole.consume(y1);
+		};
+		system.draw(level, painter);
+	}
+
+	/**
+	 * Builds the L-system from the lines of the grammar's configuration. The
+	 * level does not affect this benchmark.
+	 *
+	 * @return the built L-system
+	 */
+	@Benchmark
+	public LSystem configureFromText() {
+		return new LSystemBuilderImpl().configureFromText(lines).build();
+	}
+}
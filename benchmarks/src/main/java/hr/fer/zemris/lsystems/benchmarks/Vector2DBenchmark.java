@@ -0,0 +1,143 @@
+package hr.fer.zemris.lsystems.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.math.Vector2D;
+
+/**
+ * Benchmarks the operations of the {@link Vector2D} class, both those which
+ * modify the vector and those which return a new one. The translation and the
+ * scaling of the vector are undone within the same invocation, and the
+ * rotation modifies a copy, so the vector does not drift away over the
+ * iterations.
+ *
+ * @author 0036502252
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Vector2DBenchmark {
+	/**
+	 * The angle the vectors are rotated for, in degrees.
+	 */
+	private double angle = 25.7;
+	/**
+	 * The factor the vectors are scaled by.
+	 */
+	private double scaler = 1.0 / 3.0;
+	/**
+	 * The benchmarked vector.
+	 */
+	private Vector2D vector;
+	/**
+	 * The offset the vector is translated by.
+	 */
+	private Vector2D offset;
+	/**
+	 * The offset the vector is translated back by.
+	 */
+	private Vector2D negated;
+
+	/**
+	 * Creates the vectors.
+	 */
+	@Setup
+	public void setUp() {
+		vector = new Vector2D(0.3, 0.4);
+		offset = new Vector2D(0.01, -0.02);
+		negated = new Vector2D(-0.01, 0.02);
+	}
+
+	/**
+	 * Translates the vector there and back.
+	 *
+	 * @return the vector
+	 */
+	@Benchmark
+	public Vector2D translate() {
+		vector.translate(offset);
+		vector.translate(negated);
+		return vector;
+	}
+
+	/**
+	 * Returns a translated copy of the vector.
+	 *
+	 * @return the translated vector
+	 */
+	@Benchmark
+	public Vector2D translated() {
+		return vector.translated(offset);
+	}
+
+	/**
+	 * Rotates a copy of the vector. Rotating the vector itself back and forth
+	 * would not keep its length, since {@link Vector2D#rotate(double)} does
+	 * not preserve it.
+	 *
+	 * @return the rotated copy
+	 */
+	@Benchmark
+	public Vector2D rotate() {
+		Vector2D copy = vector.copy();
+		copy.rotate(angle);
+		return copy;
+	}
+
+	/**
+	 * Returns a rotated copy of the vector.
+	 *
+	 * @return the rotated vector
+	 */
+	@Benchmark
+	public Vector2D rotated() {
+		return vector.rotated(angle);
+	}
+
+	/**
+	 * Scales the vector down and back up.
+	 *
+	 * @return the vector
+	 */
+	@Benchmark
+	public Vector2D scale() {
+		vector.scale(scaler);
+		vector.scale(1 / scaler);
+		return vector;
+	}
+
+	/**
+	 * Returns a scaled copy of the vector.
+	 *
+	 * @return the scaled vector
+	 */
+	@Benchmark
+	public Vector2D scaled() {
+		return vector.scaled(scaler);
+	}
+
+	/**
+	 * Returns the unit vector of the vector's direction.
+	 *
+	 * @return the normalized vector
+	 */
+	@Benchmark
+	public Vector2D normalize() {
+		return vector.normalize();
+	}
+}
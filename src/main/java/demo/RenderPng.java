@@ -0,0 +1,79 @@
+package demo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import hr.fer.zemris.lsystems.LSystem;
+import hr.fer.zemris.lsystems.impl.LSystemBuilderImpl;
+import hr.fer.zemris.lsystems.impl.painters.RasterPainter;
+
+/**
+ * Command-line program which renders an L-system into a PNG image without
+ * opening a window. Takes the .txt file of the L-system (some examples can be
+ * found in the root/src/main/resources/examples directory), the level to be
+ * drawn, the resolution as WIDTHxHEIGHT or a single size for square images,
+ * and optionally the output file, which defaults to the input file with the
+ * .png extension.
+ *
+ * @author 0036502252
+ *
+ */
+public class RenderPng {
+	/**
+	 * The main method.
+	 *
+	 * @param args
+	 *            the L-system file, the level, the resolution and the
+	 *            optional output file
+	 */
+	public static void main(String[] args) {
+		if (args.length < 3 || args.length > 4) {
+			System.out.println("Usage: RenderPng <file> <level> "
+					+ "<width>x<height> [output]");
+			return;
+		}
+
+		Path input = Paths.get(args[0]);
+		int level;
+		int width;
+		int height;
+		try {
+			level = Integer.parseInt(args[1]);
+			String[] resolution = args[2].split("x", 2);
+			width = Integer.parseInt(resolution[0]);
+			height = resolution.length == 1 ? width
+					: Integer.parseInt(resolution[1]);
+		} catch (NumberFormatException ex) {
+			System.out.println(
+					"Invalid level or resolution: " + ex.getMessage());
+			return;
+		}
+		Path output = args.length == 4 ? Paths.get(args[3])
+				: input.resolveSibling(input.getFileName().toString()
+						.replaceFirst("(\\.[^.]*)?$", ".png"));
+
+		try {
+			List<String> lines = Files.readAllLines(input,
+					StandardCharsets.UTF_8);
+			LSystem system = new LSystemBuilderImpl()
+					.configureFromText(lines.toArray(new String[0])).build();
+
+			long start = System.nanoTime();
+			RasterPainter painter = new RasterPainter(width, height);
+			system.draw(level, painter);
+			painter.writePng(output);
+			System.out.printf("Rendered %s in %d ms.%n", output,
+					(System.nanoTime() - start) / 1_000_000);
+		} catch (IOException ex) {
+			System.out.println(
+					"Could not render the L-system: " + ex.getMessage());
+		} catch (IllegalArgumentException ex) {
+			System.out.println(
+					"Invalid L-system or parameters: " + ex.getMessage());
+		}
+	}
+}
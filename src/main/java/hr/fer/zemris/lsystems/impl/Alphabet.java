@@ -0,0 +1,164 @@
+package hr.fer.zemris.lsystems.impl;
+
+import java.util.Arrays;
+
+/**
+ * The alphabet of an L-system: every symbol which appears in its axiom, its
+ * productions or its commands. Each symbol is given a dense code, from 0 up
+ * to the size of the alphabet, in the ascending order of the symbols.
+ *
+ * @author 0036502252
+ *
+ */
+public class Alphabet {
+	/**
+	 * The maximum number of symbols covered by the direct code lookup.
+	 */
+	private static final int MAX_DENSE_RANGE = 1024;
+
+	/**
+	 * The symbols of the alphabet, indexed by their codes.
+	 */
+	private char[] symbols;
+	/**
+	 * The first symbol covered by the direct code lookup.
+	 */
+	private char base;
+	/**
+	 * The codes of the symbols, indexed by the symbol minus the base, or -1
+	 * for symbols outside the alphabet.
+	 */
+	private int[] codes;
+
+	/**
+	 * Creates the alphabet of an L-system.
+	 *
+	 * @param axiom
+	 *            the axiom of the system
+	 * @param productions
+	 *            the productions of the system
+	 * @param commands
+	 *            the commands of the system
+	 */
+	public Alphabet(char[] axiom, CharTable<char[]> productions,
+			CharTable<?> commands) {
+		boolean[] present = new boolean[Character.MAX_VALUE + 1];
+		mark(present, axiom);
+		mark(present, productions.symbols());
+		mark(present, commands.symbols());
+		for (char symbol : productions.symbols()) {
+			mark(present, productions.get(symbol));
+		}
+
+		int size = 0;
+		for (boolean p : present) {
+			if (p) {
+				size++;
+			}
+		}
+		this.symbols = new char[size];
+		for (int c = 0, i = 0; c < present.length; c++) {
+			if (present[c]) {
+				symbols[i++] = (char) c;
+			}
+		}
+
+		this.base = size == 0 ? 0 : symbols[0];
+		int range = size == 0 ? 0
+				: Math.min(symbols[size - 1] - base + 1, MAX_DENSE_RANGE);
+		this.codes = new int[range];
+		Arrays.fill(codes, -1);
+		for (int i = 0; i < size && symbols[i] - base < range; i++) {
+			codes[symbols[i] - base] = i;
+		}
+	}
+
+	/**
+	 * Gets the number of symbols in the alphabet.
+	 *
+	 * @return the size of the alphabet
+	 */
+	public int size() {
+		return symbols.length;
+	}
+
+	/**
+	 * Gets the symbol with the given code.
+	 *
+	 * @param code
+	 *            the code of the symbol
+	 * @return the symbol
+	 * @throws IndexOutOfBoundsException
+	 *             if there is no symbol with the given code
+	 */
+	public char symbolOf(int code) {
+		return symbols[code];
+	}
+
+	/**
+	 * Gets the code of the given symbol.
+	 *
+	 * @param symbol
+	 *            the symbol
+	 * @return the code of the symbol, or -1 if the symbol is not in the
+	 *         alphabet
+	 */
+	public int codeOf(char symbol) {
+		int index = symbol - base;
+		if (index >= 0 && index < codes.length) {
+			return codes[index];
+		}
+		int code = Arrays.binarySearch(symbols, symbol);
+		return code < 0 ? -1 : code;
+	}
+
+	/**
+	 * Converts a word into the codes of its symbols.
+	 *
+	 * @param word
+	 *            the word to be converted
+	 * @return the codes of the word's symbols, or -1 for the symbols which
+	 *         are not in the alphabet
+	 */
+	public int[] encode(char[] word) {
+		int[] codes = new int[word.length];
+		for (int i = 0; i < word.length; i++) {
+			codes[i] = codeOf(word[i]);
+		}
+		return codes;
+	}
+
+	/**
+	 * Converts the productions of a system into codes, indexed by the code of
+	 * the symbol they replace.
+	 *
+	 * @param productions
+	 *            the productions of the system
+	 * @return the coded productions; null for the symbols without a
+	 *         production
+	 */
+	public int[][] encode(CharTable<char[]> productions) {
+		int[][] coded = new int[size()][];
+		for (int code = 0; code < size(); code++) {
+			char[] prod = productions.get(symbolOf(code));
+			if (prod != null) {
+				coded[code] = encode(prod);
+			}
+		}
+		return coded;
+	}
+
+	/**
+	 * Private utility method. Marks the given symbols as present.
+	 *
+	 * @param present
+	 *            the presence of each symbol
+	 * @param word
+	 *            the symbols to be marked
+	 */
+	private static void mark(boolean[] present, char[] word) {
+		for (char symbol : word) {
+			present[symbol] = true;
+		}
+	}
+}
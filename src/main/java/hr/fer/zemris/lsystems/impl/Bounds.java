@@ -0,0 +1,131 @@
+package hr.fer.zemris.lsystems.impl;
+
+/**
+ * The bounds of the lines an L-system draws for some level, together with
+ * the position the turtle ends up at.
+ *
+ * @author 0036502252
+ *
+ */
+public class Bounds {
+	/**
+	 * The smallest x-coordinate of the lines.
+	 */
+	private double minX;
+	/**
+	 * The smallest y-coordinate of the lines.
+	 */
+	private double minY;
+	/**
+	 * The largest x-coordinate of the lines.
+	 */
+	private double maxX;
+	/**
+	 * The largest y-coordinate of the lines.
+	 */
+	private double maxY;
+	/**
+	 * The x-coordinate of the turtle's final position.
+	 */
+	private double endX;
+	/**
+	 * The y-coordinate of the turtle's final position.
+	 */
+	private double endY;
+
+	/**
+	 * Creates new bounds. If no lines are drawn, the minimums are infinitely
+	 * large and the maximums infinitely small.
+	 *
+	 * @param minX
+	 *            the smallest x-coordinate of the lines
+	 * @param minY
+	 *            the smallest y-coordinate of the lines
+	 * @param maxX
+	 *            the largest x-coordinate of the lines
+	 * @param maxY
+	 *            the largest y-coordinate of the lines
+	 * @param endX
+	 *            the x-coordinate of the turtle's final position
+	 * @param endY
+	 *            the y-coordinate of the turtle's final position
+	 */
+	Bounds(double minX, double minY, double maxX, double maxY, double endX,
+			double endY) {
+		this.minX = minX;
+		this.minY = minY;
+		this.maxX = maxX;
+		this.maxY = maxY;
+		this.endX = endX;
+		this.endY = endY;
+	}
+
+	/**
+	 * Checks whether any lines are drawn.
+	 *
+	 * @return true if no lines are drawn, false otherwise
+	 */
+	public boolean isEmpty() {
+		return !(minX <= maxX && minY <= maxY);
+	}
+
+	/**
+	 * Gets the smallest x-coordinate of the lines.
+	 *
+	 * @return the smallest x-coordinate
+	 */
+	public double getMinX() {
+		return minX;
+	}
+
+	/**
+	 * Gets the smallest y-coordinate of the lines.
+	 *
+	 * @return the smallest y-coordinate
+	 */
+	public double getMinY() {
+		return minY;
+	}
+
+	/**
+	 * Gets the largest x-coordinate of the lines.
+	 *
+	 * @return the largest x-coordinate
+	 */
+	public double getMaxX() {
+		return maxX;
+	}
+
+	/**
+	 * Gets the largest y-coordinate of the lines.
+	 *
+	 * @return the largest y-coordinate
+	 */
+	public double getMaxY() {
+		return maxY;
+	}
+
+	/**
+	 * Gets the x-coordinate of the position the turtle ends up at.
+	 *
+	 * @return the final x-coordinate
+	 */
+	public double getEndX() {
+		return endX;
+	}
+
+	/**
+	 * Gets the y-coordinate of the position the turtle ends up at.
+	 *
+	 * @return the final y-coordinate
+	 */
+	public double getEndY() {
+		return endY;
+	}
+
+	@Override
+	public String toString() {
+		return "[" + minX + ", " + minY + "] - [" + maxX + ", " + maxY
+				+ "], end [" + endX + ", " + endY + "]";
+	}
+}
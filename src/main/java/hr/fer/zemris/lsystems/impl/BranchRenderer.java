@@ -0,0 +1,351 @@
+package hr.fer.zemris.lsystems.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import hr.fer.zemris.lsystems.Painter;
+import hr.fer.zemris.lsystems.impl.commands.ColorCommand;
+import hr.fer.zemris.lsystems.impl.commands.DrawCommand;
+import hr.fer.zemris.lsystems.impl.commands.PopCommand;
+import hr.fer.zemris.lsystems.impl.commands.PushCommand;
+import hr.fer.zemris.lsystems.impl.commands.RotateCommand;
+import hr.fer.zemris.lsystems.impl.commands.ScaleCommand;
+import hr.fer.zemris.lsystems.impl.commands.SkipCommand;
+
+/**
+ * Draws the branches of a generation on a {@link ForkJoinPool}. A branch
+ * enclosed by a push and its matching pop leaves the turtle exactly as it
+ * found it, so once the state at the push is known, the branch can be drawn
+ * by a task of its own while the rest of the generation is drawn on. The
+ * matching pop of every push is found beforehand and kept in an index, so
+ * large branches are handed to tasks without being read, and the tasks split
+ * their own large branches recursively.
+ * <p>
+ * Every task draws into buffers of its own, kept in the order of the symbols
+ * together with the tasks of its branches, and all of them are replayed to
+ * the painter in that order once the drawing is done. The lines and their
+ * order are therefore exactly the same as those of the sequential drawing.
+ * Generations with commands other than the built-in ones, generations which
+ * pop below their initial state and generations too long to be indexed are
+ * drawn sequentially.
+ * </p>
+ *
+ * @author 0036502252
+ *
+ */
+class BranchRenderer {
+	/**
+	 * Branches shorter than this are drawn by the task which finds them.
+	 */
+	private static final int SPLIT_THRESHOLD = 1 << 14;
+	/**
+	 * The largest generation the index can be built for.
+	 */
+	private static final long MAX_LENGTH = Integer.MAX_VALUE - 8;
+
+	/**
+	 * The commands, indexed by the codes of their symbols.
+	 */
+	private Command[] commands;
+	/**
+	 * Whether the symbol with the given code pushes a state.
+	 */
+	private boolean[] pushes;
+	/**
+	 * Whether the symbol with the given code pops a state.
+	 */
+	private boolean[] pops;
+	/**
+	 * Whether every command is one of the built-in ones.
+	 */
+	private boolean parallelizable;
+	/**
+	 * The pool on which the branches are drawn.
+	 */
+	private ForkJoinPool pool;
+
+	/**
+	 * Creates a new renderer which runs on the common pool.
+	 *
+	 * @param commands
+	 *            the commands, indexed by the codes of their symbols
+	 */
+	BranchRenderer(Command[] commands) {
+		this(commands, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a new renderer which runs on the given pool.
+	 *
+	 * @param commands
+	 *            the commands, indexed by the codes of their symbols
+	 * @param pool
+	 *            the pool on which the branches are drawn
+	 */
+	BranchRenderer(Command[] commands, ForkJoinPool pool) {
+		this.commands = commands;
+		this.pool = pool;
+		this.pushes = new boolean[commands.length];
+		this.pops = new boolean[commands.length];
+		this.parallelizable = true;
+		for (int code = 0; code < commands.length; code++) {
+			Command command = commands[code];
+			Class<?> type = command == null ? null : command.getClass();
+			pushes[code] = type == PushCommand.class;
+			pops[code] = type == PopCommand.class;
+			if (type != null && type != DrawCommand.class
+					&& type != SkipCommand.class && type != RotateCommand.class
+					&& type != ScaleCommand.class && type != ColorCommand.class
+					&& type != PushCommand.class && type != PopCommand.class) {
+				parallelizable = false;
+			}
+		}
+	}
+
+	/**
+	 * Builds the index of the matching brackets of a generation.
+	 *
+	 * @param generation
+	 *            the generation
+	 * @return the index, holding the position of the matching pop at the
+	 *         position of every push and the position of the matching push at
+	 *         the position of every pop, or -1 for the pushes which are never
+	 *         popped; or null if the generation pops below its initial state
+	 * @throws IllegalArgumentException
+	 *             if the generation is too long to be indexed by an array
+	 */
+	int[] matchBrackets(CodeStorage generation) {
+		long length = generation.length();
+		if (length > MAX_LENGTH)
+			throw new IllegalArgumentException("A generation of " + length
+					+ " symbols is too long to be indexed!");
+
+		int[] matches = new int[(int) length];
+		int[] open = new int[16];
+		int depth = 0;
+		for (int i = 0; i < matches.length; i++) {
+			int code = generation.code(i);
+			if (pushes[code]) {
+				if (depth == open.length) {
+					open = Arrays.copyOf(open, 2 * depth);
+				}
+				open[depth++] = i;
+				matches[i] = -1;
+			} else if (pops[code]) {
+				if (depth == 0) {
+					return null;
+				}
+				int push = open[--depth];
+				matches[push] = i;
+				matches[i] = push;
+			}
+		}
+		return matches;
+	}
+
+	/**
+	 * Draws the generation, starting from the context's current state. Every
+	 * task counts the commands it executes and the depth its stack reaches on
+	 * its own, and they are added up as the tasks are replayed.
+	 *
+	 * @param generation
+	 *            the generation to be drawn
+	 * @param ctx
+	 *            the context holding the initial state
+	 * @param painter
+	 *            the painter used for line drawing
+	 * @param executed
+	 *            the numbers of commands executed, indexed by the codes of
+	 *            their symbols, which are increased by the drawing
+	 * @return the largest number of states the stack of the sequential
+	 *         drawing would hold
+	 */
+	int draw(CodeStorage generation, Context ctx, Painter painter,
+			long[] executed) {
+		long length = generation.length();
+		int[] matches = !parallelizable || length < SPLIT_THRESHOLD
+				|| length > MAX_LENGTH ? null : matchBrackets(generation);
+		if (matches == null) {
+			for (long i = 0; i < length; i++) {
+				int code = generation.code(i);
+				Command command = commands[code];
+				if (command != null) {
+					command.execute(ctx, painter);
+					if (RenderMetrics.ENABLED) {
+						executed[code]++;
+					}
+				}
+			}
+			return ctx.getMaxDepth();
+		}
+
+		BranchTask root = new BranchTask(generation, matches, 0,
+				(int) length, ctx, 0);
+		pool.invoke(root);
+		return root.replay(painter, executed);
+	}
+
+	/**
+	 * Draws a range of symbols, handing its large branches to tasks of their
+	 * own.
+	 *
+	 * @author 0036502252
+	 *
+	 */
+	private class BranchTask extends RecursiveAction {
+		/**
+		 * Default serial version ID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The generation being drawn.
+		 */
+		private CodeStorage generation;
+		/**
+		 * The index of the matching brackets.
+		 */
+		private int[] matches;
+		/**
+		 * The index of the first symbol.
+		 */
+		private int from;
+		/**
+		 * The index after the last symbol.
+		 */
+		private int to;
+		/**
+		 * The context the symbols are interpreted in.
+		 */
+		private Context ctx;
+		/**
+		 * The buffers and the branch tasks, in the order of the symbols.
+		 */
+		private Object[] pieces = new Object[4];
+		/**
+		 * The number of pieces.
+		 */
+		private int pieceCount;
+		/**
+		 * The numbers of commands executed by the task, indexed by the codes
+		 * of their symbols.
+		 */
+		private long[] executed;
+		/**
+		 * The number of states below those of the task's context in the
+		 * stack of the sequential drawing.
+		 */
+		private int baseDepth;
+
+		/**
+		 * Creates a new task.
+		 *
+		 * @param generation
+		 *            the generation being drawn
+		 * @param matches
+		 *            the index of the matching brackets
+		 * @param from
+		 *            the index of the first symbol
+		 * @param to
+		 *            the index after the last symbol
+		 * @param ctx
+		 *            the context the symbols are interpreted in
+		 * @param baseDepth
+		 *            the number of states below those of the context in the
+		 *            stack of the sequential drawing
+		 */
+		private BranchTask(CodeStorage generation, int[] matches, int from,
+				int to, Context ctx, int baseDepth) {
+			this.generation = generation;
+			this.matches = matches;
+			this.from = from;
+			this.to = to;
+			this.ctx = ctx;
+			this.baseDepth = baseDepth;
+			this.executed = new long[commands.length];
+		}
+
+		@Override
+		protected void compute() {
+			SegmentBuffer buffer = new SegmentBuffer();
+			add(buffer);
+			for (int i = from; i < to; i++) {
+				int code = generation.code(i);
+				int match = pushes[code] ? matches[i] : -1;
+				if (match != -1 && match - i > SPLIT_THRESHOLD) {
+					Context branch = new Context();
+					branch.pushState(ctx.getCurrentState().copy());
+					BranchTask task = new BranchTask(generation, matches,
+							i + 1, match, branch, baseDepth + ctx.getDepth());
+					task.fork();
+					add(task);
+					if (RenderMetrics.ENABLED) {
+						// the branch's context stands in for its push and pop
+						executed[code]++;
+						executed[generation.code(match)]++;
+					}
+					buffer = new SegmentBuffer();
+					add(buffer);
+					i = match;
+					continue;
+				}
+
+				Command command = commands[code];
+				if (command != null) {
+					command.execute(ctx, buffer);
+					if (RenderMetrics.ENABLED) {
+						executed[code]++;
+					}
+				}
+			}
+
+			for (int i = 0; i < pieceCount; i++) {
+				if (pieces[i] instanceof BranchTask) {
+					((BranchTask) pieces[i]).join();
+				}
+			}
+		}
+
+		/**
+		 * Adds a piece after the existing ones.
+		 *
+		 * @param piece
+		 *            the buffer or the task to be added
+		 */
+		private void add(Object piece) {
+			if (pieceCount == pieces.length) {
+				pieces = Arrays.copyOf(pieces, 2 * pieceCount);
+			}
+			pieces[pieceCount++] = piece;
+		}
+
+		/**
+		 * Replays the lines of the task and of its branches in order, and adds
+		 * up the commands they executed and the depths their stacks reached.
+		 *
+		 * @param painter
+		 *            the painter the lines are drawn with
+		 * @param counts
+		 *            the numbers of commands executed by the whole drawing,
+		 *            to which those of the task are added
+		 * @return the largest number of states the stack of the sequential
+		 *         drawing holds within the task
+		 */
+		private int replay(Painter painter, long[] counts) {
+			if (RenderMetrics.ENABLED) {
+				RenderMetrics.merge(counts, executed);
+			}
+			int depth = baseDepth + ctx.getMaxDepth();
+			for (int i = 0; i < pieceCount; i++) {
+				if (pieces[i] instanceof BranchTask) {
+					depth = Math.max(depth,
+							((BranchTask) pieces[i]).replay(painter, counts));
+				} else {
+					((SegmentBuffer) pieces[i]).replay(painter);
+				}
+			}
+			return depth;
+		}
+	}
+}
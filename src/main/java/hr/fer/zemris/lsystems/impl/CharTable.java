@@ -0,0 +1,151 @@
+package hr.fer.zemris.lsystems.impl;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+import hr.zemris.java.custom.collections.CharObjectDictionary;
+import hr.zemris.java.custom.collections.Dictionary;
+
+/**
+ * An immutable table of values mapped to symbols, used in place of a
+ * {@link Dictionary} wherever symbols are looked up once per symbol of a
+ * generation. Symbols from a dense range are looked up directly by their
+ * index in an array, while the rare symbols outside that range are kept in a
+ * sorted array and found by binary search. No lookup boxes the symbol.
+ *
+ * @author 0036502252
+ *
+ * @param <V>
+ *            the type of the values in the table
+ */
+public class CharTable<V> {
+	/**
+	 * The maximum number of symbols in the dense range.
+	 */
+	private static final int MAX_DENSE_RANGE = 1024;
+
+	/**
+	 * The first symbol of the dense range.
+	 */
+	private char base;
+	/**
+	 * The values of the dense range, indexed by their symbol minus the base.
+	 */
+	private Object[] dense;
+	/**
+	 * The sorted symbols outside the dense range.
+	 */
+	private char[] sparseKeys;
+	/**
+	 * The values of the symbols outside the dense range.
+	 */
+	private Object[] sparseValues;
+
+	/**
+	 * Creates a new table from the given symbols and their values.
+	 *
+	 * @param symbols
+	 *            the symbols, without duplicates
+	 * @param values
+	 *            the values of the symbols, at the same indices
+	 */
+	public CharTable(char[] symbols, Object[] values) {
+		char[] sorted = symbols.clone();
+		Arrays.sort(sorted);
+
+		int denseCount = 0;
+		while (denseCount < sorted.length && sorted[denseCount]
+				- sorted[0] < MAX_DENSE_RANGE) {
+			denseCount++;
+		}
+
+		this.base = sorted.length == 0 ? 0 : sorted[0];
+		this.dense = new Object[denseCount == 0 ? 0
+				: sorted[denseCount - 1] - base + 1];
+		this.sparseKeys = Arrays.copyOfRange(sorted, denseCount,
+				sorted.length);
+		this.sparseValues = new Object[sparseKeys.length];
+
+		for (int i = 0; i < symbols.length; i++) {
+			int index = symbols[i] - base;
+			if (index < dense.length) {
+				dense[index] = values[i];
+			} else {
+				sparseValues[Arrays.binarySearch(sparseKeys,
+						symbols[i])] = values[i];
+			}
+		}
+	}
+
+	/**
+	 * Creates a new table from the entries of a dictionary whose keys are
+	 * symbols.
+	 *
+	 * @param dictionary
+	 *            the dictionary to be copied
+	 * @param converter
+	 *            converts the dictionary's values to the table's values
+	 * @return the new table
+	 */
+	public static <V> CharTable<V> fromDictionary(
+			CharObjectDictionary dictionary, Function<Object, V> converter) {
+		char[] symbols = dictionary.keys();
+		Object[] values = new Object[symbols.length];
+		for (int i = 0; i < symbols.length; i++) {
+			values[i] = converter.apply(dictionary.get(symbols[i]));
+		}
+		return new CharTable<>(symbols, values);
+	}
+
+	/**
+	 * Gets the value mapped to the given symbol.
+	 *
+	 * @param symbol
+	 *            the symbol
+	 * @return the value of the symbol, or null if the symbol has no value
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(char symbol) {
+		int index = symbol - base;
+		if (index >= 0 && index < dense.length) {
+			return (V) dense[index];
+		}
+		if (sparseKeys.length == 0) {
+			return null;
+		}
+		int position = Arrays.binarySearch(sparseKeys, symbol);
+		return position < 0 ? null : (V) sparseValues[position];
+	}
+
+	/**
+	 * Gets all the symbols which have a value in the table.
+	 *
+	 * @return the symbols, in ascending order
+	 */
+	public char[] symbols() {
+		char[] symbols = new char[size()];
+		int count = 0;
+		for (int i = 0; i < dense.length; i++) {
+			if (dense[i] != null) {
+				symbols[count++] = (char) (base + i);
+			}
+		}
+		System.arraycopy(sparseKeys, 0, symbols, count, sparseKeys.length);
+		return symbols;
+	}
+
+	/**
+	 * Gets the number of symbols which have a value in the table.
+	 *
+	 * @return the size of the table
+	 */
+	public int size() {
+		int size = sparseKeys.length;
+		for (Object value : dense) {
+			if (value != null) {
+				size++;
+			}
+		}
+		return size;
+	}
+}
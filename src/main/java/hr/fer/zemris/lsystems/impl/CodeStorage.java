@@ -0,0 +1,43 @@
+package hr.fer.zemris.lsystems.impl;
+
+/**
+ * Storage for an L-system generation kept as the codes of its symbols, which
+ * the {@link CodedGenerator} can write levels into.
+ *
+ * @author 0036502252
+ *
+ */
+interface CodeStorage {
+
+	/**
+	 * Gets the number of symbols in the generation.
+	 *
+	 * @return the length of the generation
+	 */
+	long length();
+
+	/**
+	 * Gets the code of the symbol at the given index.
+	 *
+	 * @param index
+	 *            the index of the symbol
+	 * @return the code of the symbol
+	 */
+	int code(long index);
+
+	/**
+	 * Sets the code of the symbol at the given index.
+	 *
+	 * @param index
+	 *            the index of the symbol
+	 * @param code
+	 *            the code of the symbol
+	 */
+	void setCode(long index, int code);
+
+	/**
+	 * Releases the storage once the generation is no longer needed.
+	 */
+	default void release() {
+	}
+}
@@ -0,0 +1,184 @@
+package hr.fer.zemris.lsystems.impl;
+
+import java.nio.file.Path;
+
+/**
+ * Generates the levels of an L-system as the codes of their symbols, either
+ * into {@link OffHeapGeneration}s or into {@link EncodedGeneration}s. The
+ * levels are double-buffered: each level is rewritten from the previous one,
+ * and the previous one is released as soon as the rewriting is done, so at
+ * most two levels exist at any time. The exact length of every level is
+ * known from the {@link ExpansionLengths} before it is allocated.
+ *
+ * @author 0036502252
+ *
+ */
+public class CodedGenerator {
+	/**
+	 * The alphabet of the system.
+	 */
+	private Alphabet alphabet;
+	/**
+	 * The axiom of the system.
+	 */
+	private char[] axiom;
+	/**
+	 * The codes of the productions, indexed by the code of the symbol they
+	 * replace; null for symbols without a production.
+	 */
+	private int[][] codedProductions;
+	/**
+	 * The lengths of the symbols' expansions.
+	 */
+	private ExpansionLengths lengths;
+
+	/**
+	 * Allocates the storage for a single level.
+	 *
+	 * @author 0036502252
+	 *
+	 * @param <T>
+	 *            the type of the storage
+	 */
+	private interface Allocator<T extends CodeStorage> {
+
+		/**
+		 * Allocates the storage for a level.
+		 *
+		 * @param level
+		 *            the level of the generation
+		 * @param length
+		 *            the number of symbols in the generation
+		 * @return the storage
+		 */
+		T allocate(int level, long length);
+	}
+
+	/**
+	 * Creates a new generator for the given system.
+	 *
+	 * @param alphabet
+	 *            the alphabet of the system
+	 * @param axiom
+	 *            the axiom of the system
+	 * @param productions
+	 *            the productions of the system
+	 * @param lengths
+	 *            the lengths of the symbols' expansions
+	 */
+	public CodedGenerator(Alphabet alphabet, char[] axiom,
+			CharTable<char[]> productions, ExpansionLengths lengths) {
+		this.alphabet = alphabet;
+		this.axiom = axiom;
+		this.lengths = lengths;
+		this.codedProductions = alphabet.encode(productions);
+	}
+
+	/**
+	 * Generates the given level outside of the heap.
+	 *
+	 * @param level
+	 *            the level of generation; negative levels are treated as
+	 *            level 0
+	 * @param directory
+	 *            the directory in which the temporary files are created, or
+	 *            null to use a direct buffer for generations of up to 2^30
+	 *            symbols and the default temporary directory for longer ones
+	 * @return the generation, which must be closed once it is no longer used
+	 * @throws IllegalArgumentException
+	 *             if the alphabet has more than 256 symbols
+	 * @throws IllegalStateException
+	 *             if a generation is too long to be indexed by a long
+	 * @throws java.io.UncheckedIOException
+	 *             if a temporary file cannot be created or mapped
+	 */
+	public OffHeapGeneration generateOffHeap(int level, Path directory) {
+		return generate(level, (l, length) -> new OffHeapGeneration(alphabet,
+				l, length, directory));
+	}
+
+	/**
+	 * Generates the given level into a compact array of codes.
+	 *
+	 * @param level
+	 *            the level of generation; negative levels are treated as
+	 *            level 0
+	 * @return the generation
+	 * @throws IllegalArgumentException
+	 *             if the alphabet has more than 256 symbols
+	 * @throws IllegalStateException
+	 *             if a generation is too long to be stored in an array
+	 */
+	public EncodedGeneration generateEncoded(int level) {
+		return generate(level,
+				(l, length) -> new EncodedGeneration(alphabet, l, length));
+	}
+
+	/**
+	 * Private utility method. Generates the given level, allocating the
+	 * storage of every level with the given allocator.
+	 *
+	 * @param level
+	 *            the level of generation
+	 * @param allocator
+	 *            allocates the storage of the levels
+	 * @return the generation
+	 * @throws IllegalStateException
+	 *             if a generation is too long to be indexed by a long
+	 */
+	private <T extends CodeStorage> T generate(int level,
+			Allocator<T> allocator) {
+		T current = allocator.allocate(0, axiom.length);
+		for (int i = 0; i < axiom.length; i++) {
+			current.setCode(i, alphabet.codeOf(axiom[i]));
+		}
+
+		for (int i = 1; i <= level; i++) {
+			long length = lengths.length(axiom, i);
+			if (length == Long.MAX_VALUE) {
+				current.release();
+				throw new IllegalStateException("The generation of level "
+						+ i + " is too long to be indexed!");
+			}
+
+			T next = null;
+			try {
+				next = allocator.allocate(i, length);
+				rewrite(current, next);
+			} catch (RuntimeException ex) {
+				if (next != null) {
+					next.release();
+				}
+				throw ex;
+			} finally {
+				current.release();
+			}
+			current = next;
+		}
+		return current;
+	}
+
+	/**
+	 * Private utility method. Applies the productions to every symbol of a
+	 * generation once.
+	 *
+	 * @param source
+	 *            the generation to be rewritten
+	 * @param target
+	 *            the storage for the next generation
+	 */
+	private void rewrite(CodeStorage source, CodeStorage target) {
+		long position = 0;
+		for (long i = 0, n = source.length(); i < n; i++) {
+			int code = source.code(i);
+			int[] prod = codedProductions[code];
+			if (prod == null) {
+				target.setCode(position++, code);
+				continue;
+			}
+			for (int child : prod) {
+				target.setCode(position++, child);
+			}
+		}
+	}
+}
@@ -1,45 +1,229 @@
 package hr.fer.zemris.lsystems.impl;
 
-import hr.zemris.java.custom.collections.ObjectStack;
+import java.awt.Color;
+import java.util.Arrays;
+
+import hr.zemris.java.custom.collections.EmptyStackException;
 
 /**
- * Represents the context of the turtle. 
+ * Represents the context of the turtle. Only the state on top of the stack is
+ * kept as a {@link TurtleState}; the states below it are saved in parallel
+ * primitive arrays, so pushing and popping a state copies a few numbers and
+ * creates no objects. The colors of the saved states are kept as packed ARGB
+ * values, which are turned back into the {@link Color}s they were saved from.
  * @author 0036502252
  *
  */
 public class Context {
 	/**
-	 * Stack data structure implementation used for modelling the context.
+	 * The initial capacity of the arrays holding the saved states.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * The state on top of the stack, or null if the stack is empty.
+	 */
+	private TurtleState current;
+	/**
+	 * The number of states saved below the current one.
+	 */
+	private int saved;
+	/**
+	 * The x-components of the saved positions.
+	 */
+	private double[] x;
+	/**
+	 * The y-components of the saved positions.
+	 */
+	private double[] y;
+	/**
+	 * The x-components of the saved directions.
+	 */
+	private double[] directionX;
+	/**
+	 * The y-components of the saved directions.
+	 */
+	private double[] directionY;
+	/**
+	 * The saved indices of the directions in the system's
+	 * {@link DirectionTable}.
+	 */
+	private int[] directionIndex;
+	/**
+	 * The saved unit lengths.
+	 */
+	private double[] unitLength;
+	/**
+	 * The saved colors, as packed ARGB values.
+	 */
+	private int[] colors;
+	/**
+	 * The distinct colors which were saved so far.
+	 */
+	private Color[] palette;
+	/**
+	 * The number of colors in the palette.
+	 */
+	private int paletteSize;
+	/**
+	 * The largest number of states the stack held so far.
 	 */
-	private ObjectStack stack;
+	private int maxDepth;
 	
 	/**
 	 * Creates a new context.
 	 */
 	public Context() {
-		this.stack = new ObjectStack();
+		this.x = new double[INITIAL_CAPACITY];
+		this.y = new double[INITIAL_CAPACITY];
+		this.directionX = new double[INITIAL_CAPACITY];
+		this.directionY = new double[INITIAL_CAPACITY];
+		this.directionIndex = new int[INITIAL_CAPACITY];
+		this.unitLength = new double[INITIAL_CAPACITY];
+		this.colors = new int[INITIAL_CAPACITY];
+		this.palette = new Color[4];
 	}
 	
 	/**
-	 * Gets the current state of the turtle's context.
+	 * Gets the current state of the turtle's context. The state is a view of
+	 * the top of the stack: the same object is returned until the state is
+	 * replaced by {@link #pushState(TurtleState)}, and popping a state
+	 * restores the saved values into it.
 	 * @return the currentState
+	 * @throws EmptyStackException if the stack is empty
 	 */
 	public TurtleState getCurrentState() {
-		return (TurtleState) stack.peek();
+		if (current == null) throw new EmptyStackException(
+				"Can't peek an empty stack!");
+		return current;
+	}
+
+	/**
+	 * Gets the number of states on the context stack.
+	 * @return the depth of the stack
+	 */
+	public int getDepth() {
+		return current == null ? 0 : saved + 1;
+	}
+
+	/**
+	 * Gets the largest number of states the context stack held so far.
+	 * @return the largest depth of the stack
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
 	}
 	
 	/**
-	 * Pushes a new state on the context stack.
+	 * Pushes a new state on the context stack. The values of the current
+	 * state are saved, and the given state becomes the current one.
 	 * @param state the state to be set
 	 */
 	public void pushState(TurtleState state) {
-		stack.push(state);
+		if (current != null) {
+			save();
+		}
+		current = state;
+		maxDepth = Math.max(maxDepth, saved + 1);
 	} 
+
+	/**
+	 * Pushes a copy of the current state on the context stack. The values of
+	 * the current state are saved, and the current state keeps being used as
+	 * the copy, so nothing is allocated.
+	 * @throws EmptyStackException if the stack is empty
+	 */
+	public void pushState() {
+		if (current == null) throw new EmptyStackException(
+				"Can't copy the state of an empty stack!");
+		save();
+	}
 	
 	/**
-	 * Pops a state from the context stack.
+	 * Pops a state from the context stack. The values of the state below it
+	 * are restored into the current state.
+	 * @throws EmptyStackException if the stack is empty
 	 */
 	public void popState() {
-		stack.pop();
+		if (current == null) throw new EmptyStackException(
+				"Can't pop from an empty stack!");
+		if (saved == 0) {
+			current = null;
+			return;
+		}
+
+		int i = --saved;
+		current.setPosition(x[i], y[i]);
+		current.setDirection(directionX[i], directionY[i], directionIndex[i]);
+		current.setUnitLength(unitLength[i]);
+		current.setDrawingColor(colorOf(colors[i]));
 	} 
+
+	/**
+	 * Private utility method. Saves the values of the current state on top
+	 * of the saved ones, growing the arrays if required.
+	 */
+	private void save() {
+		if (saved == x.length) {
+			int capacity = saved * 2;
+			x = Arrays.copyOf(x, capacity);
+			y = Arrays.copyOf(y, capacity);
+			directionX = Arrays.copyOf(directionX, capacity);
+			directionY = Arrays.copyOf(directionY, capacity);
+			directionIndex = Arrays.copyOf(directionIndex, capacity);
+			unitLength = Arrays.copyOf(unitLength, capacity);
+			colors = Arrays.copyOf(colors, capacity);
+		}
+
+		int i = saved++;
+		maxDepth = Math.max(maxDepth, saved + 1);
+		x[i] = current.getX();
+		y[i] = current.getY();
+		directionX[i] = current.getDirectionX();
+		directionY[i] = current.getDirectionY();
+		directionIndex[i] = current.getDirectionIndex();
+		unitLength[i] = current.getUnitLength();
+		colors[i] = remember(current.getDrawingColor());
+	}
+
+	/**
+	 * Private utility method. Adds the color to the palette unless a color
+	 * with the same ARGB value is already in it.
+	 * @param color the color to be remembered
+	 * @return the packed ARGB value of the color
+	 */
+	private int remember(Color color) {
+		int argb = color.getRGB();
+		if (paletteSize > 0 && palette[paletteSize - 1].getRGB() == argb) {
+			return argb;
+		}
+		for (int i = 0; i < paletteSize; i++) {
+			if (palette[i].getRGB() == argb) {
+				return argb;
+			}
+		}
+		if (paletteSize == palette.length) {
+			palette = Arrays.copyOf(palette, paletteSize * 2);
+		}
+		palette[paletteSize++] = color;
+		return argb;
+	}
+
+	/**
+	 * Private utility method. Finds the remembered color with the given ARGB
+	 * value.
+	 * @param argb the packed ARGB value
+	 * @return the color
+	 */
+	private Color colorOf(int argb) {
+		if (current.getDrawingColor().getRGB() == argb) {
+			return current.getDrawingColor();
+		}
+		for (int i = paletteSize - 1; i >= 0; i--) {
+			if (palette[i].getRGB() == argb) {
+				return palette[i];
+			}
+		}
+		return new Color(argb, true);
+	}
 }
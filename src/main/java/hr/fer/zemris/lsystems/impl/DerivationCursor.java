@@ -0,0 +1,118 @@
+package hr.fer.zemris.lsystems.impl;
+
+/**
+ * Walks the symbols of an L-system generation in order, without ever
+ * building the generation itself. The productions are expanded depth-first,
+ * keeping a single cursor for each level of the derivation, so the memory
+ * used is proportional to the level multiplied by the length of the longest
+ * production.
+ *
+ * @author 0036502252
+ *
+ */
+public class DerivationCursor implements SymbolCursor {
+	/**
+	 * Keeps all the productions mapped to the symbols they replace.
+	 */
+	private CharTable<char[]> productions;
+	/**
+	 * The word currently being read at each level of the derivation. The axiom
+	 * is kept at index 0.
+	 */
+	private char[][] words;
+	/**
+	 * The position of the next symbol to be read in each of the words.
+	 */
+	private int[] positions;
+	/**
+	 * The level of the word which is currently being read.
+	 */
+	private int depth;
+
+	/**
+	 * Creates a new cursor positioned at the first symbol of the generation.
+	 *
+	 * @param axiom
+	 *            the axiom of the system
+	 * @param productions
+	 *            the productions mapped to the symbols they replace
+	 * @param level
+	 *            the level of the generation to be walked; negative levels
+	 *            are treated as level 0
+	 */
+	public DerivationCursor(char[] axiom, CharTable<char[]> productions,
+			int level) {
+		this.productions = productions;
+		this.words = new char[Math.max(level, 0) + 1][];
+		this.positions = new int[Math.max(level, 0) + 1];
+		this.words[0] = axiom;
+		this.depth = 0;
+	}
+
+	/**
+	 * Gets the next symbol of the generation, expanding productions as
+	 * required.
+	 *
+	 * @return the next symbol, or -1 if all the symbols have been read
+	 */
+	@Override
+	public int next() {
+		while (depth >= 0) {
+			char[] word = words[depth];
+			if (positions[depth] == word.length) {
+				depth--;
+				continue;
+			}
+
+			char symbol = word[positions[depth]++];
+			if (depth == words.length - 1) {
+				return symbol;
+			}
+
+			char[] prod = productions.get(symbol);
+			if (prod == null) {
+				return symbol;
+			}
+			depth++;
+			words[depth] = prod;
+			positions[depth] = 0;
+		}
+		return -1;
+	}
+
+	/**
+	 * Skips the given number of symbols without reading them. Whole
+	 * expansions which lie within the skipped part are stepped over using
+	 * their lengths, so the cursor only descends along a single path of the
+	 * derivation.
+	 *
+	 * @param count
+	 *            the number of symbols to be skipped
+	 * @param lengths
+	 *            the lengths of the symbols' expansions
+	 * @return the number of symbols actually skipped, which is less than the
+	 *         given number only if the end of the generation was reached
+	 */
+	public long skip(long count, ExpansionLengths lengths) {
+		long skipped = 0;
+		while (skipped < count && depth >= 0) {
+			char[] word = words[depth];
+			if (positions[depth] == word.length) {
+				depth--;
+				continue;
+			}
+
+			char symbol = word[positions[depth]++];
+			long length = lengths.length(symbol, words.length - 1 - depth);
+			if (length <= count - skipped) {
+				skipped += length;
+				continue;
+			}
+
+			depth++;
+			words[depth] = productions.get(symbol);
+			positions[depth] = 0;
+		}
+		return skipped;
+	}
+}
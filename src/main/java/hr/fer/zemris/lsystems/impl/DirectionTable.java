@@ -0,0 +1,162 @@
+package hr.fer.zemris.lsystems.impl;
+
+/**
+ * A table of unit vectors evenly dividing the full circle. If every angle a
+ * turtle is turned by is a rational multiple of 360 degrees, its direction
+ * can only ever be one of finitely many vectors, so the turtle may keep the
+ * index of its direction in such a table instead of rotating a vector. This
+ * needs no trigonometry while drawing, and the direction does not drift
+ * however many times the turtle turns.
+ *
+ * @author 0036502252
+ *
+ */
+public class DirectionTable {
+	/**
+	 * The largest number of directions a table may have.
+	 */
+	public static final int MAX_SIZE = 3600;
+	/**
+	 * The tolerance used when checking whether an angle is a whole number of
+	 * the table's steps.
+	 */
+	private static final double EPSILON = 1E-9;
+
+	/**
+	 * The x-components of the directions.
+	 */
+	private double[] x;
+	/**
+	 * The y-components of the directions.
+	 */
+	private double[] y;
+
+	/**
+	 * Private constructor which computes a table of the given size.
+	 *
+	 * @param size
+	 *            the number of directions
+	 */
+	private DirectionTable(int size) {
+		this.x = new double[size];
+		this.y = new double[size];
+		for (int i = 0; i < size; i++) {
+			double radians = 2 * Math.PI * i / size;
+			x[i] = Math.cos(radians);
+			y[i] = Math.sin(radians);
+		}
+	}
+
+	/**
+	 * Creates the smallest table which holds every direction reachable by
+	 * turning by the given angles.
+	 *
+	 * @param angles
+	 *            the angles, in degrees
+	 * @return the table, or null if some angle is not a rational multiple of
+	 *         360 degrees or the table would have more than
+	 *         {@link #MAX_SIZE} directions
+	 */
+	public static DirectionTable forAngles(double... angles) {
+		int size = 1;
+		for (double angle : angles) {
+			int denominator = denominator(angle);
+			if (denominator == -1) {
+				return null;
+			}
+			long lcm = (long) size / gcd(size, denominator) * denominator;
+			if (lcm > MAX_SIZE) {
+				return null;
+			}
+			size = (int) lcm;
+		}
+		return new DirectionTable(size);
+	}
+
+	/**
+	 * Gets the number of directions in the table.
+	 *
+	 * @return the size of the table
+	 */
+	public int size() {
+		return x.length;
+	}
+
+	/**
+	 * Gets the index of the direction at the given angle, or the number of
+	 * steps which make up a turn by the given angle.
+	 *
+	 * @param angle
+	 *            the angle, in degrees
+	 * @return the index of the direction
+	 */
+	public int indexOf(double angle) {
+		long steps = Math.round(angle / 360 * x.length);
+		return (int) Math.floorMod(steps, (long) x.length);
+	}
+
+	/**
+	 * Gets the x-component of the direction with the given index.
+	 *
+	 * @param index
+	 *            the index of the direction
+	 * @return the x-component
+	 */
+	public double getX(int index) {
+		return x[index];
+	}
+
+	/**
+	 * Gets the y-component of the direction with the given index.
+	 *
+	 * @param index
+	 *            the index of the direction
+	 * @return the y-component
+	 */
+	public double getY(int index) {
+		return y[index];
+	}
+
+	/**
+	 * Private utility method. Finds the smallest number of equal parts the
+	 * full circle must be divided into for the angle to be a whole number of
+	 * them.
+	 *
+	 * @param angle
+	 *            the angle, in degrees
+	 * @return the number of parts, or -1 if it is larger than
+	 *         {@link #MAX_SIZE}
+	 */
+	private static int denominator(double angle) {
+		double turns = angle / 360;
+		if (Double.isNaN(turns) || Double.isInfinite(turns)) {
+			return -1;
+		}
+		for (int q = 1; q <= MAX_SIZE; q++) {
+			double parts = turns * q;
+			if (Math.abs(parts - Math.rint(parts)) < EPSILON) {
+				return q;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Private utility method. Computes the greatest common divisor of two
+	 * positive numbers.
+	 *
+	 * @param a
+	 *            the first number
+	 * @param b
+	 *            the second number
+	 * @return the greatest common divisor
+	 */
+	private static int gcd(int a, int b) {
+		while (b != 0) {
+			int t = a % b;
+			a = b;
+			b = t;
+		}
+		return a;
+	}
+}
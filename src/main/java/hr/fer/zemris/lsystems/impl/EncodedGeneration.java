@@ -0,0 +1,202 @@
+package hr.fer.zemris.lsystems.impl;
+
+/**
+ * An L-system generation stored as the codes its symbols have in the system's
+ * {@link Alphabet}, rather than as characters. Each code takes a single byte,
+ * or only four bits if the alphabet has at most 16 symbols, so the generation
+ * takes two to four times less memory than a string of the same symbols.
+ * <p>
+ * The encoding is only used by {@link LSystemImpl#generateEncoded(int)} and
+ * the methods drawing encoded generations. {@link LSystemImpl#generate(int)}
+ * still rewrites and caches {@code char[]} generations, since it has to
+ * return a string and rewrites in parallel, and
+ * {@link LSystemImpl#draw(int, hr.fer.zemris.lsystems.Painter)} builds no
+ * generation at all.
+ * </p>
+ *
+ * @author 0036502252
+ *
+ */
+public class EncodedGeneration implements CodeStorage {
+	/**
+	 * The largest number of symbols which can be packed four bits per symbol.
+	 */
+	public static final int MAX_PACKED_ALPHABET = 16;
+	/**
+	 * The largest number of symbols which can be stored a byte per symbol.
+	 */
+	public static final int MAX_ALPHABET = 256;
+	/**
+	 * The largest array length which can safely be allocated.
+	 */
+	private static final long MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+	/**
+	 * The alphabet whose codes are stored.
+	 */
+	private Alphabet alphabet;
+	/**
+	 * The level of the generation.
+	 */
+	private int level;
+	/**
+	 * The number of symbols in the generation.
+	 */
+	private long length;
+	/**
+	 * Whether two codes are packed into each byte.
+	 */
+	private boolean packed;
+	/**
+	 * The stored codes.
+	 */
+	private byte[] data;
+
+	/**
+	 * Allocates the storage for a generation of the given length.
+	 *
+	 * @param alphabet
+	 *            the alphabet of the system
+	 * @param level
+	 *            the level of the generation
+	 * @param length
+	 *            the number of symbols in the generation
+	 * @throws IllegalArgumentException
+	 *             if the alphabet has more than 256 symbols
+	 * @throws IllegalStateException
+	 *             if the generation is too long to be stored in an array
+	 */
+	EncodedGeneration(Alphabet alphabet, int level, long length) {
+		if (alphabet.size() > MAX_ALPHABET)
+			throw new IllegalArgumentException("An alphabet of "
+					+ alphabet.size()
+					+ " symbols cannot be stored one byte per symbol!");
+		this.alphabet = alphabet;
+		this.level = level;
+		this.length = length;
+		this.packed = alphabet.size() <= MAX_PACKED_ALPHABET;
+
+		long bytes = packed ? (length + 1) / 2 : length;
+		if (bytes > MAX_ARRAY_LENGTH)
+			throw new IllegalStateException("The generation of level " + level
+					+ " has " + length
+					+ " symbols, which is more than an array can hold!");
+		this.data = new byte[(int) bytes];
+	}
+
+	/**
+	 * Gets the level of the generation.
+	 *
+	 * @return the level
+	 */
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * Gets the number of symbols in the generation.
+	 *
+	 * @return the length of the generation
+	 */
+	@Override
+	public long length() {
+		return length;
+	}
+
+	/**
+	 * Checks whether two symbols are packed into each byte.
+	 *
+	 * @return true if four bits are used per symbol, false if eight are
+	 */
+	public boolean isPacked() {
+		return packed;
+	}
+
+	/**
+	 * Gets the number of bytes the codes occupy.
+	 *
+	 * @return the size of the stored codes, in bytes
+	 */
+	public int sizeInBytes() {
+		return data.length;
+	}
+
+	/**
+	 * Gets the symbol at the given index.
+	 *
+	 * @param index
+	 *            the index of the symbol
+	 * @return the symbol
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or not less than the length
+	 */
+	public char charAt(long index) {
+		if (index < 0 || index >= length)
+			throw new IndexOutOfBoundsException("The index " + index
+					+ " is not within [0, " + length + ")!");
+		return alphabet.symbolOf(code(index));
+	}
+
+	/**
+	 * Creates a cursor which reads the codes of the generation in order.
+	 *
+	 * @return the new cursor, returning codes rather than symbols
+	 */
+	public SymbolCursor codes() {
+		return new SymbolCursor() {
+			private long position;
+
+			@Override
+			public int next() {
+				return position == length ? -1 : code(position++);
+			}
+		};
+	}
+
+	/**
+	 * Creates a cursor which reads the symbols of the generation in order.
+	 *
+	 * @return the new cursor
+	 */
+	public SymbolCursor cursor() {
+		SymbolCursor codes = codes();
+		return () -> {
+			int code = codes.next();
+			return code == -1 ? -1 : alphabet.symbolOf(code);
+		};
+	}
+
+	/**
+	 * Gets the code of the symbol at the given index.
+	 *
+	 * @param index
+	 *            the index of the symbol
+	 * @return the code of the symbol
+	 */
+	@Override
+	public int code(long index) {
+		if (!packed) {
+			return data[(int) index] & 0xFF;
+		}
+		int b = data[(int) (index >>> 1)];
+		return (index & 1) == 0 ? b & 0x0F : (b >>> 4) & 0x0F;
+	}
+
+	/**
+	 * Sets the code of the symbol at the given index. Each code may only be
+	 * set once.
+	 *
+	 * @param index
+	 *            the index of the symbol
+	 * @param code
+	 *            the code of the symbol
+	 */
+	@Override
+	public void setCode(long index, int code) {
+		if (!packed) {
+			data[(int) index] = (byte) code;
+		} else {
+			data[(int) (index >>> 1)] |= code << ((index & 1) << 2);
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package hr.fer.zemris.lsystems.impl;
+
+import java.util.Arrays;
+
+/**
+ * A table of the lengths of every symbol's expansion after a number of
+ * levels. The table is extended level by level as deeper levels are
+ * requested, each level being computed from the previous one. The lengths
+ * saturate at {@link Long#MAX_VALUE}.
+ *
+ * @author 0036502252
+ *
+ */
+public class ExpansionLengths {
+	/**
+	 * The alphabet whose codes index the table.
+	 */
+	private Alphabet alphabet;
+	/**
+	 * The productions of the system.
+	 */
+	private CharTable<char[]> productions;
+	/**
+	 * The productions of the system as codes, indexed by the code of the
+	 * symbol they replace; null for symbols without a production.
+	 */
+	private int[][] codedProductions;
+	/**
+	 * The lengths, indexed by the number of levels and the symbol's code.
+	 */
+	private long[][] lengths;
+
+	/**
+	 * Creates a new table for the given system.
+	 *
+	 * @param alphabet
+	 *            the alphabet of the system
+	 * @param productions
+	 *            the productions of the system
+	 */
+	public ExpansionLengths(Alphabet alphabet, CharTable<char[]> productions) {
+		this.alphabet = alphabet;
+		this.productions = productions;
+		this.codedProductions = alphabet.encode(productions);
+		this.lengths = new long[1][alphabet.size()];
+		Arrays.fill(lengths[0], 1);
+	}
+
+	/**
+	 * Gets the length of a symbol's expansion after the given number of
+	 * levels.
+	 *
+	 * @param symbol
+	 *            the symbol to be expanded
+	 * @param levels
+	 *            the number of levels the symbol is expanded for
+	 * @return the length of the expansion, or {@link Long#MAX_VALUE} if it is
+	 *         at least that large
+	 */
+	public long length(char symbol, int levels) {
+		int code = alphabet.codeOf(symbol);
+		if (code == -1 || levels <= 0 || productions.get(symbol) == null) {
+			return 1;
+		}
+		return table(levels)[levels][code];
+	}
+
+	/**
+	 * Gets the length of a word's expansion after the given number of levels.
+	 *
+	 * @param word
+	 *            the word to be expanded
+	 * @param levels
+	 *            the number of levels the word is expanded for
+	 * @return the length of the expansion, or {@link Long#MAX_VALUE} if it is
+	 *         at least that large
+	 */
+	public long length(char[] word, int levels) {
+		long length = 0;
+		for (char symbol : word) {
+			length += length(symbol, levels);
+			if (length < 0) {
+				return Long.MAX_VALUE;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Private utility method. Gets the table, extending it up to the given
+	 * number of levels if required.
+	 *
+	 * @param levels
+	 *            the number of levels the table must cover
+	 * @return the table
+	 */
+	private synchronized long[][] table(int levels) {
+		if (levels < lengths.length) {
+			return lengths;
+		}
+
+		int size = alphabet.size();
+		long[][] extended = Arrays.copyOf(lengths, levels + 1);
+		for (int level = lengths.length; level <= levels; level++) {
+			extended[level] = new long[size];
+			for (int code = 0; code < size; code++) {
+				int[] prod = codedProductions[code];
+				if (prod == null) {
+					extended[level][code] = 1;
+					continue;
+				}
+				long length = 0;
+				for (int child : prod) {
+					length += extended[level - 1][child];
+					if (length < 0) {
+						length = Long.MAX_VALUE;
+						break;
+					}
+				}
+				extended[level][code] = length;
+			}
+		}
+		lengths = extended;
+		return lengths;
+	}
+}
@@ -0,0 +1,242 @@
+package hr.fer.zemris.lsystems.impl;
+
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of the generations of a single L-system, mapped to their
+ * levels. The cache never holds more than its byte budget; when a new
+ * generation does not fit, the least recently used generations are evicted
+ * first. The generations are also only softly referenced, so the garbage
+ * collector may clear them when the heap runs low.
+ *
+ * @author 0036502252
+ *
+ */
+public class GenerationCache {
+	/**
+	 * The approximate number of bytes an array occupies besides its elements.
+	 */
+	private static final long ARRAY_OVERHEAD = 16;
+
+	/**
+	 * The maximum number of bytes the cached generations may occupy.
+	 */
+	private long budget;
+	/**
+	 * The number of bytes the cached generations currently occupy.
+	 */
+	private long used;
+	/**
+	 * The cached generations mapped to their levels, in access order.
+	 */
+	private LinkedHashMap<Integer, Slot> slots;
+
+	/**
+	 * Represents a single cached generation.
+	 *
+	 * @author 0036502252
+	 *
+	 */
+	private static class Slot {
+		/**
+		 * The cached generation.
+		 */
+		private SoftReference<char[]> generation;
+		/**
+		 * The number of bytes the generation occupies.
+		 */
+		private long size;
+
+		/**
+		 * Creates a new slot for the given generation.
+		 *
+		 * @param generation
+		 *            the generation to be cached
+		 */
+		public Slot(char[] generation) {
+			this.generation = new SoftReference<>(generation);
+			this.size = sizeOf(generation);
+		}
+	}
+
+	/**
+	 * A generation found in the cache, along with its level.
+	 *
+	 * @author 0036502252
+	 *
+	 */
+	public static class CachedLevel {
+		/**
+		 * The level of the generation.
+		 */
+		private int level;
+		/**
+		 * The generation itself.
+		 */
+		private char[] generation;
+
+		/**
+		 * Creates a new cached level.
+		 *
+		 * @param level
+		 *            the level of the generation
+		 * @param generation
+		 *            the generation itself
+		 */
+		public CachedLevel(int level, char[] generation) {
+			this.level = level;
+			this.generation = generation;
+		}
+
+		/**
+		 * Gets the level of the generation.
+		 *
+		 * @return the level
+		 */
+		public int getLevel() {
+			return level;
+		}
+
+		/**
+		 * Gets the generation. The array is shared with the cache and must
+		 * not be modified.
+		 *
+		 * @return the generation
+		 */
+		public char[] getGeneration() {
+			return generation;
+		}
+	}
+
+	/**
+	 * Creates a new empty cache with the given budget.
+	 *
+	 * @param budget
+	 *            the maximum number of bytes the cached generations may
+	 *            occupy; 0 disables the cache
+	 * @throws IllegalArgumentException
+	 *             if the budget is negative
+	 */
+	public GenerationCache(long budget) {
+		if (budget < 0)
+			throw new IllegalArgumentException(
+					"The cache budget must not be negative!");
+		this.budget = budget;
+		this.slots = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Finds the highest cached level which is not above the given level.
+	 *
+	 * @param level
+	 *            the highest acceptable level
+	 * @return the cached level, or null if no suitable level is cached
+	 */
+	public synchronized CachedLevel floor(int level) {
+		purge();
+		int best = -1;
+		for (Integer cached : slots.keySet()) {
+			if (cached <= level && cached > best) {
+				best = cached;
+			}
+		}
+		if (best == -1) {
+			return null;
+		}
+
+		char[] generation = slots.get(best).generation.get();
+		if (generation == null) {
+			return floor(level);
+		}
+		return new CachedLevel(best, generation);
+	}
+
+	/**
+	 * Caches a generation, evicting the least recently used generations if
+	 * the budget requires it. Generations larger than the whole budget are
+	 * not cached.
+	 *
+	 * @param level
+	 *            the level of the generation
+	 * @param generation
+	 *            the generation to be cached; it must not be modified
+	 *            afterwards
+	 */
+	public synchronized void put(int level, char[] generation) {
+		long size = sizeOf(generation);
+		if (size > budget) {
+			return;
+		}
+
+		purge();
+		Slot old = slots.remove(level);
+		if (old != null) {
+			used -= old.size;
+		}
+
+		Iterator<Slot> it = slots.values().iterator();
+		while (used + size > budget && it.hasNext()) {
+			used -= it.next().size;
+			it.remove();
+		}
+
+		slots.put(level, new Slot(generation));
+		used += size;
+	}
+
+	/**
+	 * Removes all the generations from the cache.
+	 */
+	public synchronized void clear() {
+		slots.clear();
+		used = 0;
+	}
+
+	/**
+	 * Gets the number of bytes the cached generations currently occupy.
+	 *
+	 * @return the used number of bytes
+	 */
+	public synchronized long getUsed() {
+		return used;
+	}
+
+	/**
+	 * Gets the maximum number of bytes the cached generations may occupy.
+	 *
+	 * @return the budget, in bytes
+	 */
+	public long getBudget() {
+		return budget;
+	}
+
+	/**
+	 * Private utility method. Removes the slots whose generations were
+	 * cleared by the garbage collector.
+	 */
+	private void purge() {
+		Iterator<Map.Entry<Integer, Slot>> it = slots.entrySet().iterator();
+		while (it.hasNext()) {
+			Slot slot = it.next().getValue();
+			if (slot.generation.get() == null) {
+				used -= slot.size;
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Private utility method. Estimates the number of bytes a generation
+	 * occupies.
+	 *
+	 * @param generation
+	 *            the generation
+	 * @return the size of the generation, in bytes
+	 */
+	private static long sizeOf(char[] generation) {
+		return ARRAY_OVERHEAD + 2L * generation.length;
+	}
+}
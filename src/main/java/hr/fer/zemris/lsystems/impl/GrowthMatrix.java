@@ -0,0 +1,337 @@
+package hr.fer.zemris.lsystems.impl;
+
+import java.math.BigInteger;
+
+/**
+ * Predicts the number of each symbol in the generations of an L-system
+ * without generating them. Each generation is described by its Parikh vector,
+ * which holds the number of occurrences of every symbol of the alphabet. The
+ * vector of a level is the vector of the axiom multiplied by the level-th
+ * power of the growth matrix, whose rows hold the Parikh vectors of the
+ * symbols' productions. The power is computed by repeated squaring, so a
+ * prediction takes time logarithmic in the level.
+ *
+ * @author 0036502252
+ *
+ */
+public class GrowthMatrix {
+	/**
+	 * The alphabet whose codes index the vectors and the matrix.
+	 */
+	private Alphabet alphabet;
+	/**
+	 * The Parikh vector of the axiom.
+	 */
+	private long[] axiom;
+	/**
+	 * The growth matrix; the element at [a][b] is the number of symbols b in
+	 * the production of symbol a.
+	 */
+	private long[][] matrix;
+
+	/**
+	 * Creates the growth matrix of an L-system.
+	 *
+	 * @param alphabet
+	 *            the alphabet of the system
+	 * @param axiom
+	 *            the axiom of the system
+	 * @param productions
+	 *            the productions of the system
+	 */
+	public GrowthMatrix(Alphabet alphabet, char[] axiom,
+			CharTable<char[]> productions) {
+		int size = alphabet.size();
+		this.alphabet = alphabet;
+		this.axiom = new long[size];
+		this.matrix = new long[size][size];
+
+		for (char symbol : axiom) {
+			this.axiom[alphabet.codeOf(symbol)]++;
+		}
+		for (int code = 0; code < size; code++) {
+			char[] prod = productions.get(alphabet.symbolOf(code));
+			if (prod == null) {
+				matrix[code][code] = 1;
+				continue;
+			}
+			for (char symbol : prod) {
+				matrix[code][alphabet.codeOf(symbol)]++;
+			}
+		}
+	}
+
+	/**
+	 * Computes the number of symbols in the generation of the given level.
+	 *
+	 * @param level
+	 *            the level of generation
+	 * @return the length of the generation
+	 * @throws ArithmeticException
+	 *             if the length does not fit in a long
+	 */
+	public long length(int level) {
+		long length = saturatedLength(level);
+		return length < Long.MAX_VALUE ? length
+				: fitting(exactLength(level));
+	}
+
+	/**
+	 * Computes the number of symbols in the generation of the given level,
+	 * saturating at {@link Long#MAX_VALUE}. This is cheaper than
+	 * {@link #length(int)} for huge generations, as it never falls back to
+	 * arbitrary precision.
+	 *
+	 * @param level
+	 *            the level of generation
+	 * @return the length of the generation, or {@link Long#MAX_VALUE} if the
+	 *         length is at least that large
+	 */
+	public long saturatedLength(int level) {
+		long length = 0;
+		for (long count : counts(level)) {
+			length = saturatedAdd(length, count);
+		}
+		return length;
+	}
+
+	/**
+	 * Computes the number of occurrences of a symbol in the generation of the
+	 * given level.
+	 *
+	 * @param symbol
+	 *            the symbol to be counted
+	 * @param level
+	 *            the level of generation
+	 * @return the number of occurrences of the symbol
+	 * @throws ArithmeticException
+	 *             if the number does not fit in a long
+	 */
+	public long count(char symbol, int level) {
+		int code = alphabet.codeOf(symbol);
+		if (code == -1) {
+			return 0;
+		}
+		long count = counts(level)[code];
+		return count < Long.MAX_VALUE ? count
+				: fitting(exactCounts(level)[code]);
+	}
+
+	/**
+	 * Computes the number of symbols in the generation of the given level,
+	 * however large it may be.
+	 *
+	 * @param level
+	 *            the level of generation
+	 * @return the length of the generation
+	 */
+	public BigInteger exactLength(int level) {
+		BigInteger length = BigInteger.ZERO;
+		for (BigInteger count : exactCounts(level)) {
+			length = length.add(count);
+		}
+		return length;
+	}
+
+	/**
+	 * Computes the number of occurrences of a symbol in the generation of the
+	 * given level, however large it may be.
+	 *
+	 * @param symbol
+	 *            the symbol to be counted
+	 * @param level
+	 *            the level of generation
+	 * @return the number of occurrences of the symbol
+	 */
+	public BigInteger exactCount(char symbol, int level) {
+		int code = alphabet.codeOf(symbol);
+		return code == -1 ? BigInteger.ZERO : exactCounts(level)[code];
+	}
+
+	/**
+	 * Computes the Parikh vector of the generation of the given level. The
+	 * numbers saturate at {@link Long#MAX_VALUE}; since all the numbers
+	 * involved are non-negative, a saturated number is at least that large.
+	 *
+	 * @param level
+	 *            the level of generation; negative levels are treated as
+	 *            level 0
+	 * @return the number of occurrences of each symbol, indexed by its code
+	 */
+	public long[] counts(int level) {
+		long[] vector = axiom.clone();
+		long[][] power = matrix;
+		for (int bits = Math.max(level, 0); bits != 0; bits >>>= 1) {
+			if ((bits & 1) != 0) {
+				vector = multiply(vector, power);
+			}
+			if (bits > 1) {
+				power = multiply(power, power);
+			}
+		}
+		return vector;
+	}
+
+	/**
+	 * Computes the Parikh vector of the generation of the given level, however
+	 * large its numbers may be.
+	 *
+	 * @param level
+	 *            the level of generation; negative levels are treated as
+	 *            level 0
+	 * @return the number of occurrences of each symbol, indexed by its code
+	 */
+	public BigInteger[] exactCounts(int level) {
+		int size = axiom.length;
+		BigInteger[] vector = new BigInteger[size];
+		BigInteger[][] power = new BigInteger[size][size];
+		for (int i = 0; i < size; i++) {
+			vector[i] = BigInteger.valueOf(axiom[i]);
+			for (int j = 0; j < size; j++) {
+				power[i][j] = BigInteger.valueOf(matrix[i][j]);
+			}
+		}
+
+		for (int bits = Math.max(level, 0); bits != 0; bits >>>= 1) {
+			if ((bits & 1) != 0) {
+				vector = multiply(vector, power);
+			}
+			if (bits > 1) {
+				power = multiply(power, power);
+			}
+		}
+		return vector;
+	}
+
+	/**
+	 * Private utility method. Multiplies a row vector by a matrix.
+	 *
+	 * @param vector
+	 *            the vector
+	 * @param matrix
+	 *            the matrix
+	 * @return the product, saturated at {@link Long#MAX_VALUE}
+	 */
+	private static long[] multiply(long[] vector, long[][] matrix) {
+		long[] result = new long[vector.length];
+		for (int i = 0; i < vector.length; i++) {
+			if (vector[i] == 0) {
+				continue;
+			}
+			for (int j = 0; j < result.length; j++) {
+				result[j] = saturatedAdd(result[j],
+						saturatedMultiply(vector[i], matrix[i][j]));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Private utility method. Multiplies two square matrices.
+	 *
+	 * @param a
+	 *            the left matrix
+	 * @param b
+	 *            the right matrix
+	 * @return the product, saturated at {@link Long#MAX_VALUE}
+	 */
+	private static long[][] multiply(long[][] a, long[][] b) {
+		long[][] result = new long[a.length][];
+		for (int i = 0; i < a.length; i++) {
+			result[i] = multiply(a[i], b);
+		}
+		return result;
+	}
+
+	/**
+	 * Private utility method. Multiplies a row vector by a matrix.
+	 *
+	 * @param vector
+	 *            the vector
+	 * @param matrix
+	 *            the matrix
+	 * @return the product
+	 */
+	private static BigInteger[] multiply(BigInteger[] vector,
+			BigInteger[][] matrix) {
+		BigInteger[] result = new BigInteger[vector.length];
+		for (int j = 0; j < result.length; j++) {
+			result[j] = BigInteger.ZERO;
+		}
+		for (int i = 0; i < vector.length; i++) {
+			if (vector[i].signum() == 0) {
+				continue;
+			}
+			for (int j = 0; j < result.length; j++) {
+				result[j] = result[j].add(vector[i].multiply(matrix[i][j]));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Private utility method. Multiplies two square matrices.
+	 *
+	 * @param a
+	 *            the left matrix
+	 * @param b
+	 *            the right matrix
+	 * @return the product
+	 */
+	private static BigInteger[][] multiply(BigInteger[][] a,
+			BigInteger[][] b) {
+		BigInteger[][] result = new BigInteger[a.length][];
+		for (int i = 0; i < a.length; i++) {
+			result[i] = multiply(a[i], b);
+		}
+		return result;
+	}
+
+	/**
+	 * Private utility method. Adds two non-negative numbers, saturating at
+	 * {@link Long#MAX_VALUE}.
+	 *
+	 * @param a
+	 *            the first number
+	 * @param b
+	 *            the second number
+	 * @return the saturated sum
+	 */
+	private static long saturatedAdd(long a, long b) {
+		long sum = a + b;
+		return sum < 0 ? Long.MAX_VALUE : sum;
+	}
+
+	/**
+	 * Private utility method. Multiplies two non-negative numbers, saturating
+	 * at {@link Long#MAX_VALUE}.
+	 *
+	 * @param a
+	 *            the first number
+	 * @param b
+	 *            the second number
+	 * @return the saturated product
+	 */
+	private static long saturatedMultiply(long a, long b) {
+		if (a == 0 || b == 0) {
+			return 0;
+		}
+		return a > Long.MAX_VALUE / b ? Long.MAX_VALUE : a * b;
+	}
+
+	/**
+	 * Private utility method. Converts the number to a long, if it fits.
+	 *
+	 * @param number
+	 *            the number to be converted
+	 * @return the number as a long
+	 * @throws ArithmeticException
+	 *             if the number does not fit in a long
+	 */
+	private static long fitting(BigInteger number) {
+		if (number.bitLength() >= Long.SIZE)
+			throw new ArithmeticException(
+					"The number " + number + " does not fit in a long!");
+		return number.longValue();
+	}
+}
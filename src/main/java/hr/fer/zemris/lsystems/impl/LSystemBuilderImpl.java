@@ -2,9 +2,7 @@ package hr.fer.zemris.lsystems.impl;
 
 import java.awt.Color;
 
-import hr.fer.zemris.lsystems.LSystem;
 import hr.fer.zemris.lsystems.LSystemBuilder;
-import hr.fer.zemris.lsystems.Painter;
 import hr.fer.zemris.lsystems.impl.commands.ColorCommand;
 import hr.fer.zemris.lsystems.impl.commands.DrawCommand;
 import hr.fer.zemris.lsystems.impl.commands.PopCommand;
@@ -13,7 +11,7 @@ import hr.fer.zemris.lsystems.impl.commands.RotateCommand;
 import hr.fer.zemris.lsystems.impl.commands.ScaleCommand;
 import hr.fer.zemris.lsystems.impl.commands.SkipCommand;
 import hr.fer.zemris.math.Vector2D;
-import hr.zemris.java.custom.collections.Dictionary;
+import hr.zemris.java.custom.collections.CharObjectDictionary;
 
 /**
  * A custom implementation of an L-system builder. With the given origin, angle,
@@ -28,12 +26,12 @@ public class LSystemBuilderImpl implements LSystemBuilder {
 	/**
 	 * Keeps all the registered commands mapped to their symbol representations.
 	 */
-	private Dictionary registeredCommands;
+	private CharObjectDictionary registeredCommands;
 	/**
 	 * Keeps all the registered productions mapped to the symbols the production
 	 * will replace.
 	 */
-	private Dictionary registeredProductions;
+	private CharObjectDictionary registeredProductions;
 	/**
 	 * Unit length used for drawing.
 	 */
@@ -54,87 +52,36 @@ public class LSystemBuilderImpl implements LSystemBuilder {
 	 * The axiom of the system, from which all productions are created.
 	 */
 	private String axiom;
+	/**
+	 * The maximum number of bytes the generations cached by a built system
+	 * may occupy.
+	 */
+	private long generationCacheBudget;
 
 	/**
 	 * Constructs an implementation of the L-system builder with its default
 	 * values.
 	 */
 	public LSystemBuilderImpl() {
-		this.registeredProductions = new Dictionary();
-		this.registeredCommands = new Dictionary();
+		this.registeredProductions = new CharObjectDictionary();
+		this.registeredCommands = new CharObjectDictionary();
 		this.unitLength = 0.1;
 		this.unitLengthDegreeScaler = 1;
 		this.origin = new Vector2D(0, 0);
 		this.angle = 0;
 		this.axiom = "";
+		this.generationCacheBudget = Runtime.getRuntime().maxMemory() / 8;
 	}
 
 	/**
-	 * Builds and then draws an L-system, using the parameters from the L-system
+	 * Builds an L-system, using the parameters from the L-system
 	 * implementation (its axiom, origin vector, production and commands).
 	 */
 	@Override
-	public LSystem build() {
-		return new LSystem() {
-
-			/**
-			 * Generates a string representation of an l-system generation for
-			 * the given level.
-			 * 
-			 * @param level
-			 *            the level of generation
-			 * @return the (k-1)-th generation for the k-th level
-			 */
-			@Override
-			public String generate(int level) {
-				String generation = axiom;
-				for (int i = 1; i <= level; i++) {
-					StringBuilder sb = new StringBuilder();
-					for (char symbol : generation.toCharArray()) {
-						String prod = (String) registeredProductions
-								.get(symbol);
-						if (prod == null) {
-							sb.append(symbol);
-						} else {
-							sb.append(prod);
-						}
-					}
-					generation = sb.toString();
-				}
-				return generation;
-			}
-
-			/**
-			 * Draws the l-system generation.
-			 * 
-			 * @param level
-			 *            the level of generation
-			 * @painter the painter used for line drawing
-			 */
-			@Override
-			public void draw(int level, Painter painter) {
-				Context ctx = new Context();
-				Vector2D direction = new Vector2D(1, 0).rotated(angle);
-
-				TurtleState state = new TurtleState(origin, direction,
-						Color.BLACK, unitLength);
-				ctx.pushState(state);
-
-				char[] data = generate(level).toCharArray();
-
-				state.setUnitLength(
-						unitLength * Math.pow(unitLengthDegreeScaler, level));
-
-				for (int i = 0, n = data.length; i < n; i++) {
-					char currentSymbol = data[i];
-					Command command = (Command) registeredCommands
-							.get(currentSymbol);
-					if (command != null) {
-						command.execute(ctx, painter);
-					}
-				}
-			}
-		};
+	public LSystemImpl build() {
+		return new LSystemImpl(registeredCommands, registeredProductions,
+				unitLength, unitLengthDegreeScaler, origin, angle, axiom,
+				generationCacheBudget);
 	}
 
 	/**
@@ -151,7 +98,7 @@ public class LSystemBuilderImpl implements LSystemBuilder {
 	 *             if a certain number cannot be parsed
 	 */
 	@Override
-	public LSystemBuilder configureFromText(String[] lines) {
+	public LSystemBuilderImpl configureFromText(String[] lines) {
 		for (String line : lines) {
 			line = skipMultipleSpaces(line);
 
@@ -243,7 +190,7 @@ public class LSystemBuilderImpl implements LSystemBuilder {
 	 * 
 	 */
 	@Override
-	public LSystemBuilder registerCommand(char symbol, String action) {
+	public LSystemBuilderImpl registerCommand(char symbol, String action) {
 		String[] args = action.split(" ");
 		switch (args[0].toLowerCase()) {
 		case "draw":
@@ -291,7 +238,7 @@ public class LSystemBuilderImpl implements LSystemBuilder {
 	 * @return the {@link LSystemBuilder} with its modified dictionary
 	 */
 	@Override
-	public LSystemBuilder registerProduction(char symbol, String production) {
+	public LSystemBuilderImpl registerProduction(char symbol, String production) {
 		this.registeredProductions.put(symbol, production);
 		return this;
 	}
@@ -304,7 +251,7 @@ public class LSystemBuilderImpl implements LSystemBuilder {
 	 * @return the {@link LSystemBuilder} with its modified angle parameter
 	 */
 	@Override
-	public LSystemBuilder setAngle(double angle) {
+	public LSystemBuilderImpl setAngle(double angle) {
 		this.angle = angle;
 		return this;
 	}
@@ -317,7 +264,7 @@ public class LSystemBuilderImpl implements LSystemBuilder {
 	 * @return the {@link LSystemBuilder} with its modified axiom
 	 */
 	@Override
-	public LSystemBuilder setAxiom(String axiom) {
+	public LSystemBuilderImpl setAxiom(String axiom) {
 		this.axiom = axiom;
 		return this;
 	}
@@ -332,7 +279,7 @@ public class LSystemBuilderImpl implements LSystemBuilder {
 	 * @return the {@link LSystemBuilder} with its modified origin vector
 	 */
 	@Override
-	public LSystemBuilder setOrigin(double x, double y) {
+	public LSystemBuilderImpl setOrigin(double x, double y) {
 		this.origin = new Vector2D(x, y);
 		return this;
 	}
@@ -345,7 +292,7 @@ public class LSystemBuilderImpl implements LSystemBuilder {
 	 * @return the {@link LSystemBuilder} with its modified unit length
 	 */
 	@Override
-	public LSystemBuilder setUnitLength(double unitLength) {
+	public LSystemBuilderImpl setUnitLength(double unitLength) {
 		this.unitLength = unitLength;
 		return this;
 	}
@@ -358,12 +305,32 @@ public class LSystemBuilderImpl implements LSystemBuilder {
 	 * @return the {@link LSystemBuilder} with its modified unit length scaler
 	 */
 	@Override
-	public LSystemBuilder setUnitLengthDegreeScaler(
+	public LSystemBuilderImpl setUnitLengthDegreeScaler(
 			double unitLengthDegreeScaler) {
 		this.unitLengthDegreeScaler = unitLengthDegreeScaler;
 		return this;
 	}
 
+	/**
+	 * Sets the maximum number of bytes the generations cached by the built
+	 * systems may occupy. By default, an eighth of the maximum heap size is
+	 * used.
+	 * 
+	 * @param generationCacheBudget
+	 *            the budget to be set, in bytes; 0 disables the cache
+	 * @return the {@link LSystemBuilder} with its modified cache budget
+	 * @throws IllegalArgumentException
+	 *             if the budget is negative
+	 */
+	public LSystemBuilderImpl setGenerationCacheBudget(
+			long generationCacheBudget) {
+		if (generationCacheBudget < 0)
+			throw new IllegalArgumentException(
+					"The cache budget must not be negative!");
+		this.generationCacheBudget = generationCacheBudget;
+		return this;
+	}
+
 	/**
 	 * Private utility method. If there are multiple spaces or a tab in a
 	 * string, it replaces them with a single space.
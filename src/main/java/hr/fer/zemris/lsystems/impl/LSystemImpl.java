@@ -0,0 +1,1061 @@
+package hr.fer.zemris.lsystems.impl;
+
+import java.awt.Color;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+import hr.fer.zemris.lsystems.LSystem;
+import hr.fer.zemris.lsystems.Painter;
+import hr.fer.zemris.lsystems.impl.commands.DrawCommand;
+import hr.fer.zemris.lsystems.impl.commands.RotateCommand;
+import hr.fer.zemris.math.Vector2D;
+import hr.zemris.java.custom.collections.CharObjectDictionary;
+
+/**
+ * An L-system created by the {@link LSystemBuilderImpl}. It keeps the
+ * parameters the builder had at the moment the system was built, and uses
+ * them to generate and draw the system's levels.
+ *
+ * @author 0036502252
+ *
+ */
+public class LSystemImpl implements LSystem {
+	/**
+	 * The length of the longest generation which can be stored in a string.
+	 */
+	private static final long MAX_GENERATION_LENGTH = Integer.MAX_VALUE - 8;
+	/**
+	 * The number of symbols a progressive drawing draws between two checks
+	 * of its control.
+	 */
+	private static final int PROGRESS_CHUNK_SIZE = 1 << 14;
+
+	/**
+	 * Keeps all the registered commands mapped to their symbol representations.
+	 */
+	private CharTable<Command> commands;
+	/**
+	 * Keeps all the registered productions mapped to the symbols the production
+	 * will replace.
+	 */
+	private CharTable<char[]> productions;
+	/**
+	 * Unit length used for drawing.
+	 */
+	private double unitLength;
+	/**
+	 * Scales the unit length according to the degree of production.
+	 */
+	private double unitLengthDegreeScaler;
+	/**
+	 * The vector at which the origin is initially situated.
+	 */
+	private Vector2D origin;
+	/**
+	 * The angle at which the origin is initially orientated.
+	 */
+	private double angle;
+	/**
+	 * The axiom of the system, from which all productions are created.
+	 */
+	private char[] axiom;
+	/**
+	 * Rewrites the generations of the system.
+	 */
+	private ParallelGenerator generator;
+	/**
+	 * Keeps the recently generated levels of the system.
+	 */
+	private GenerationCache cache;
+	/**
+	 * The alphabet of the system.
+	 */
+	private Alphabet alphabet;
+	/**
+	 * Predicts the sizes of the system's generations.
+	 */
+	private GrowthMatrix growth;
+	/**
+	 * The lengths of the symbols' expansions.
+	 */
+	private ExpansionLengths expansionLengths;
+	/**
+	 * Generates the levels of the system as symbol codes.
+	 */
+	private CodedGenerator codedGenerator;
+	/**
+	 * The commands of the system, indexed by the codes of their symbols; null
+	 * for symbols without a command.
+	 */
+	private Command[] commandsByCode;
+	/**
+	 * The directions the turtle can point in, or null if they are not
+	 * finitely many.
+	 */
+	private DirectionTable directions;
+	/**
+	 * Interprets long generations in parallel.
+	 */
+	private ParallelInterpreter parallelInterpreter;
+	/**
+	 * Draws the branches of generations in parallel.
+	 */
+	private BranchRenderer branchRenderer;
+	/**
+	 * Summarizes what the expansions of the symbols do to the turtle.
+	 */
+	private SymbolSummaries summaries;
+	/**
+	 * Draws levels with the help of the summaries.
+	 */
+	private SummaryRenderer summaryRenderer;
+
+	/**
+	 * Creates a new L-system with the given parameters. The registered
+	 * commands and productions are copied into {@link CharTable}s, so later
+	 * changes to the dictionaries do not affect the system. If the initial
+	 * angle and the angles of all the rotations are rational multiples of
+	 * 360 degrees, the rotations are quantized to a {@link DirectionTable}.
+	 *
+	 * @param registeredCommands
+	 *            the commands mapped to their symbols
+	 * @param registeredProductions
+	 *            the productions mapped to the symbols they replace
+	 * @param unitLength
+	 *            the unit length used for drawing
+	 * @param unitLengthDegreeScaler
+	 *            the unit length scaler
+	 * @param origin
+	 *            the initial position of the turtle
+	 * @param angle
+	 *            the initial orientation of the turtle, in degrees
+	 * @param axiom
+	 *            the axiom of the system
+	 * @param cacheBudget
+	 *            the maximum number of bytes the cached generations may
+	 *            occupy
+	 */
+	LSystemImpl(CharObjectDictionary registeredCommands,
+			CharObjectDictionary registeredProductions,
+			double unitLength, double unitLengthDegreeScaler, Vector2D origin, double angle,
+			String axiom, long cacheBudget) {
+		this.directions = directionsFor(registeredCommands, angle);
+		this.commands = CharTable.fromDictionary(registeredCommands,
+				command -> directions != null
+						&& command instanceof RotateCommand
+								? ((RotateCommand) command)
+										.quantized(directions)
+								: (Command) command);
+		this.productions = CharTable.fromDictionary(registeredProductions,
+				production -> ((String) production).toCharArray());
+		this.unitLength = unitLength;
+		this.unitLengthDegreeScaler = unitLengthDegreeScaler;
+		this.origin = origin.copy();
+		this.angle = angle;
+		this.axiom = axiom.toCharArray();
+		this.generator = new ParallelGenerator(productions);
+		this.cache = new GenerationCache(cacheBudget);
+		this.alphabet = new Alphabet(this.axiom, productions, commands);
+		this.growth = new GrowthMatrix(alphabet, this.axiom, productions);
+		this.expansionLengths = new ExpansionLengths(alphabet, productions);
+		this.codedGenerator = new CodedGenerator(alphabet, this.axiom,
+				productions, expansionLengths);
+		this.commandsByCode = new Command[alphabet.size()];
+		for (int code = 0; code < commandsByCode.length; code++) {
+			commandsByCode[code] = commands.get(alphabet.symbolOf(code));
+		}
+		this.parallelInterpreter = new ParallelInterpreter(commandsByCode);
+		this.branchRenderer = new BranchRenderer(commandsByCode);
+		this.summaries = new SymbolSummaries(alphabet, productions,
+				commandsByCode);
+		this.summaryRenderer = new SummaryRenderer(summaries, commandsByCode,
+				directions);
+	}
+
+	/**
+	 * Private constructor which creates a copy of a system, drawn from
+	 * another origin and with another unit length. The copy shares
+	 * everything else with the original, its caches included.
+	 *
+	 * @param original
+	 *            the system to be copied
+	 * @param origin
+	 *            the initial position of the turtle
+	 * @param unitLength
+	 *            the unit length used for drawing
+	 */
+	private LSystemImpl(LSystemImpl original, Vector2D origin,
+			double unitLength) {
+		this.commands = original.commands;
+		this.productions = original.productions;
+		this.unitLength = unitLength;
+		this.unitLengthDegreeScaler = original.unitLengthDegreeScaler;
+		this.origin = origin;
+		this.angle = original.angle;
+		this.axiom = original.axiom;
+		this.generator = original.generator;
+		this.cache = original.cache;
+		this.alphabet = original.alphabet;
+		this.growth = original.growth;
+		this.expansionLengths = original.expansionLengths;
+		this.codedGenerator = original.codedGenerator;
+		this.commandsByCode = original.commandsByCode;
+		this.directions = original.directions;
+		this.parallelInterpreter = original.parallelInterpreter;
+		this.branchRenderer = original.branchRenderer;
+		this.summaries = original.summaries;
+		this.summaryRenderer = original.summaryRenderer;
+	}
+
+	/**
+	 * Generates a string representation of an l-system generation for the
+	 * given level. Long generations are rewritten in parallel by the
+	 * {@link ParallelGenerator}, starting from the highest level below the
+	 * given one which is still kept in the {@link GenerationCache}. The work
+	 * done is counted into the {@link RenderMetrics}.
+	 *
+	 * @param level
+	 *            the level of generation
+	 * @return the (k-1)-th generation for the k-th level
+	 * @throws IllegalStateException
+	 *             if the generation is too long to be stored in a string
+	 */
+	@Override
+	public String generate(int level) {
+		if (growth.saturatedLength(level) > MAX_GENERATION_LENGTH)
+			throw new IllegalStateException("The generation of level " + level
+					+ " has more than " + MAX_GENERATION_LENGTH
+					+ " symbols, which is more than a string can hold!");
+		long start = RenderMetrics.ENABLED ? System.nanoTime() : 0;
+		String generation = new String(generationAt(level));
+		if (RenderMetrics.ENABLED) {
+			RenderMetrics.getInstance().recordPhase(
+					RenderMetrics.Phase.GENERATE, System.nanoTime() - start);
+		}
+		return generation;
+	}
+
+	/**
+	 * Creates a lazy view of the generation for the given level. The view
+	 * finds any of its symbols in time proportional to the level, and reads
+	 * them in order at a constant amortized cost, without ever expanding the
+	 * generation as a whole.
+	 *
+	 * @param level
+	 *            the level of generation
+	 * @return the view of the generation
+	 * @throws IllegalStateException
+	 *             if the generation is too long to be indexed by a long
+	 */
+	public LazyGeneration generateLazily(int level) {
+		return new LazyGeneration(axiom, productions, expansionLengths, level);
+	}
+
+	/**
+	 * Generates the given level outside of the heap, either into a
+	 * memory-mapped temporary file or into direct buffers. The generation may
+	 * be longer than a string can hold. The levels leading up to it are
+	 * generated one after another, and only two of them are kept at any time.
+	 *
+	 * @param level
+	 *            the level of generation
+	 * @param directory
+	 *            the directory in which the temporary files are created, or
+	 *            null to use a direct buffer for generations of up to 2^30
+	 *            symbols and the default temporary directory for longer ones
+	 * @return the generation, which must be closed once it is no longer used
+	 * @throws IllegalArgumentException
+	 *             if the system has more than 256 distinct symbols
+	 * @throws IllegalStateException
+	 *             if the generation is too long to be indexed by a long
+	 * @throws java.io.UncheckedIOException
+	 *             if a temporary file cannot be created or mapped
+	 */
+	public OffHeapGeneration generateOffHeap(int level, Path directory) {
+		return codedGenerator.generateOffHeap(level, directory);
+	}
+
+	/**
+	 * Generates the l-system generation for the given level as the codes of
+	 * its symbols, packed four bits per symbol if the system has at most 16
+	 * distinct symbols and a byte per symbol otherwise. The levels leading up
+	 * to it are generated one after another, and only two of them are kept at
+	 * any time.
+	 *
+	 * @param level
+	 *            the level of generation
+	 * @return the generation
+	 * @throws IllegalArgumentException
+	 *             if the system has more than 256 distinct symbols
+	 * @throws IllegalStateException
+	 *             if the generation is too long to be stored in an array
+	 */
+	public EncodedGeneration generateEncoded(int level) {
+		return codedGenerator.generateEncoded(level);
+	}
+
+	/**
+	 * Computes the length of the generation for the given level, without
+	 * generating it.
+	 *
+	 * @param level
+	 *            the level of generation
+	 * @return the number of symbols in the generation
+	 * @throws ArithmeticException
+	 *             if the length does not fit in a long
+	 * @see #exactLength(int)
+	 */
+	public long length(int level) {
+		return growth.length(level);
+	}
+
+	/**
+	 * Computes the number of occurrences of a symbol in the generation for
+	 * the given level, without generating it. This is, for example, the
+	 * number of lines drawn if the symbol is the only one bound to a draw
+	 * command.
+	 *
+	 * @param symbol
+	 *            the symbol to be counted
+	 * @param level
+	 *            the level of generation
+	 * @return the number of occurrences of the symbol
+	 * @throws ArithmeticException
+	 *             if the number does not fit in a long
+	 * @see #exactCount(char, int)
+	 */
+	public long count(char symbol, int level) {
+		return growth.count(symbol, level);
+	}
+
+	/**
+	 * Computes the length of the generation for the given level, without
+	 * generating it and without overflowing.
+	 *
+	 * @param level
+	 *            the level of generation
+	 * @return the number of symbols in the generation
+	 */
+	public BigInteger exactLength(int level) {
+		return growth.exactLength(level);
+	}
+
+	/**
+	 * Computes the number of occurrences of a symbol in the generation for
+	 * the given level, without generating it and without overflowing.
+	 *
+	 * @param symbol
+	 *            the symbol to be counted
+	 * @param level
+	 *            the level of generation
+	 * @return the number of occurrences of the symbol
+	 */
+	public BigInteger exactCount(char symbol, int level) {
+		return growth.exactCount(symbol, level);
+	}
+
+	/**
+	 * Gets the cache of the recently generated levels of this system.
+	 *
+	 * @return the generation cache
+	 */
+	public GenerationCache getGenerationCache() {
+		return cache;
+	}
+
+	/**
+	 * Computes the bounds of the lines drawn for the given level, and the
+	 * position the turtle ends up at, without generating or drawing the
+	 * level. The bounds are composed from the memoized summaries of the
+	 * symbols' expansions, so they take time proportional to the level and
+	 * the size of the alphabet rather than to the length of the generation.
+	 *
+	 * @param level
+	 *            the level of generation
+	 * @return the bounds
+	 * @throws IllegalStateException
+	 *             if the system has commands other than the built-in ones,
+	 *             or if its productions do not pop exactly the states they
+	 *             push
+	 */
+	public Bounds bounds(int level) {
+		SymbolSummaries.Summary summary = summaries
+				.of(alphabet.encode(axiom), level, angle);
+		double length = unitLength * Math.pow(unitLengthDegreeScaler, level);
+		double endX = origin.getX() + length * summary.endX;
+		double endY = origin.getY() + length * summary.endY;
+		if (summary.isEmpty()) {
+			return new Bounds(Double.POSITIVE_INFINITY,
+					Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+					Double.NEGATIVE_INFINITY, endX, endY);
+		}
+
+		double x0 = origin.getX() + length * summary.minX;
+		double x1 = origin.getX() + length * summary.maxX;
+		double y0 = origin.getY() + length * summary.minY;
+		double y1 = origin.getY() + length * summary.maxY;
+		return new Bounds(Math.min(x0, x1), Math.min(y0, y1),
+				Math.max(x0, x1), Math.max(y0, y1), endX, endY);
+	}
+
+	/**
+	 * Creates a copy of the system whose given level fits into the unit
+	 * square. The origin and the unit length of the copy are chosen from the
+	 * {@link #bounds(int) bounds} of the level, so that the drawing is
+	 * centered and its larger side spans the square, less the margin on
+	 * either side. A level which draws nothing is left as it is.
+	 *
+	 * @param level
+	 *            the level of generation to be fitted
+	 * @param margin
+	 *            the space left free on every side of the drawing
+	 * @return the fitted copy of the system
+	 * @throws IllegalArgumentException
+	 *             if the margin is not within [0, 0.5)
+	 * @throws IllegalStateException
+	 *             if the bounds of the level cannot be computed
+	 */
+	public LSystemImpl fitted(int level, double margin) {
+		if (!(margin >= 0 && margin < 0.5))
+			throw new IllegalArgumentException(
+					"The margin must be within [0, 0.5)!");
+		SymbolSummaries.Summary summary = summaries
+				.of(alphabet.encode(axiom), level, angle);
+		double size = Math.max(summary.maxX - summary.minX,
+				summary.maxY - summary.minY);
+		double scaler = Math.pow(unitLengthDegreeScaler, level);
+		if (summary.isEmpty() || size == 0 || scaler == 0
+				|| Double.isInfinite(scaler)) {
+			return this;
+		}
+
+		double length = (1 - 2 * margin) / size;
+		Vector2D fittedOrigin = new Vector2D(
+				0.5 - length * (summary.minX + summary.maxX) / 2,
+				0.5 - length * (summary.minY + summary.maxY) / 2);
+		return new LSystemImpl(this, fittedOrigin, length / scaler);
+	}
+
+	/**
+	 * Draws the l-system generation. The generation is never built as a
+	 * whole; its symbols are read one by one from a {@link DerivationCursor}
+	 * and passed straight to their commands, so the lines are drawn in exactly
+	 * the same order as they appear in {@link #generate(int)}. The work done
+	 * is counted into the {@link RenderMetrics}.
+	 *
+	 * @param level
+	 *            the level of generation
+	 * @param painter
+	 *            the painter used for line drawing
+	 */
+	@Override
+	public void draw(int level, Painter painter) {
+		interpret(new DerivationCursor(axiom, productions, level), level,
+				painter);
+		if (RenderMetrics.ENABLED) {
+			recordExpansions(level);
+		}
+	}
+
+	/**
+	 * Draws the part of the l-system generation which lies within the given
+	 * viewport. The symbols are expanded recursively, and a symbol whose
+	 * expansion, placed at the turtle's state, lies wholly outside of the
+	 * viewport is never expanded; the turtle is moved past it by the net
+	 * effect of its expansion instead, taken from the memoized summaries. A
+	 * zoomed-in drawing therefore costs in proportion to what is visible.
+	 * Every line within the viewport is drawn, in the same order as by
+	 * {@link #draw(int, Painter)}, along with some of the lines just outside
+	 * of it. Systems whose expansions cannot be summarized are drawn whole.
+	 *
+	 * @param level
+	 *            the level of generation
+	 * @param minX
+	 *            the smallest x-coordinate of the viewport
+	 * @param minY
+	 *            the smallest y-coordinate of the viewport
+	 * @param maxX
+	 *            the largest x-coordinate of the viewport
+	 * @param maxY
+	 *            the largest y-coordinate of the viewport
+	 * @param painter
+	 *            the painter used for line drawing
+	 * @throws IllegalArgumentException
+	 *             if the viewport's minimums are larger than its maximums
+	 * @see #bounds(int)
+	 */
+	public void drawVisible(int level, double minX, double minY, double maxX,
+			double maxY, Painter painter) {
+		if (!(minX <= maxX && minY <= maxY))
+			throw new IllegalArgumentException("The viewport [" + minX + ", "
+					+ minY + "] - [" + maxX + ", " + maxY + "] is empty!");
+		int[] codedAxiom = alphabet.encode(axiom);
+		try {
+			summaries.of(codedAxiom, level, angle);
+		} catch (IllegalStateException ex) {
+			draw(level, painter);
+			return;
+		}
+		long start = RenderMetrics.ENABLED ? System.nanoTime() : 0;
+		Context ctx = initialContext(level);
+		long[] executed = new long[commandsByCode.length];
+		long chords = summaryRenderer.draw(codedAxiom, level, ctx, angle, minX,
+				minY, maxX, maxY, 0, 0, painter, executed);
+		if (RenderMetrics.ENABLED) {
+			recordCommands(executed, chords);
+			recordDraw(ctx.getMaxDepth(), start);
+		}
+	}
+
+	/**
+	 * Draws the l-system generation at the level of detail of an image with
+	 * the given resolution, mapped onto the unit square. The default
+	 * threshold of a single pixel is used.
+	 *
+	 * @param level
+	 *            the level of generation
+	 * @param width
+	 *            the width of the image, in pixels
+	 * @param height
+	 *            the height of the image, in pixels
+	 * @param painter
+	 *            the painter used for line drawing
+	 * @throws IllegalArgumentException
+	 *             if a dimension is not positive
+	 * @see #drawAdaptive(int, int, int, double, Painter)
+	 */
+	public void drawAdaptive(int level, int width, int height,
+			Painter painter) {
+		drawAdaptive(level, width, height, 1, painter);
+	}
+
+	/**
+	 * Draws the l-system generation at the level of detail of an image with
+	 * the given resolution, mapped onto the unit square. The symbols are
+	 * expanded recursively, and a symbol whose expansion, placed at the
+	 * turtle's state, is smaller than the threshold in both dimensions is
+	 * not expanded any further; a single line is drawn from the turtle's
+	 * position to the position the expansion ends at instead, in the color
+	 * the expansion starts with, or nothing if it ends where it starts. The
+	 * size of the expansions is taken from the memoized summaries. Deep
+	 * levels then draw about as many lines as the image can show, rather
+	 * than millions of lines smaller than a pixel.
+	 * Systems whose expansions cannot be summarized are drawn whole.
+	 *
+	 * @param level
+	 *            the level of generation
+	 * @param width
+	 *            the width of the image, in pixels
+	 * @param height
+	 *            the height of the image, in pixels
+	 * @param threshold
+	 *            the size, in pixels, below which an expansion is replaced
+	 *            by a line
+	 * @param painter
+	 *            the painter used for line drawing
+	 * @throws IllegalArgumentException
+	 *             if a dimension or the threshold is not positive
+	 */
+	public void drawAdaptive(int level, int width, int height,
+			double threshold, Painter painter) {
+		if (width <= 0 || height <= 0)
+			throw new IllegalArgumentException(
+					"The image must be at least one pixel wide and high!");
+		if (!(threshold > 0))
+			throw new IllegalArgumentException(
+					"The threshold must be positive!");
+		int[] codedAxiom = alphabet.encode(axiom);
+		try {
+			summaries.of(codedAxiom, level, angle);
+		} catch (IllegalStateException ex) {
+			draw(level, painter);
+			return;
+		}
+		long start = RenderMetrics.ENABLED ? System.nanoTime() : 0;
+		Context ctx = initialContext(level);
+		long[] executed = new long[commandsByCode.length];
+		long chords = summaryRenderer.draw(codedAxiom, level, ctx, angle,
+				Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY,
+				Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+				threshold / Math.max(width - 1, 1),
+				threshold / Math.max(height - 1, 1), painter, executed);
+		if (RenderMetrics.ENABLED) {
+			recordCommands(executed, chords);
+			recordDraw(ctx.getMaxDepth(), start);
+		}
+	}
+
+	/**
+	 * Draws the l-system generation in chunks of symbols, which can be
+	 * stopped between any two chunks. Before each chunk the control is
+	 * checked, and the drawing stops if it was cancelled or its deadline
+	 * passed; after each chunk the progress is passed on to the control's
+	 * listener. The lines drawn are those of {@link #draw(int, Painter)}, or
+	 * the first part of them if the drawing is stopped.
+	 *
+	 * @param level
+	 *            the level of generation
+	 * @param painter
+	 *            the painter used for line drawing
+	 * @param control
+	 *            the control of the drawing
+	 * @return the way the drawing ended
+	 */
+	public RenderStatus drawProgressively(int level, Painter painter,
+			RenderControl control) {
+		long start = RenderMetrics.ENABLED ? System.nanoTime() : 0;
+		long total = expansionLengths.length(axiom, level);
+		Context ctx = initialContext(level);
+		SymbolCursor cursor = new DerivationCursor(axiom, productions, level);
+		long[] executed = new long[commandsByCode.length];
+		long done = 0;
+		RenderStatus status = control.stopStatus();
+		while (status == null) {
+			int count = 0;
+			for (int symbol = cursor.next(); symbol != -1; symbol = cursor
+					.next()) {
+				int code = alphabet.codeOf((char) symbol);
+				Command command = commandsByCode[code];
+				if (command != null) {
+					command.execute(ctx, painter);
+					if (RenderMetrics.ENABLED) {
+						executed[code]++;
+					}
+				}
+				if (++count == PROGRESS_CHUNK_SIZE) {
+					break;
+				}
+			}
+			done += count;
+			control.report(level, done, total);
+			// a last chunk which is exactly full must not be stopped after
+			status = done == total || count < PROGRESS_CHUNK_SIZE
+					? RenderStatus.COMPLETED : control.stopStatus();
+		}
+
+		if (RenderMetrics.ENABLED) {
+			if (status == RenderStatus.COMPLETED) {
+				recordExpansions(level);
+			}
+			recordCommands(executed, 0);
+			recordDraw(ctx.getMaxDepth(), start);
+		}
+		return status;
+	}
+
+	/**
+	 * Draws the levels from 0 up to the given one, one after another, so that
+	 * a coarse drawing is available at once and is refined as the deeper
+	 * levels are done. Each level is drawn with
+	 * {@link #drawProgressively(int, Painter, RenderControl)}, with a
+	 * painter of its own, and the drawing stops at the first level which is
+	 * stopped.
+	 *
+	 * @param level
+	 *            the deepest level to be drawn
+	 * @param painters
+	 *            gives the painter used for line drawing for each level,
+	 *            just before the level is drawn
+	 * @param control
+	 *            the control of the drawing
+	 * @return the way the drawing ended
+	 */
+	public RenderStatus drawLevels(int level, IntFunction<Painter> painters,
+			RenderControl control) {
+		for (int i = 0; i <= level; i++) {
+			RenderStatus status = control.stopStatus();
+			if (status != null) {
+				return status;
+			}
+			status = drawProgressively(i, painters.apply(i), control);
+			if (status != RenderStatus.COMPLETED) {
+				return status;
+			}
+		}
+		return RenderStatus.COMPLETED;
+	}
+
+	/**
+	 * Draws a generation which was generated outside of the heap. The
+	 * symbols are read from it in order, through a sequential cursor.
+	 *
+	 * @param generation
+	 *            the generation to be drawn
+	 * @param painter
+	 *            the painter used for line drawing
+	 * @see #generateOffHeap(int, Path)
+	 */
+	public void draw(OffHeapGeneration generation, Painter painter) {
+		interpret(generation.cursor(), generation.getLevel(), painter);
+	}
+
+	/**
+	 * Draws the l-system generation using all the cores of the machine. The
+	 * generation is first generated as symbol codes, then split into chunks
+	 * which are interpreted in parallel by a {@link ParallelInterpreter}. The
+	 * lines are drawn in the same order as by {@link #draw(int, Painter)},
+	 * always from the calling thread.
+	 *
+	 * @param level
+	 *            the level of generation
+	 * @param painter
+	 *            the painter used for line drawing
+	 * @throws IllegalArgumentException
+	 *             if the system has more than 256 distinct symbols
+	 * @throws IllegalStateException
+	 *             if the generation is too long to be stored in an array
+	 */
+	public void drawParallel(int level, Painter painter) {
+		drawParallel(generateEncoded(level), painter);
+	}
+
+	/**
+	 * Draws a generation which was generated as symbol codes using all the
+	 * cores of the machine.
+	 *
+	 * @param generation
+	 *            the generation to be drawn
+	 * @param painter
+	 *            the painter used for line drawing
+	 * @see #drawParallel(int, Painter)
+	 */
+	public void drawParallel(EncodedGeneration generation, Painter painter) {
+		interpretParallel(generation, generation.getLevel(), painter);
+	}
+
+	/**
+	 * Draws a generation which was generated outside of the heap using all
+	 * the cores of the machine.
+	 *
+	 * @param generation
+	 *            the generation to be drawn
+	 * @param painter
+	 *            the painter used for line drawing
+	 * @see #drawParallel(int, Painter)
+	 */
+	public void drawParallel(OffHeapGeneration generation, Painter painter) {
+		interpretParallel(generation, generation.getLevel(), painter);
+	}
+
+	/**
+	 * Draws the l-system generation, drawing its large branches in parallel.
+	 * The generation is first generated as symbol codes and the matching pop
+	 * of every push is indexed, after which every large branch is drawn by a
+	 * task of its own. The lines are exactly those of
+	 * {@link #draw(int, Painter)}, drawn in the same order from the calling
+	 * thread once all the branches are done.
+	 *
+	 * @param level
+	 *            the level of generation
+	 * @param painter
+	 *            the painter used for line drawing
+	 * @throws IllegalArgumentException
+	 *             if the system has more than 256 distinct symbols
+	 * @throws IllegalStateException
+	 *             if the generation is too long to be stored in an array
+	 */
+	public void drawBranches(int level, Painter painter) {
+		drawBranches(generateEncoded(level), painter);
+	}
+
+	/**
+	 * Draws a generation which was generated as symbol codes, drawing its
+	 * large branches in parallel.
+	 *
+	 * @param generation
+	 *            the generation to be drawn
+	 * @param painter
+	 *            the painter used for line drawing
+	 * @see #drawBranches(int, Painter)
+	 */
+	public void drawBranches(EncodedGeneration generation, Painter painter) {
+		long start = RenderMetrics.ENABLED ? System.nanoTime() : 0;
+		Context ctx = initialContext(generation.getLevel());
+		long[] executed = new long[commandsByCode.length];
+		int depth = branchRenderer.draw(generation, ctx, painter, executed);
+		if (RenderMetrics.ENABLED) {
+			recordCommands(executed, 0);
+			recordDraw(depth, start);
+		}
+	}
+
+	/**
+	 * Compiles the l-system generation for the given level into a
+	 * {@link Program}. The symbols are read straight from the productions
+	 * through a {@link DerivationCursor}, so the generation is never built as
+	 * a whole. The program can be drawn any number of times with
+	 * {@link #draw(Program, Painter)}.
+	 *
+	 * @param level
+	 *            the level of generation
+	 * @return the compiled program
+	 */
+	public Program compile(int level) {
+		return Program.compile(new DerivationCursor(axiom, productions, level),
+				commands, level);
+	}
+
+	/**
+	 * Draws a compiled generation.
+	 *
+	 * @param program
+	 *            the program to be executed
+	 * @param painter
+	 *            the painter used for line drawing
+	 * @see #compile(int)
+	 */
+	public void draw(Program program, Painter painter) {
+		long start = RenderMetrics.ENABLED ? System.nanoTime() : 0;
+		Context ctx = initialContext(program.getLevel());
+		program.execute(ctx, painter);
+		if (RenderMetrics.ENABLED) {
+			recordDraw(ctx.getMaxDepth(), start);
+		}
+	}
+
+	/**
+	 * Draws a generation which was generated as symbol codes. The commands
+	 * are looked up directly by the codes, without decoding the symbols.
+	 *
+	 * @param generation
+	 *            the generation to be drawn
+	 * @param painter
+	 *            the painter used for line drawing
+	 * @see #generateEncoded(int)
+	 */
+	public void draw(EncodedGeneration generation, Painter painter) {
+		long start = RenderMetrics.ENABLED ? System.nanoTime() : 0;
+		Context ctx = initialContext(generation.getLevel());
+		long[] executed = new long[commandsByCode.length];
+		SymbolCursor codes = generation.codes();
+		for (int code = codes.next(); code != -1; code = codes.next()) {
+			Command command = commandsByCode[code];
+			if (command != null) {
+				command.execute(ctx, painter);
+				if (RenderMetrics.ENABLED) {
+					executed[code]++;
+				}
+			}
+		}
+		if (RenderMetrics.ENABLED) {
+			recordCommands(executed, 0);
+			recordDraw(ctx.getMaxDepth(), start);
+		}
+	}
+
+	/**
+	 * Private utility method. Executes the commands of the symbols read from
+	 * the cursor, starting from the initial turtle state. The commands, the
+	 * lines, the depth of the stack and the time taken are counted into the
+	 * {@link RenderMetrics}.
+	 *
+	 * @param cursor
+	 *            the cursor the symbols are read from
+	 * @param level
+	 *            the level of the generation being read
+	 * @param painter
+	 *            the painter used for line drawing
+	 */
+	private void interpret(SymbolCursor cursor, int level, Painter painter) {
+		long start = RenderMetrics.ENABLED ? System.nanoTime() : 0;
+		Context ctx = initialContext(level);
+		long[] executed = new long[commandsByCode.length];
+		for (int symbol = cursor.next(); symbol != -1; symbol = cursor
+				.next()) {
+			int code = alphabet.codeOf((char) symbol);
+			Command command = commandsByCode[code];
+			if (command != null) {
+				command.execute(ctx, painter);
+				if (RenderMetrics.ENABLED) {
+					executed[code]++;
+				}
+			}
+		}
+
+		if (RenderMetrics.ENABLED) {
+			recordCommands(executed, 0);
+			recordDraw(ctx.getMaxDepth(), start);
+		}
+	}
+
+	/**
+	 * Private utility method. Draws a generation stored as symbol codes
+	 * using all the cores of the machine, counting the work done into the
+	 * {@link RenderMetrics}.
+	 *
+	 * @param generation
+	 *            the generation to be drawn
+	 * @param level
+	 *            the level of the generation
+	 * @param painter
+	 *            the painter used for line drawing
+	 */
+	private void interpretParallel(CodeStorage generation, int level,
+			Painter painter) {
+		long start = RenderMetrics.ENABLED ? System.nanoTime() : 0;
+		Context ctx = initialContext(level);
+		long[] executed = new long[commandsByCode.length];
+		int depth = parallelInterpreter.draw(generation, ctx, painter,
+				executed);
+		if (RenderMetrics.ENABLED) {
+			recordCommands(executed, 0);
+			recordDraw(depth, start);
+		}
+	}
+
+	/**
+	 * Private utility method. Adds the commands executed by a drawing and
+	 * the lines it drew to the {@link RenderMetrics}. Every draw command
+	 * draws a single line; commands of other classes are not taken to draw
+	 * any, even if they extend the draw command.
+	 *
+	 * @param executed
+	 *            the numbers of commands executed, indexed by the codes of
+	 *            their symbols
+	 * @param chords
+	 *            the number of lines drawn in place of whole expansions
+	 */
+	private void recordCommands(long[] executed, long chords) {
+		long segments = chords;
+		for (int code = 0; code < executed.length; code++) {
+			if (executed[code] != 0
+					&& commandsByCode[code].getClass() == DrawCommand.class) {
+				segments = saturatedAdd(segments, executed[code]);
+			}
+		}
+
+		RenderMetrics metrics = RenderMetrics.getInstance();
+		metrics.recordCommands(commandsByCode, executed);
+		metrics.recordSegments(segments);
+	}
+
+	/**
+	 * Private utility method. Records the depth the stack of a drawing
+	 * reached and the time the drawing took in the {@link RenderMetrics}.
+	 *
+	 * @param maxDepth
+	 *            the largest number of states the stack held
+	 * @param start
+	 *            the value of {@link System#nanoTime()} when the drawing
+	 *            started
+	 */
+	private static void recordDraw(int maxDepth, long start) {
+		RenderMetrics metrics = RenderMetrics.getInstance();
+		metrics.recordStackDepth(maxDepth);
+		metrics.recordPhase(RenderMetrics.Phase.DRAW,
+				System.nanoTime() - start);
+	}
+
+	/**
+	 * Private utility method. Records the symbols expanded by a derivation
+	 * of a whole generation in the {@link RenderMetrics}; every symbol of
+	 * each level below the generation is read once.
+	 *
+	 * @param level
+	 *            the level of the generation
+	 */
+	private void recordExpansions(int level) {
+		RenderMetrics metrics = RenderMetrics.getInstance();
+		for (int i = 0; i < level; i++) {
+			metrics.recordExpanded(i, expansionLengths.length(axiom, i));
+		}
+	}
+
+	/**
+	 * Private utility method. Adds two non-negative numbers, saturating at
+	 * {@link Long#MAX_VALUE}.
+	 *
+	 * @param a
+	 *            the first number
+	 * @param b
+	 *            the second number
+	 * @return the saturated sum
+	 */
+	private static long saturatedAdd(long a, long b) {
+		long sum = a + b;
+		return sum < 0 ? Long.MAX_VALUE : sum;
+	}
+
+	/**
+	 * Private utility method. Creates a context holding the initial turtle
+	 * state, with the unit length scaled for the given level.
+	 *
+	 * @param level
+	 *            the level of the generation to be drawn
+	 * @return the new context
+	 */
+	private Context initialContext(int level) {
+		Context ctx = new Context();
+		Vector2D direction = new Vector2D(1, 0).rotated(angle);
+
+		TurtleState state = new TurtleState(origin, direction, Color.BLACK,
+				unitLength);
+		ctx.pushState(state);
+
+		if (directions != null) {
+			int index = directions.indexOf(angle);
+			state.setDirection(directions.getX(index), directions.getY(index),
+					index);
+		}
+		state.setUnitLength(
+				unitLength * Math.pow(unitLengthDegreeScaler, level));
+		return ctx;
+	}
+
+	/**
+	 * Private utility method. Creates the table of the directions the turtle
+	 * can point in, if they are finitely many.
+	 *
+	 * @param registeredCommands
+	 *            the commands mapped to their symbols
+	 * @param angle
+	 *            the initial orientation of the turtle, in degrees
+	 * @return the table, or null if the directions cannot be tabulated
+	 */
+	private static DirectionTable directionsFor(
+			CharObjectDictionary registeredCommands, double angle) {
+		char[] symbols = registeredCommands.keys();
+		double[] angles = new double[symbols.length + 1];
+		int count = 0;
+		angles[count++] = angle;
+		for (char symbol : symbols) {
+			Object command = registeredCommands.get(symbol);
+			if (command instanceof RotateCommand) {
+				angles[count++] = ((RotateCommand) command).getAngle();
+			}
+		}
+		return DirectionTable.forAngles(Arrays.copyOf(angles, count));
+	}
+
+	/**
+	 * Private utility method. Gets the generation for the given level,
+	 * extending the highest cached level below it and caching every level
+	 * generated along the way. The symbols rewritten at each level are
+	 * counted into the {@link RenderMetrics}.
+	 *
+	 * @param level
+	 *            the level of generation
+	 * @return the generation, which must not be modified
+	 */
+	private char[] generationAt(int level) {
+		GenerationCache.CachedLevel cached = cache.floor(level);
+		int from = 0;
+		char[] generation = axiom;
+		if (cached != null) {
+			from = cached.getLevel();
+			generation = cached.getGeneration();
+		}
+
+		for (int i = from + 1; i <= level; i++) {
+			if (RenderMetrics.ENABLED) {
+				RenderMetrics.getInstance().recordExpanded(i - 1,
+						generation.length);
+			}
+			generation = generator.rewrite(generation);
+			cache.put(i, generation);
+		}
+		return generation;
+	}
+}
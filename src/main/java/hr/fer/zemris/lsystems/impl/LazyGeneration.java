@@ -0,0 +1,260 @@
+package hr.fer.zemris.lsystems.impl;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A view of an L-system generation which is never expanded as a whole. A
+ * symbol at a given index is found by descending the derivation tree from the
+ * axiom, using the lengths of the symbols' expansions to pick the right
+ * branch at every level, so a lookup takes a number of steps proportional to
+ * the level. Reading the symbols in order goes through a
+ * {@link DerivationCursor} instead, at an amortized constant cost per symbol.
+ * <p>
+ * Since generations may be longer than {@link Integer#MAX_VALUE}, the view
+ * also offers methods which take long indices.
+ *
+ * @author 0036502252
+ *
+ */
+public class LazyGeneration implements CharSequence {
+	/**
+	 * The axiom of the system.
+	 */
+	private char[] axiom;
+	/**
+	 * The productions of the system.
+	 */
+	private CharTable<char[]> productions;
+	/**
+	 * The lengths of the symbols' expansions.
+	 */
+	private ExpansionLengths lengths;
+	/**
+	 * The level of the generation.
+	 */
+	private int level;
+	/**
+	 * The index in the generation at which this view starts.
+	 */
+	private long offset;
+	/**
+	 * The number of symbols in this view.
+	 */
+	private long length;
+
+	/**
+	 * Creates a view of the whole generation of the given level.
+	 *
+	 * @param axiom
+	 *            the axiom of the system
+	 * @param productions
+	 *            the productions of the system
+	 * @param lengths
+	 *            the lengths of the symbols' expansions
+	 * @param level
+	 *            the level of the generation; negative levels are treated as
+	 *            level 0
+	 * @throws IllegalStateException
+	 *             if the generation is too long to be indexed by a long
+	 */
+	public LazyGeneration(char[] axiom, CharTable<char[]> productions,
+			ExpansionLengths lengths, int level) {
+		this(axiom, productions, lengths, Math.max(level, 0), 0,
+				lengths.length(axiom, Math.max(level, 0)));
+		if (length == Long.MAX_VALUE)
+			throw new IllegalStateException("The generation of level " + level
+					+ " is too long to be indexed!");
+	}
+
+	/**
+	 * Creates a view of a part of a generation.
+	 *
+	 * @param axiom
+	 *            the axiom of the system
+	 * @param productions
+	 *            the productions of the system
+	 * @param lengths
+	 *            the lengths of the symbols' expansions
+	 * @param level
+	 *            the level of the generation
+	 * @param offset
+	 *            the index in the generation at which the view starts
+	 * @param length
+	 *            the number of symbols in the view
+	 */
+	private LazyGeneration(char[] axiom, CharTable<char[]> productions,
+			ExpansionLengths lengths, int level, long offset, long length) {
+		this.axiom = axiom;
+		this.productions = productions;
+		this.lengths = lengths;
+		this.level = level;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	/**
+	 * Gets the number of symbols in this view.
+	 *
+	 * @return the length of the view
+	 * @throws ArithmeticException
+	 *             if the length does not fit in an int
+	 * @see #longLength()
+	 */
+	@Override
+	public int length() {
+		return Math.toIntExact(length);
+	}
+
+	/**
+	 * Gets the number of symbols in this view, however large it may be.
+	 *
+	 * @return the length of the view
+	 */
+	public long longLength() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		return charAt((long) index);
+	}
+
+	/**
+	 * Gets the symbol at the given index, by descending the derivation tree.
+	 *
+	 * @param index
+	 *            the index of the symbol in this view
+	 * @return the symbol at the index
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or not less than the length
+	 */
+	public char charAt(long index) {
+		checkRange(index, index + 1);
+		long remaining = offset + index;
+		char[] word = axiom;
+		for (int levels = level;; levels--) {
+			for (char symbol : word) {
+				long length = lengths.length(symbol, levels);
+				if (remaining >= length) {
+					remaining -= length;
+					continue;
+				}
+				char[] prod = productions.get(symbol);
+				if (levels == 0 || prod == null) {
+					return symbol;
+				}
+				word = prod;
+				break;
+			}
+		}
+	}
+
+	@Override
+	public LazyGeneration subSequence(int start, int end) {
+		return subSequence((long) start, (long) end);
+	}
+
+	/**
+	 * Gets a view of a part of this view, without expanding it.
+	 *
+	 * @param start
+	 *            the index of the first symbol of the part
+	 * @param end
+	 *            the index after the last symbol of the part
+	 * @return the view of the part
+	 * @throws IndexOutOfBoundsException
+	 *             if the indices are out of range or the start is after the
+	 *             end
+	 */
+	public LazyGeneration subSequence(long start, long end) {
+		checkRange(start, end);
+		return new LazyGeneration(axiom, productions, lengths, level,
+				offset + start, end - start);
+	}
+
+	/**
+	 * Creates a cursor positioned at the first symbol of this view. The
+	 * cursor is not bounded by the end of the view; it can be read up to the
+	 * end of the whole generation.
+	 *
+	 * @return the new cursor
+	 */
+	public DerivationCursor cursor() {
+		DerivationCursor cursor = new DerivationCursor(axiom, productions,
+				level);
+		cursor.skip(offset, lengths);
+		return cursor;
+	}
+
+	/**
+	 * Streams the symbols of this view in order, reading them through a
+	 * {@link DerivationCursor}.
+	 *
+	 * @return the stream of the symbols
+	 */
+	@Override
+	public IntStream chars() {
+		PrimitiveIterator.OfInt iterator = new PrimitiveIterator.OfInt() {
+			private DerivationCursor cursor;
+			private long read;
+
+			@Override
+			public boolean hasNext() {
+				return read < length;
+			}
+
+			@Override
+			public int nextInt() {
+				if (!hasNext())
+					throw new NoSuchElementException(
+							"All the symbols have been read!");
+				if (cursor == null) {
+					cursor = cursor();
+				}
+				read++;
+				return cursor.next();
+			}
+		};
+		return StreamSupport.intStream(Spliterators.spliterator(iterator,
+				length, Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+
+	/**
+	 * Expands this view into a string.
+	 *
+	 * @return the symbols of this view
+	 * @throws ArithmeticException
+	 *             if the view is too long to be stored in a string
+	 */
+	@Override
+	public String toString() {
+		char[] symbols = new char[length()];
+		DerivationCursor cursor = cursor();
+		for (int i = 0; i < symbols.length; i++) {
+			symbols[i] = (char) cursor.next();
+		}
+		return new String(symbols);
+	}
+
+	/**
+	 * Private utility method. Checks that the given range lies within this
+	 * view.
+	 *
+	 * @param start
+	 *            the start of the range
+	 * @param end
+	 *            the end of the range
+	 * @throws IndexOutOfBoundsException
+	 *             if the range is not within this view
+	 */
+	private void checkRange(long start, long end) {
+		if (start < 0 || end > length || start > end)
+			throw new IndexOutOfBoundsException("The range [" + start + ", "
+					+ end + ") is not within [0, " + length + ")!");
+	}
+}
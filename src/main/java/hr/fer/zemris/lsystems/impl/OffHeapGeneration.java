@@ -0,0 +1,219 @@
+package hr.fer.zemris.lsystems.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An L-system generation stored outside of the Java heap, one byte per
+ * symbol. The bytes are the codes the symbols have in the system's
+ * {@link Alphabet}. The storage is split into segments of at most 1 GiB, each
+ * either a direct {@link ByteBuffer} or a region of a memory-mapped temporary
+ * file, so the generation is indexed by a long and may hold far more than
+ * {@link Integer#MAX_VALUE} symbols.
+ * <p>
+ * Direct buffers count against {@code -XX:MaxDirectMemorySize}, which
+ * defaults to the maximum heap size, so they are only used for generations
+ * which fit in a single segment; longer generations are always kept in a
+ * file, which is bounded by the disk rather than by the JVM's limits.
+ * </p>
+ *
+ * @author 0036502252
+ *
+ */
+public class OffHeapGeneration implements CodeStorage, Closeable {
+	/**
+	 * The binary logarithm of the size of a segment.
+	 */
+	private static final int SEGMENT_SHIFT = 30;
+	/**
+	 * Extracts the index within a segment from an index in the generation.
+	 */
+	private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+	/**
+	 * The alphabet whose codes are stored.
+	 */
+	private Alphabet alphabet;
+	/**
+	 * The level of the generation.
+	 */
+	private int level;
+	/**
+	 * The number of symbols in the generation.
+	 */
+	private long length;
+	/**
+	 * The segments the symbols are stored in.
+	 */
+	private ByteBuffer[] segments;
+	/**
+	 * The channel of the mapped file, or null if direct buffers are used.
+	 */
+	private FileChannel channel;
+
+	/**
+	 * Allocates the storage for a generation of the given length.
+	 *
+	 * @param alphabet
+	 *            the alphabet of the system
+	 * @param level
+	 *            the level of the generation
+	 * @param length
+	 *            the number of symbols in the generation
+	 * @param directory
+	 *            the directory in which the temporary file is created, or
+	 *            null to use a direct buffer if the generation fits in a
+	 *            single segment, and the default temporary directory
+	 *            otherwise
+	 * @throws IllegalArgumentException
+	 *             if the alphabet has more than 256 symbols
+	 * @throws UncheckedIOException
+	 *             if the temporary file cannot be created or mapped
+	 */
+	OffHeapGeneration(Alphabet alphabet, int level, long length,
+			Path directory) {
+		if (alphabet.size() > 256)
+			throw new IllegalArgumentException("An alphabet of "
+					+ alphabet.size()
+					+ " symbols cannot be stored one byte per symbol!");
+		this.alphabet = alphabet;
+		this.level = level;
+		this.length = length;
+		this.segments = new ByteBuffer[(int) ((length
+				+ SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+
+		try {
+			if (directory != null || segments.length > 1) {
+				Path file = directory != null
+						? Files.createTempFile(directory, "generation", ".bin")
+						: Files.createTempFile("generation", ".bin");
+				channel = FileChannel.open(file, StandardOpenOption.READ,
+						StandardOpenOption.WRITE,
+						StandardOpenOption.DELETE_ON_CLOSE);
+			}
+			for (int i = 0; i < segments.length; i++) {
+				long start = (long) i << SEGMENT_SHIFT;
+				int size = (int) Math.min(length - start, 1L << SEGMENT_SHIFT);
+				segments[i] = channel == null ? ByteBuffer.allocateDirect(size)
+						: channel.map(MapMode.READ_WRITE, start, size);
+			}
+		} catch (IOException ex) {
+			close();
+			throw new UncheckedIOException(
+					"Cannot create the generation's storage!", ex);
+		}
+	}
+
+	/**
+	 * Gets the level of the generation.
+	 *
+	 * @return the level
+	 */
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * Gets the number of symbols in the generation.
+	 *
+	 * @return the length of the generation
+	 */
+	@Override
+	public long length() {
+		return length;
+	}
+
+	/**
+	 * Gets the symbol at the given index.
+	 *
+	 * @param index
+	 *            the index of the symbol
+	 * @return the symbol
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is negative or not less than the length
+	 */
+	public char charAt(long index) {
+		if (index < 0 || index >= length)
+			throw new IndexOutOfBoundsException("The index " + index
+					+ " is not within [0, " + length + ")!");
+		return alphabet.symbolOf(code(index));
+	}
+
+	/**
+	 * Creates a cursor which reads the symbols of the generation in order.
+	 *
+	 * @return the new cursor
+	 */
+	public SymbolCursor cursor() {
+		return new SymbolCursor() {
+			private long position;
+
+			@Override
+			public int next() {
+				if (position == length) {
+					return -1;
+				}
+				return alphabet.symbolOf(code(position++));
+			}
+		};
+	}
+
+	/**
+	 * Releases the storage. The temporary file, if any, is deleted, but Java
+	 * cannot unmap a mapped buffer explicitly, so the file stays mapped, and
+	 * its disk space stays in use, until the segments are garbage collected.
+	 * The memory of direct buffers is likewise returned only once they are
+	 * collected.
+	 */
+	@Override
+	public void close() {
+		segments = new ByteBuffer[0];
+		length = 0;
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException ignorable) {
+			}
+			channel = null;
+		}
+	}
+
+	@Override
+	public void release() {
+		close();
+	}
+
+	/**
+	 * Gets the code of the symbol at the given index.
+	 *
+	 * @param index
+	 *            the index of the symbol
+	 * @return the code of the symbol
+	 */
+	@Override
+	public int code(long index) {
+		return segments[(int) (index >>> SEGMENT_SHIFT)]
+				.get((int) (index & SEGMENT_MASK)) & 0xFF;
+	}
+
+	/**
+	 * Sets the code of the symbol at the given index.
+	 *
+	 * @param index
+	 *            the index of the symbol
+	 * @param code
+	 *            the code of the symbol
+	 */
+	@Override
+	public void setCode(long index, int code) {
+		segments[(int) (index >>> SEGMENT_SHIFT)]
+				.put((int) (index & SEGMENT_MASK), (byte) code);
+	}
+}
@@ -0,0 +1,273 @@
+package hr.fer.zemris.lsystems.impl;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates the levels of an L-system on a {@link ForkJoinPool}. Each level is
+ * split into chunks of symbols. The length of every chunk's output is computed
+ * in parallel, a prefix sum over those lengths gives each chunk its offset in
+ * a single preallocated buffer, and the chunks are then rewritten into that
+ * buffer in parallel. The result is identical to the sequential rewriting of
+ * the generation, symbol by symbol.
+ *
+ * @author 0036502252
+ *
+ */
+public class ParallelGenerator {
+	/**
+	 * The number of symbols rewritten by a single task.
+	 */
+	private static final int CHUNK_SIZE = 1 << 16;
+	/**
+	 * Generations shorter than this are rewritten on the calling thread.
+	 */
+	private static final int PARALLEL_THRESHOLD = 1 << 20;
+	/**
+	 * The largest array length which can safely be allocated.
+	 */
+	private static final int MAX_LENGTH = Integer.MAX_VALUE - 8;
+
+	/**
+	 * Keeps all the productions mapped to the symbols they replace.
+	 */
+	private CharTable<char[]> productions;
+	/**
+	 * The pool on which the chunks are rewritten.
+	 */
+	private ForkJoinPool pool;
+
+	/**
+	 * Creates a new generator which runs on the common pool.
+	 *
+	 * @param productions
+	 *            the productions mapped to the symbols they replace
+	 */
+	public ParallelGenerator(CharTable<char[]> productions) {
+		this(productions, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a new generator which runs on the given pool.
+	 *
+	 * @param productions
+	 *            the productions mapped to the symbols they replace
+	 * @param pool
+	 *            the pool on which the chunks are rewritten
+	 */
+	public ParallelGenerator(CharTable<char[]> productions,
+			ForkJoinPool pool) {
+		this.productions = productions;
+		this.pool = pool;
+	}
+
+	/**
+	 * Rewrites the given generation the given number of times.
+	 *
+	 * @param generation
+	 *            the generation to start from
+	 * @param levels
+	 *            the number of times the productions are applied
+	 * @return the resulting generation
+	 * @throws IllegalStateException
+	 *             if a generation is too long to be stored in an array
+	 */
+	public char[] generate(char[] generation, int levels) {
+		for (int i = 1; i <= levels; i++) {
+			generation = rewrite(generation);
+		}
+		return generation;
+	}
+
+	/**
+	 * Applies the productions to every symbol of the generation once.
+	 *
+	 * @param generation
+	 *            the generation to be rewritten
+	 * @return the next generation
+	 * @throws IllegalStateException
+	 *             if the next generation is too long to be stored in an array
+	 */
+	public char[] rewrite(char[] generation) {
+		// computed in long, since the length may be close to Integer.MAX_VALUE
+		int chunks = (int) ((generation.length + (long) CHUNK_SIZE - 1)
+				/ CHUNK_SIZE);
+		long[] offsets = new long[chunks + 1];
+
+		RewriteTask counting = new RewriteTask(generation, null, offsets, 0,
+				chunks);
+		run(counting, generation.length);
+
+		// prefix sum: offsets[i] becomes the start of the i-th chunk's output
+		long total = 0;
+		for (int i = 0; i < chunks; i++) {
+			long length = offsets[i];
+			offsets[i] = total;
+			total += length;
+		}
+		offsets[chunks] = total;
+		if (total > MAX_LENGTH)
+			throw new IllegalStateException("The generation has " + total
+					+ " symbols, which is more than an array can hold!");
+
+		char[] next = new char[(int) total];
+		RewriteTask writing = new RewriteTask(generation, next, offsets, 0,
+				chunks);
+		run(writing, generation.length);
+		return next;
+	}
+
+	/**
+	 * Runs the task on the pool, or on the calling thread if the generation is
+	 * too short to benefit from parallelism.
+	 *
+	 * @param task
+	 *            the task to be run
+	 * @param length
+	 *            the length of the generation the task works on
+	 */
+	private void run(RewriteTask task, int length) {
+		if (length < PARALLEL_THRESHOLD) {
+			task.compute();
+		} else {
+			pool.invoke(task);
+		}
+	}
+
+	/**
+	 * Gets the index after the last symbol of the chunk starting at the given
+	 * index. The chunk is cut short at the end of the generation; the index
+	 * is computed without overflowing even for chunks which start just below
+	 * {@link Integer#MAX_VALUE}.
+	 *
+	 * @param start
+	 *            the index of the first symbol of the chunk
+	 * @param length
+	 *            the length of the generation
+	 * @return the index after the last symbol of the chunk
+	 */
+	public static int chunkEnd(int start, int length) {
+		return start + Math.min(CHUNK_SIZE, length - start);
+	}
+
+	/**
+	 * Counts or writes the output of a range of chunks. If no output buffer is
+	 * given, the output length of each chunk is stored in the offsets array;
+	 * otherwise each chunk is written to the buffer at its offset.
+	 *
+	 * @author 0036502252
+	 *
+	 */
+	private class RewriteTask extends RecursiveAction {
+		/**
+		 * Serial version UID.
+		 */
+		private static final long serialVersionUID = 1L;
+		/**
+		 * The generation being rewritten.
+		 */
+		private char[] source;
+		/**
+		 * The buffer the next generation is written to, or null when
+		 * counting.
+		 */
+		private char[] target;
+		/**
+		 * The output lengths or the output offsets of the chunks.
+		 */
+		private long[] offsets;
+		/**
+		 * The first chunk handled by this task.
+		 */
+		private int from;
+		/**
+		 * The chunk after the last one handled by this task.
+		 */
+		private int to;
+
+		/**
+		 * Creates a new task for the given range of chunks.
+		 *
+		 * @param source
+		 *            the generation being rewritten
+		 * @param target
+		 *            the output buffer, or null when counting
+		 * @param offsets
+		 *            the output lengths or offsets of the chunks
+		 * @param from
+		 *            the first chunk handled by this task
+		 * @param to
+		 *            the chunk after the last one handled by this task
+		 */
+		RewriteTask(char[] source, char[] target, long[] offsets, int from,
+				int to) {
+			this.source = source;
+			this.target = target;
+			this.offsets = offsets;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int middle = (from + to) >>> 1;
+				invokeAll(
+						new RewriteTask(source, target, offsets, from, middle),
+						new RewriteTask(source, target, offsets, middle, to));
+				return;
+			}
+			for (int chunk = from; chunk < to; chunk++) {
+				int start = chunk * CHUNK_SIZE;
+				int end = chunkEnd(start, source.length);
+				if (target == null) {
+					offsets[chunk] = count(start, end);
+				} else {
+					write(start, end, (int) offsets[chunk]);
+				}
+			}
+		}
+
+		/**
+		 * Counts the symbols the given part of the generation is rewritten
+		 * into.
+		 *
+		 * @param start
+		 *            the first symbol of the part
+		 * @param end
+		 *            the symbol after the last one of the part
+		 * @return the length of the rewritten part
+		 */
+		private long count(int start, int end) {
+			long length = 0;
+			for (int i = start; i < end; i++) {
+				char[] prod = productions.get(source[i]);
+				length += prod == null ? 1 : prod.length;
+			}
+			return length;
+		}
+
+		/**
+		 * Rewrites the given part of the generation into the output buffer.
+		 *
+		 * @param start
+		 *            the first symbol of the part
+		 * @param end
+		 *            the symbol after the last one of the part
+		 * @param position
+		 *            the position in the output buffer the part is written to
+		 */
+		private void write(int start, int end, int position) {
+			for (int i = start; i < end; i++) {
+				char symbol = source[i];
+				char[] prod = productions.get(symbol);
+				if (prod == null) {
+					target[position++] = symbol;
+				} else {
+					System.arraycopy(prod, 0, target, position, prod.length);
+					position += prod.length;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,621 @@
+package hr.fer.zemris.lsystems.impl;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import hr.fer.zemris.lsystems.Painter;
+import hr.fer.zemris.lsystems.impl.commands.ColorCommand;
+import hr.fer.zemris.lsystems.impl.commands.DrawCommand;
+import hr.fer.zemris.lsystems.impl.commands.PopCommand;
+import hr.fer.zemris.lsystems.impl.commands.PushCommand;
+import hr.fer.zemris.lsystems.impl.commands.RotateCommand;
+import hr.fer.zemris.lsystems.impl.commands.ScaleCommand;
+import hr.fer.zemris.lsystems.impl.commands.SkipCommand;
+
+/**
+ * Interprets a generation stored as symbol codes on a {@link ForkJoinPool}.
+ * Every command other than a push or a pop moves, turns, scales or colors the
+ * turtle, which is a similarity transform of its state, so the effect of a
+ * whole chunk of symbols on the turtle can be summarized by a single transform
+ * no matter where the chunk starts. The interpretation runs in three steps:
+ * <ol>
+ * <li>the chunks are summarized in parallel, each summary holding the
+ * transform of the chunk, the number of states it pops from below its start
+ * and the transforms of the states it leaves pushed;</li>
+ * <li>a scan over the summaries gives every chunk the turtle state and the
+ * stack it starts with;</li>
+ * <li>the chunks are interpreted in parallel with the real commands, each
+ * into a buffer of its own, and the buffers are replayed to the painter in
+ * order, a window of chunks at a time.</li>
+ * </ol>
+ * The lines are drawn in the same order as by the sequential interpretation.
+ * Their coordinates may differ in the last few bits, since the start of each
+ * chunk is computed through the transforms. Generations with commands other
+ * than the built-in ones, and generations which pop below their initial
+ * state, are interpreted sequentially.
+ *
+ * @author 0036502252
+ *
+ */
+class ParallelInterpreter {
+	/**
+	 * The number of symbols interpreted by a single task.
+	 */
+	private static final int CHUNK_SIZE = 1 << 16;
+	/**
+	 * Generations shorter than this are interpreted on the calling thread.
+	 */
+	private static final int PARALLEL_THRESHOLD = 1 << 20;
+	/**
+	 * The kind of the symbols without a command.
+	 */
+	private static final int NONE = 0;
+	/**
+	 * The kind of the draw and skip commands.
+	 */
+	private static final int MOVE = 1;
+	/**
+	 * The kind of the rotate commands.
+	 */
+	private static final int ROTATE = 2;
+	/**
+	 * The kind of the scale commands.
+	 */
+	private static final int SCALE = 3;
+	/**
+	 * The kind of the color commands.
+	 */
+	private static final int COLOR = 4;
+	/**
+	 * The kind of the push commands.
+	 */
+	private static final int PUSH = 5;
+	/**
+	 * The kind of the pop commands.
+	 */
+	private static final int POP = 6;
+
+	/**
+	 * The commands, indexed by the codes of their symbols.
+	 */
+	private Command[] commands;
+	/**
+	 * The table of directions the quantized rotations turn through, or null.
+	 */
+	private DirectionTable directions;
+	/**
+	 * Whether every command is one of the built-in ones.
+	 */
+	private boolean parallelizable;
+	/**
+	 * The kinds of the commands, indexed by the codes of their symbols.
+	 */
+	private int[] kinds;
+	/**
+	 * The steps of the moves and the factors of the scalings, indexed by the
+	 * codes of their symbols.
+	 */
+	private double[] values;
+	/**
+	 * The cosines of the rotations, indexed by the codes of their symbols.
+	 */
+	private double[] cosines;
+	/**
+	 * The sines of the rotations, indexed by the codes of their symbols.
+	 */
+	private double[] sines;
+	/**
+	 * The table steps of the rotations, indexed by the codes of their
+	 * symbols.
+	 */
+	private int[] steps;
+	/**
+	 * The colors of the colorings, indexed by the codes of their symbols.
+	 */
+	private Color[] colors;
+	/**
+	 * The pool on which the chunks are interpreted.
+	 */
+	private ForkJoinPool pool;
+
+	/**
+	 * The effect of a sequence of commands on the turtle's state, relative to
+	 * the state it starts from. The position moves by the start direction
+	 * multiplied by the start unit length and by the complex number
+	 * {@code (kx, ky)}, the direction is multiplied by the unit complex number
+	 * {@code (rx, ry)} or moved by a number of table steps, and the unit
+	 * length is multiplied by a factor.
+	 *
+	 * @author 0036502252
+	 *
+	 */
+	private static class Transform {
+		/**
+		 * The real part of the relative displacement.
+		 */
+		private double kx;
+		/**
+		 * The imaginary part of the relative displacement.
+		 */
+		private double ky;
+		/**
+		 * The real part of the relative rotation.
+		 */
+		private double rx = 1;
+		/**
+		 * The imaginary part of the relative rotation.
+		 */
+		private double ry;
+		/**
+		 * The number of table directions turned by.
+		 */
+		private int steps;
+		/**
+		 * The factor of the unit length.
+		 */
+		private double m = 1;
+		/**
+		 * The color set last, or null if the color is not changed.
+		 */
+		private Color color;
+
+		/**
+		 * Creates a copy of the transform.
+		 *
+		 * @return the copy
+		 */
+		private Transform copy() {
+			Transform copy = new Transform();
+			copy.kx = kx;
+			copy.ky = ky;
+			copy.rx = rx;
+			copy.ry = ry;
+			copy.steps = steps;
+			copy.m = m;
+			copy.color = color;
+			return copy;
+		}
+	}
+
+	/**
+	 * The summary of a chunk of symbols.
+	 *
+	 * @author 0036502252
+	 *
+	 */
+	private static class Summary {
+		/**
+		 * The number of states popped from below the chunk's start.
+		 */
+		private int pops;
+		/**
+		 * The states left pushed, relative to the base state.
+		 */
+		private Transform[] pushed = new Transform[0];
+		/**
+		 * The transform from the base state to the end of the chunk. The base
+		 * state is the state the chunk starts from if it pops nothing from
+		 * below, and the last state it pops from below otherwise.
+		 */
+		private Transform end = new Transform();
+	}
+
+	/**
+	 * Creates a new interpreter which runs on the common pool.
+	 *
+	 * @param commands
+	 *            the commands, indexed by the codes of their symbols
+	 */
+	ParallelInterpreter(Command[] commands) {
+		this(commands, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a new interpreter which runs on the given pool.
+	 *
+	 * @param commands
+	 *            the commands, indexed by the codes of their symbols
+	 * @param pool
+	 *            the pool on which the chunks are interpreted
+	 */
+	ParallelInterpreter(Command[] commands, ForkJoinPool pool) {
+		this.commands = commands;
+		this.pool = pool;
+		this.parallelizable = true;
+		this.kinds = new int[commands.length];
+		this.values = new double[commands.length];
+		this.cosines = new double[commands.length];
+		this.sines = new double[commands.length];
+		this.steps = new int[commands.length];
+		this.colors = new Color[commands.length];
+
+		boolean rotations = false;
+		for (int code = 0; code < commands.length; code++) {
+			Command command = commands[code];
+			Class<?> type = command == null ? null : command.getClass();
+			if (type == null) {
+				kinds[code] = NONE;
+			} else if (type == DrawCommand.class) {
+				kinds[code] = MOVE;
+				values[code] = ((DrawCommand) command).getStep();
+			} else if (type == SkipCommand.class) {
+				kinds[code] = MOVE;
+				values[code] = ((SkipCommand) command).getStep();
+			} else if (type == RotateCommand.class) {
+				RotateCommand rotate = (RotateCommand) command;
+				if (rotations && rotate.getDirections() != directions) {
+					parallelizable = false;
+				}
+				rotations = true;
+				directions = rotate.getDirections();
+				double radians = Math.toRadians(rotate.getAngle());
+				kinds[code] = ROTATE;
+				cosines[code] = Math.cos(radians);
+				sines[code] = Math.sin(radians);
+				steps[code] = rotate.getSteps();
+			} else if (type == ScaleCommand.class) {
+				kinds[code] = SCALE;
+				values[code] = ((ScaleCommand) command).getFactor();
+			} else if (type == ColorCommand.class) {
+				kinds[code] = COLOR;
+				colors[code] = ((ColorCommand) command).getColor();
+			} else if (type == PushCommand.class) {
+				kinds[code] = PUSH;
+			} else if (type == PopCommand.class) {
+				kinds[code] = POP;
+			} else {
+				parallelizable = false;
+			}
+		}
+	}
+
+	/**
+	 * Interprets the generation, starting from the context's current state.
+	 * Every chunk counts the commands it executes and the depth its stack
+	 * reaches on its own, and they are added up as the chunks are replayed.
+	 *
+	 * @param generation
+	 *            the generation to be interpreted
+	 * @param ctx
+	 *            the context holding the initial state
+	 * @param painter
+	 *            the painter used for line drawing
+	 * @param executed
+	 *            the numbers of commands executed, indexed by the codes of
+	 *            their symbols, which are increased by the interpretation
+	 * @return the largest number of states the stack of the sequential
+	 *         interpretation would hold
+	 */
+	int draw(CodeStorage generation, Context ctx, Painter painter,
+			long[] executed) {
+		long length = generation.length();
+		if (!parallelizable || length < PARALLEL_THRESHOLD
+				|| ctx.getDepth() != 1) {
+			interpret(generation, 0, length, ctx, painter, executed);
+			return ctx.getMaxDepth();
+		}
+
+		int chunks = (int) ((length + CHUNK_SIZE - 1) / CHUNK_SIZE);
+		Summary[] summaries = new Summary[chunks];
+		pool.invoke(new SummaryTask(generation, summaries, 0, chunks));
+
+		int[] depths = new int[chunks];
+		TurtleState[][] starts = scan(summaries, ctx.getCurrentState(),
+				depths);
+		if (starts == null) {
+			interpret(generation, 0, length, ctx, painter, executed);
+			return ctx.getMaxDepth();
+		}
+
+		int window = 4 * pool.getParallelism();
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		ForkJoinTask<SegmentBuffer>[] tasks = new ForkJoinTask[chunks];
+		long[][] counts = new long[chunks][];
+		int maxDepth = ctx.getMaxDepth();
+		int submitted = 0;
+		for (int i = 0; i < chunks; i++) {
+			for (; submitted < chunks && submitted < i + window; submitted++) {
+				tasks[submitted] = pool.submit(emitter(generation,
+						starts[submitted], submitted, counts, depths));
+			}
+			tasks[i].join().replay(painter);
+			tasks[i] = null;
+			if (RenderMetrics.ENABLED) {
+				RenderMetrics.merge(executed, counts[i]);
+				counts[i] = null;
+			}
+			maxDepth = Math.max(maxDepth, depths[i]);
+		}
+		return maxDepth;
+	}
+
+	/**
+	 * Private utility method. Creates the task which interprets a chunk into a
+	 * buffer.
+	 *
+	 * @param generation
+	 *            the generation being interpreted
+	 * @param start
+	 *            the states the chunk starts with, the current one last
+	 * @param chunk
+	 *            the index of the chunk
+	 * @param counts
+	 *            the numbers of commands executed by each chunk, into which
+	 *            the task stores those of its own chunk
+	 * @param depths
+	 *            for every chunk, the number of states below those it starts
+	 *            with, to which the task adds the depth its stack reaches
+	 * @return the task
+	 */
+	private ForkJoinTask<SegmentBuffer> emitter(CodeStorage generation,
+			TurtleState[] start, int chunk, long[][] counts, int[] depths) {
+		return ForkJoinTask.adapt(() -> {
+			Context ctx = new Context();
+			for (TurtleState state : start) {
+				ctx.pushState(state.copy());
+			}
+			SegmentBuffer buffer = new SegmentBuffer();
+			long[] executed = new long[commands.length];
+			long from = (long) chunk * CHUNK_SIZE;
+			interpret(generation, from,
+					Math.min(from + CHUNK_SIZE, generation.length()), ctx,
+					buffer, executed);
+			counts[chunk] = executed;
+			depths[chunk] += ctx.getMaxDepth();
+			return buffer;
+		});
+	}
+
+	/**
+	 * Private utility method. Interprets a part of the generation
+	 * sequentially.
+	 *
+	 * @param generation
+	 *            the generation being interpreted
+	 * @param from
+	 *            the index of the first symbol
+	 * @param to
+	 *            the index after the last symbol
+	 * @param ctx
+	 *            the turtle's context
+	 * @param painter
+	 *            the painter used for line drawing
+	 * @param executed
+	 *            the numbers of commands executed, indexed by the codes of
+	 *            their symbols
+	 */
+	private void interpret(CodeStorage generation, long from, long to,
+			Context ctx, Painter painter, long[] executed) {
+		for (long i = from; i < to; i++) {
+			int code = generation.code(i);
+			Command command = commands[code];
+			if (command != null) {
+				command.execute(ctx, painter);
+				if (RenderMetrics.ENABLED) {
+					executed[code]++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Private utility method. Scans the summaries, computing the states every
+	 * chunk starts with.
+	 *
+	 * @param summaries
+	 *            the summaries of the chunks
+	 * @param initial
+	 *            the initial state
+	 * @param depths
+	 *            for every chunk, the number of states the stack holds below
+	 *            those the chunk starts with, which the scan stores
+	 * @return for every chunk, the states the chunk pops from below its start
+	 *         followed by its current state; or null if the generation pops
+	 *         below its initial state
+	 */
+	private TurtleState[][] scan(Summary[] summaries, TurtleState initial,
+			int[] depths) {
+		TurtleState[][] starts = new TurtleState[summaries.length][];
+		TurtleState[] stack = new TurtleState[16];
+		int saved = 0;
+		TurtleState current = initial.copy();
+
+		for (int i = 0; i < summaries.length; i++) {
+			Summary summary = summaries[i];
+			if (summary.pops > saved) {
+				return null;
+			}
+			TurtleState[] start = Arrays.copyOfRange(stack,
+					saved - summary.pops, saved + 1);
+			start[summary.pops] = current;
+			starts[i] = start;
+			depths[i] = saved - summary.pops;
+
+			TurtleState base = current;
+			if (summary.pops > 0) {
+				saved -= summary.pops;
+				base = stack[saved];
+			}
+			for (Transform pushed : summary.pushed) {
+				if (saved == stack.length) {
+					stack = Arrays.copyOf(stack, 2 * saved);
+				}
+				stack[saved++] = apply(pushed, base);
+			}
+			current = apply(summary.end, base);
+		}
+		return starts;
+	}
+
+	/**
+	 * Private utility method. Applies a transform to a state.
+	 *
+	 * @param transform
+	 *            the transform
+	 * @param base
+	 *            the state the transform starts from
+	 * @return the new state
+	 */
+	private TurtleState apply(Transform transform, TurtleState base) {
+		TurtleState state = base.copy();
+		double dx = base.getDirectionX();
+		double dy = base.getDirectionY();
+		double s = base.getUnitLength();
+		state.setPosition(
+				base.getX() + s * (dx * transform.kx - dy * transform.ky),
+				base.getY() + s * (dx * transform.ky + dy * transform.kx));
+
+		int index = base.getDirectionIndex();
+		if (directions != null && index != -1) {
+			index = (index + transform.steps) % directions.size();
+			state.setDirection(directions.getX(index), directions.getY(index),
+					index);
+		} else {
+			double x = dx * transform.rx - dy * transform.ry;
+			double y = dx * transform.ry + dy * transform.rx;
+			double norm = Math.sqrt(x * x + y * y);
+			state.setDirection(x / norm, y / norm);
+		}
+		state.setUnitLength(s * transform.m);
+		if (transform.color != null) {
+			state.setDrawingColor(transform.color);
+		}
+		return state;
+	}
+
+	/**
+	 * Private utility method. Summarizes a chunk of the generation.
+	 *
+	 * @param generation
+	 *            the generation being interpreted
+	 * @param chunk
+	 *            the index of the chunk
+	 * @return the summary of the chunk
+	 */
+	private Summary summarize(CodeStorage generation, int chunk) {
+		Summary summary = new Summary();
+		Transform current = summary.end;
+		Transform[] stack = new Transform[16];
+		int saved = 0;
+
+		long from = (long) chunk * CHUNK_SIZE;
+		long to = Math.min(from + CHUNK_SIZE, generation.length());
+		for (long i = from; i < to; i++) {
+			int code = generation.code(i);
+			switch (kinds[code]) {
+			case MOVE: {
+				double rx = current.rx;
+				double ry = current.ry;
+				if (directions != null) {
+					rx = directions.getX(current.steps);
+					ry = directions.getY(current.steps);
+				}
+				current.kx += rx * values[code] * current.m;
+				current.ky += ry * values[code] * current.m;
+				break;
+			}
+			case ROTATE: {
+				double x = current.rx * cosines[code] - current.ry * sines[code];
+				double y = current.rx * sines[code] + current.ry * cosines[code];
+				double norm = Math.sqrt(x * x + y * y);
+				current.rx = x / norm;
+				current.ry = y / norm;
+				if (directions != null) {
+					current.steps = (current.steps + steps[code])
+							% directions.size();
+				}
+				break;
+			}
+			case SCALE:
+				current.m *= values[code];
+				break;
+			case COLOR:
+				current.color = colors[code];
+				break;
+			case PUSH:
+				if (saved == stack.length) {
+					stack = Arrays.copyOf(stack, 2 * saved);
+				}
+				stack[saved++] = current.copy();
+				break;
+			case POP:
+				if (saved > 0) {
+					current = stack[--saved];
+				} else {
+					summary.pops++;
+					current = new Transform();
+				}
+				break;
+			default:
+			}
+		}
+		summary.pushed = Arrays.copyOf(stack, saved);
+		summary.end = current;
+		return summary;
+	}
+
+	/**
+	 * Summarizes a range of chunks, splitting it in half until it is small
+	 * enough.
+	 *
+	 * @author 0036502252
+	 *
+	 */
+	private class SummaryTask extends RecursiveAction {
+		/**
+		 * Default serial version ID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The generation being interpreted.
+		 */
+		private CodeStorage generation;
+		/**
+		 * The summaries of all the chunks.
+		 */
+		private Summary[] summaries;
+		/**
+		 * The index of the first chunk.
+		 */
+		private int from;
+		/**
+		 * The index after the last chunk.
+		 */
+		private int to;
+
+		/**
+		 * Creates a new task.
+		 *
+		 * @param generation
+		 *            the generation being interpreted
+		 * @param summaries
+		 *            the summaries of all the chunks
+		 * @param from
+		 *            the index of the first chunk
+		 * @param to
+		 *            the index after the last chunk
+		 */
+		private SummaryTask(CodeStorage generation, Summary[] summaries,
+				int from, int to) {
+			this.generation = generation;
+			this.summaries = summaries;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				summaries[from] = summarize(generation, from);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new SummaryTask(generation, summaries, from, middle),
+					new SummaryTask(generation, summaries, middle, to));
+		}
+	}
+}
@@ -0,0 +1,440 @@
+package hr.fer.zemris.lsystems.impl;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+import hr.fer.zemris.lsystems.Painter;
+import hr.fer.zemris.lsystems.impl.commands.ColorCommand;
+import hr.fer.zemris.lsystems.impl.commands.DrawCommand;
+import hr.fer.zemris.lsystems.impl.commands.PopCommand;
+import hr.fer.zemris.lsystems.impl.commands.PushCommand;
+import hr.fer.zemris.lsystems.impl.commands.RotateCommand;
+import hr.fer.zemris.lsystems.impl.commands.ScaleCommand;
+import hr.fer.zemris.lsystems.impl.commands.SkipCommand;
+
+/**
+ * An L-system generation compiled into a compact program of turtle
+ * instructions, kept in primitive arrays. While compiling, symbols without a
+ * command are dropped, consecutive draws and skips are fused into a single
+ * longer step, runs of rotations are folded into a single net rotation, runs
+ * of scalings and colorings are folded into one, and a push followed directly
+ * by a pop is dropped. The program is executed by a single switch, so the
+ * built-in commands need no dictionary lookups and no virtual calls; any
+ * other command is kept as is and executed through its own method.
+ *
+ * @author 0036502252
+ *
+ */
+public class Program {
+	/**
+	 * Moves the turtle, drawing a line.
+	 */
+	private static final int DRAW = 0;
+	/**
+	 * Moves the turtle without drawing.
+	 */
+	private static final int SKIP = 1;
+	/**
+	 * Turns the turtle.
+	 */
+	private static final int ROTATE = 2;
+	/**
+	 * Scales the turtle's unit length.
+	 */
+	private static final int SCALE = 3;
+	/**
+	 * Sets the turtle's color.
+	 */
+	private static final int COLOR = 4;
+	/**
+	 * Pushes a copy of the turtle's state.
+	 */
+	private static final int PUSH = 5;
+	/**
+	 * Pops the turtle's state.
+	 */
+	private static final int POP = 6;
+	/**
+	 * Executes a command which has no instruction of its own.
+	 */
+	private static final int CUSTOM = 7;
+	/**
+	 * The number of bits the opcode takes in an instruction.
+	 */
+	private static final int OPCODE_BITS = 3;
+	/**
+	 * Extracts the opcode from an instruction.
+	 */
+	private static final int OPCODE_MASK = (1 << OPCODE_BITS) - 1;
+	/**
+	 * The classes of the commands the built-in instructions are compiled
+	 * from, indexed by their opcodes.
+	 */
+	private static final Class<?>[] TYPES = { DrawCommand.class,
+			SkipCommand.class, RotateCommand.class, ScaleCommand.class,
+			ColorCommand.class, PushCommand.class, PopCommand.class };
+
+	/**
+	 * The level of the compiled generation.
+	 */
+	private int level;
+	/**
+	 * The instructions, each holding an opcode in its lowest bits and a
+	 * signed integer operand above it.
+	 */
+	private int[] code;
+	/**
+	 * The floating-point operands, two for each instruction.
+	 */
+	private double[] operands;
+	/**
+	 * The colors and commands referenced by the instructions.
+	 */
+	private Object[] constants;
+	/**
+	 * The table of directions the quantized rotations turn through, or null.
+	 */
+	private DirectionTable directions;
+	/**
+	 * The number of instructions.
+	 */
+	private int size;
+	/**
+	 * The number of constants.
+	 */
+	private int constantCount;
+
+	/**
+	 * Private constructor which creates an empty program.
+	 *
+	 * @param level
+	 *            the level of the compiled generation
+	 */
+	private Program(int level) {
+		this.level = level;
+		this.code = new int[64];
+		this.operands = new double[128];
+		this.constants = new Object[8];
+	}
+
+	/**
+	 * Compiles the symbols read from the cursor.
+	 *
+	 * @param cursor
+	 *            the cursor the symbols are read from
+	 * @param commands
+	 *            the commands mapped to their symbols
+	 * @param level
+	 *            the level of the compiled generation
+	 * @return the program
+	 */
+	public static Program compile(SymbolCursor cursor,
+			CharTable<Command> commands, int level) {
+		Program program = new Program(level);
+		for (int symbol = cursor.next(); symbol != -1; symbol = cursor
+				.next()) {
+			Command command = commands.get((char) symbol);
+			if (command != null) {
+				program.append(command);
+			}
+		}
+		program.finish();
+		return program;
+	}
+
+	/**
+	 * Gets the level of the compiled generation.
+	 *
+	 * @return the level
+	 */
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * Gets the number of instructions in the program.
+	 *
+	 * @return the size of the program
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Executes the program, starting from the context's current state. The
+	 * instructions executed are counted into the {@link RenderMetrics}.
+	 *
+	 * @param ctx
+	 *            the turtle's context
+	 * @param painter
+	 *            the painter used for line drawing
+	 */
+	public void execute(Context ctx, Painter painter) {
+		int[] code = this.code;
+		double[] operands = this.operands;
+		long[] executed = new long[CUSTOM + constants.length];
+		for (int i = 0; i < size; i++) {
+			int instruction = code[i];
+			int opcode = instruction & OPCODE_MASK;
+			if (RenderMetrics.ENABLED) {
+				executed[opcode < CUSTOM ? opcode
+						: CUSTOM + (instruction >>> OPCODE_BITS)]++;
+			}
+			switch (opcode) {
+			case DRAW: {
+				TurtleState state = ctx.getCurrentState();
+				double x = state.getX();
+				double y = state.getY();
+				double length = operands[2 * i] * state.getUnitLength();
+				double newX = x + state.getDirectionX() * length;
+				double newY = y + state.getDirectionY() * length;
+				painter.drawLine(x, y, newX, newY, state.getDrawingColor(),
+						1F);
+				state.setPosition(newX, newY);
+				break;
+			}
+			case SKIP: {
+				TurtleState state = ctx.getCurrentState();
+				double length = operands[2 * i] * state.getUnitLength();
+				state.setPosition(state.getX() + state.getDirectionX() * length,
+						state.getY() + state.getDirectionY() * length);
+				break;
+			}
+			case ROTATE: {
+				TurtleState state = ctx.getCurrentState();
+				int index = state.getDirectionIndex();
+				int steps = instruction >> OPCODE_BITS;
+				if (steps != -1 && index != -1) {
+					index += steps;
+					if (index >= directions.size()) {
+						index -= directions.size();
+					}
+					state.setDirection(directions.getX(index),
+							directions.getY(index), index);
+					break;
+				}
+				double cos = operands[2 * i];
+				double sin = operands[2 * i + 1];
+				double dx = state.getDirectionX() * cos
+						- state.getDirectionY() * sin;
+				double dy = state.getDirectionX() * sin
+						+ state.getDirectionY() * cos;
+				double norm = Math.sqrt(dx * dx + dy * dy);
+				state.setDirection(dx / norm, dy / norm);
+				break;
+			}
+			case SCALE: {
+				TurtleState state = ctx.getCurrentState();
+				state.setUnitLength(state.getUnitLength() * operands[2 * i]);
+				break;
+			}
+			case COLOR:
+				ctx.getCurrentState().setDrawingColor(
+						(Color) constants[instruction >>> OPCODE_BITS]);
+				break;
+			case PUSH:
+				ctx.pushState();
+				break;
+			case POP:
+				ctx.popState();
+				break;
+			default:
+				((Command) constants[instruction >>> OPCODE_BITS]).execute(ctx,
+						painter);
+			}
+		}
+		if (RenderMetrics.ENABLED) {
+			record(executed);
+		}
+	}
+
+	/**
+	 * Private utility method. Adds the instructions executed by a run of the
+	 * program to the {@link RenderMetrics}, as the commands they were
+	 * compiled from. Every draw instruction draws a single line.
+	 *
+	 * @param executed
+	 *            the number of times each built-in instruction was executed,
+	 *            indexed by its opcode, followed by the number of times each
+	 *            constant was executed as a command
+	 */
+	private void record(long[] executed) {
+		RenderMetrics metrics = RenderMetrics.getInstance();
+		for (int opcode = 0; opcode < CUSTOM; opcode++) {
+			metrics.recordCommands(TYPES[opcode], executed[opcode]);
+		}
+		for (int i = 0; i < constants.length; i++) {
+			metrics.recordCommands(constants[i].getClass(),
+					executed[CUSTOM + i]);
+		}
+		metrics.recordSegments(executed[DRAW]);
+	}
+
+	/**
+	 * Private utility method. Appends the instruction of a command, folding
+	 * it into the last instruction where possible.
+	 *
+	 * @param command
+	 *            the command to be appended
+	 */
+	private void append(Command command) {
+		Class<?> type = command.getClass();
+		int last = size == 0 ? -1 : code[size - 1] & OPCODE_MASK;
+
+		if (type == DrawCommand.class || type == SkipCommand.class) {
+			int opcode = type == DrawCommand.class ? DRAW : SKIP;
+			double step = type == DrawCommand.class
+					? ((DrawCommand) command).getStep()
+					: ((SkipCommand) command).getStep();
+			if (last == opcode) {
+				operands[2 * (size - 1)] += step;
+			} else {
+				emit(opcode, 0, step, 0);
+			}
+		} else if (type == RotateCommand.class) {
+			appendRotation((RotateCommand) command, last);
+		} else if (type == ScaleCommand.class) {
+			double factor = ((ScaleCommand) command).getFactor();
+			if (last == SCALE) {
+				operands[2 * (size - 1)] *= factor;
+			} else {
+				emit(SCALE, 0, factor, 0);
+			}
+		} else if (type == ColorCommand.class) {
+			int constant = constant(((ColorCommand) command).getColor());
+			if (last == COLOR) {
+				size--;
+			}
+			emit(COLOR, constant, 0, 0);
+		} else if (type == PushCommand.class) {
+			emit(PUSH, 0, 0, 0);
+		} else if (type == PopCommand.class) {
+			if (last == PUSH) {
+				size--;
+				fuseLast();
+			} else {
+				emit(POP, 0, 0, 0);
+			}
+		} else {
+			emit(CUSTOM, constant(command), 0, 0);
+		}
+	}
+
+	/**
+	 * Private utility method. Appends a rotation, folding it into the last
+	 * instruction if that is also a rotation. A rotation which folds into no
+	 * rotation at all is removed.
+	 *
+	 * @param command
+	 *            the rotation to be appended
+	 * @param last
+	 *            the opcode of the last instruction, or -1 if there is none
+	 */
+	private void appendRotation(RotateCommand command, int last) {
+		DirectionTable table = command.getDirections();
+		if (table != null) {
+			if (directions == null) {
+				directions = table;
+			} else if (directions != table) {
+				table = null;
+			}
+		}
+		int steps = table == null ? -1 : command.getSteps();
+
+		if (last == ROTATE) {
+			int i = size - 1;
+			int previous = code[i] >> OPCODE_BITS;
+			double angle = operands[2 * i] + command.getAngle();
+			if (steps == -1 || previous == -1) {
+				steps = -1;
+			} else {
+				steps = (previous + steps) % directions.size();
+			}
+			size--;
+			if (steps == -1 ? angle == 0 : steps == 0 && angle % 360 == 0) {
+				fuseLast();
+				return;
+			}
+			emit(ROTATE, steps, angle, 0);
+			return;
+		}
+		emit(ROTATE, steps, command.getAngle(), 0);
+	}
+
+	/**
+	 * Private utility method. After an instruction was removed, fuses the
+	 * instructions which have become adjacent, if they can be fused.
+	 */
+	private void fuseLast() {
+		if (size < 2) {
+			return;
+		}
+		int last = code[size - 1] & OPCODE_MASK;
+		int previous = code[size - 2] & OPCODE_MASK;
+		if (last == previous && (last == DRAW || last == SKIP)) {
+			operands[2 * (size - 2)] += operands[2 * (size - 1)];
+			size--;
+		}
+	}
+
+	/**
+	 * Private utility method. Appends an instruction.
+	 *
+	 * @param opcode
+	 *            the opcode of the instruction
+	 * @param argument
+	 *            the integer operand
+	 * @param first
+	 *            the first floating-point operand
+	 * @param second
+	 *            the second floating-point operand
+	 */
+	private void emit(int opcode, int argument, double first, double second) {
+		if (size == code.length) {
+			code = Arrays.copyOf(code, 2 * size);
+			operands = Arrays.copyOf(operands, 4 * size);
+		}
+		code[size] = opcode | argument << OPCODE_BITS;
+		operands[2 * size] = first;
+		operands[2 * size + 1] = second;
+		size++;
+	}
+
+	/**
+	 * Private utility method. Gets the index of a constant, adding it if it
+	 * has not been used yet.
+	 *
+	 * @param value
+	 *            the constant
+	 * @return the index of the constant
+	 */
+	private int constant(Object value) {
+		for (int i = constantCount - 1; i >= 0; i--) {
+			if (constants[i] == value) {
+				return i;
+			}
+		}
+		if (constantCount == constants.length) {
+			constants = Arrays.copyOf(constants, 2 * constantCount);
+		}
+		constants[constantCount] = value;
+		return constantCount++;
+	}
+
+	/**
+	 * Private utility method. Replaces the angles of the rotations with their
+	 * cosines and sines, and trims the arrays.
+	 */
+	private void finish() {
+		for (int i = 0; i < size; i++) {
+			if ((code[i] & OPCODE_MASK) == ROTATE) {
+				double radians = Math.toRadians(operands[2 * i]);
+				operands[2 * i] = Math.cos(radians);
+				operands[2 * i + 1] = Math.sin(radians);
+			}
+		}
+		code = Arrays.copyOf(code, size);
+		operands = Arrays.copyOf(operands, 2 * size);
+		constants = Arrays.copyOf(constants, constantCount);
+	}
+}
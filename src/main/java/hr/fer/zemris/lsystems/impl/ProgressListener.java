@@ -0,0 +1,23 @@
+package hr.fer.zemris.lsystems.impl;
+
+/**
+ * Receives the progress of a progressive drawing.
+ *
+ * @author 0036502252
+ *
+ */
+public interface ProgressListener {
+
+	/**
+	 * Called after each chunk of symbols is drawn.
+	 *
+	 * @param level
+	 *            the level being drawn
+	 * @param done
+	 *            the number of symbols of the level drawn so far
+	 * @param total
+	 *            the number of symbols of the level, or
+	 *            {@link Long#MAX_VALUE} if it is at least that large
+	 */
+	void progress(int level, long done, long total);
+}
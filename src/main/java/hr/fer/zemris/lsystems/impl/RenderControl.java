@@ -0,0 +1,119 @@
+package hr.fer.zemris.lsystems.impl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controls a progressive drawing from the outside. A drawing checks its
+ * control between chunks of symbols, and gives up once the control is
+ * cancelled, which may be done from any thread, or once its deadline has
+ * passed. The control also passes the progress of the drawing on to its
+ * listener, if it has one.
+ *
+ * @author 0036502252
+ *
+ */
+public class RenderControl {
+	/**
+	 * Whether the drawing was cancelled.
+	 */
+	private volatile boolean cancelled;
+	/**
+	 * The value of {@link System#nanoTime()} at the deadline.
+	 */
+	private long deadline;
+	/**
+	 * Whether there is a deadline.
+	 */
+	private boolean hasDeadline;
+	/**
+	 * The listener the progress is passed on to, or null.
+	 */
+	private ProgressListener listener;
+
+	/**
+	 * Creates a new control without a deadline.
+	 */
+	public RenderControl() {
+	}
+
+	/**
+	 * Creates a new control whose deadline is the given time from now.
+	 *
+	 * @param timeout
+	 *            the time left until the deadline
+	 * @param unit
+	 *            the unit of the time
+	 */
+	public RenderControl(long timeout, TimeUnit unit) {
+		this.deadline = System.nanoTime() + unit.toNanos(timeout);
+		this.hasDeadline = true;
+	}
+
+	/**
+	 * Cancels the drawing. The drawing stops before its next chunk.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Checks whether the drawing was cancelled.
+	 *
+	 * @return true if the drawing was cancelled, false otherwise
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Checks whether the deadline has passed.
+	 *
+	 * @return true if there is a deadline and it has passed, false otherwise
+	 */
+	public boolean hasExpired() {
+		return hasDeadline && System.nanoTime() - deadline >= 0;
+	}
+
+	/**
+	 * Sets the listener the progress is passed on to.
+	 *
+	 * @param listener
+	 *            the listener, or null to stop passing the progress on
+	 * @return this control
+	 */
+	public RenderControl setProgressListener(ProgressListener listener) {
+		this.listener = listener;
+		return this;
+	}
+
+	/**
+	 * Gets the status a drawing should stop with.
+	 *
+	 * @return the status, or null if the drawing may go on
+	 */
+	RenderStatus stopStatus() {
+		if (cancelled) {
+			return RenderStatus.CANCELLED;
+		}
+		if (hasExpired()) {
+			return RenderStatus.EXPIRED;
+		}
+		return null;
+	}
+
+	/**
+	 * Passes the progress of a drawing on to the listener, if there is one.
+	 *
+	 * @param level
+	 *            the level being drawn
+	 * @param done
+	 *            the number of symbols drawn so far
+	 * @param total
+	 *            the number of symbols of the level
+	 */
+	void report(int level, long done, long total) {
+		if (listener != null) {
+			listener.progress(level, done, total);
+		}
+	}
+}
@@ -0,0 +1,465 @@
+package hr.fer.zemris.lsystems.impl;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counts the work done by the generations and the drawings of all the
+ * L-systems: the symbols expanded at each level, the commands executed of
+ * each type, the lines emitted, the deepest context stack and the time spent
+ * in each {@link Phase}. The counters are {@link LongAdder}s, and a drawing
+ * counts into local variables and adds them to the counters once it is done,
+ * so the counting costs next to nothing even when many systems are drawn at
+ * once. The parallel drawings count each task on its own and add the counts
+ * up as the lines are replayed.
+ * <p>
+ * The commands are counted as they are executed, so a drawing which skips
+ * parts of the generation counts only the parts it draws, and a compiled
+ * {@link Program} counts its instructions, each of which may stand for a
+ * run of fused commands. The lines are those of the draw commands and of
+ * the level-of-detail chords.
+ * </p>
+ * <p>
+ * The counters are shared by the whole JVM. They are read through
+ * {@link #snapshot()}, or through JMX, where they are registered under
+ * {@link #OBJECT_NAME}. If {@link #ENABLED} is set to false, the compiler
+ * leaves out all of the counting, and nothing is registered.
+ * </p>
+ *
+ * @author 0036502252
+ *
+ */
+public class RenderMetrics implements RenderMetricsMXBean {
+	/**
+	 * Whether the work is counted. Since this is a compile-time constant, the
+	 * counting is compiled out of the generations and the drawings when it is
+	 * false.
+	 */
+	public static final boolean ENABLED = true;
+	/**
+	 * The name the metrics are registered under with the platform MBean
+	 * server.
+	 */
+	public static final String OBJECT_NAME = "hr.fer.zemris.lsystems"
+			+ ":type=RenderMetrics";
+
+	/**
+	 * The metrics shared by all the L-systems.
+	 */
+	private static final RenderMetrics INSTANCE = new RenderMetrics();
+
+	static {
+		if (ENABLED) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(
+						INSTANCE, new ObjectName(OBJECT_NAME));
+			} catch (JMException | SecurityException ex) {
+				// the metrics can still be read through snapshots
+			}
+		}
+	}
+
+	/**
+	 * The phases whose runs are timed.
+	 *
+	 * @author 0036502252
+	 *
+	 */
+	public enum Phase {
+		/**
+		 * Rewriting the generations of {@link LSystemImpl#generate(int)}.
+		 */
+		GENERATE,
+		/**
+		 * Deriving and interpreting the symbols of a drawing.
+		 */
+		DRAW
+	}
+
+	/**
+	 * The numbers of symbols expanded, mapped to their levels.
+	 */
+	private ConcurrentHashMap<Integer, LongAdder> symbolsExpanded;
+	/**
+	 * The numbers of commands executed, mapped to the simple names of their
+	 * classes.
+	 */
+	private ConcurrentHashMap<String, LongAdder> commandsExecuted;
+	/**
+	 * The number of lines passed on to the painters.
+	 */
+	private LongAdder segmentsEmitted;
+	/**
+	 * The largest depth of a context stack.
+	 */
+	private LongAccumulator maxStackDepth;
+	/**
+	 * The numbers of runs of the phases.
+	 */
+	private EnumMap<Phase, LongAdder> phaseCounts;
+	/**
+	 * The times spent in the phases, in nanoseconds.
+	 */
+	private EnumMap<Phase, LongAdder> phaseNanos;
+
+	/**
+	 * Creates new metrics with all of the counters at zero.
+	 */
+	RenderMetrics() {
+		this.symbolsExpanded = new ConcurrentHashMap<>();
+		this.commandsExecuted = new ConcurrentHashMap<>();
+		this.segmentsEmitted = new LongAdder();
+		this.maxStackDepth = new LongAccumulator(Math::max, 0);
+		this.phaseCounts = new EnumMap<>(Phase.class);
+		this.phaseNanos = new EnumMap<>(Phase.class);
+		for (Phase phase : Phase.values()) {
+			phaseCounts.put(phase, new LongAdder());
+			phaseNanos.put(phase, new LongAdder());
+		}
+	}
+
+	/**
+	 * Gets the metrics shared by all the L-systems.
+	 *
+	 * @return the metrics
+	 */
+	public static RenderMetrics getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Counts the symbols expanded at a level.
+	 *
+	 * @param level
+	 *            the level the symbols are at
+	 * @param count
+	 *            the number of symbols
+	 */
+	void recordExpanded(int level, long count) {
+		symbolsExpanded.computeIfAbsent(level, key -> new LongAdder())
+				.add(count);
+	}
+
+	/**
+	 * Counts the commands executed, by the types of the commands.
+	 *
+	 * @param commands
+	 *            the commands, indexed by the codes of their symbols
+	 * @param executed
+	 *            the number of times each command was executed, indexed the
+	 *            same way
+	 */
+	void recordCommands(Command[] commands, long[] executed) {
+		for (int code = 0; code < executed.length; code++) {
+			if (executed[code] != 0) {
+				recordCommands(commands[code].getClass(), executed[code]);
+			}
+		}
+	}
+
+	/**
+	 * Counts the commands of a type which were executed.
+	 *
+	 * @param type
+	 *            the class of the commands
+	 * @param count
+	 *            the number of commands
+	 */
+	void recordCommands(Class<?> type, long count) {
+		if (count != 0) {
+			commandsExecuted.computeIfAbsent(type.getSimpleName(),
+					key -> new LongAdder()).add(count);
+		}
+	}
+
+	/**
+	 * Adds the numbers of commands executed by a part of a drawing to those
+	 * of the whole drawing.
+	 *
+	 * @param executed
+	 *            the numbers of commands executed by the drawing, indexed by
+	 *            the codes of their symbols
+	 * @param part
+	 *            the numbers of commands executed by the part, indexed the
+	 *            same way
+	 */
+	static void merge(long[] executed, long[] part) {
+		for (int code = 0; code < executed.length; code++) {
+			executed[code] += part[code];
+		}
+	}
+
+	/**
+	 * Counts the lines passed on to a painter.
+	 *
+	 * @param count
+	 *            the number of lines
+	 */
+	void recordSegments(long count) {
+		segmentsEmitted.add(count);
+	}
+
+	/**
+	 * Records the largest depth a context stack reached.
+	 *
+	 * @param depth
+	 *            the depth of the stack
+	 */
+	void recordStackDepth(int depth) {
+		maxStackDepth.accumulate(depth);
+	}
+
+	/**
+	 * Records a run of a phase.
+	 *
+	 * @param phase
+	 *            the phase which was run
+	 * @param nanos
+	 *            the time the run took, in nanoseconds
+	 */
+	void recordPhase(Phase phase, long nanos) {
+		phaseCounts.get(phase).increment();
+		phaseNanos.get(phase).add(nanos);
+	}
+
+	/**
+	 * Reads all of the counters.
+	 *
+	 * @return the values of the counters
+	 */
+	public Snapshot snapshot() {
+		return new Snapshot(getSymbolsExpanded(), getCommandsExecuted(),
+				getSegmentsEmitted(), getMaxStackDepth(), getPhaseCounts(),
+				getPhaseNanos());
+	}
+
+	@Override
+	public SortedMap<Integer, Long> getSymbolsExpanded() {
+		return sums(symbolsExpanded, level -> level);
+	}
+
+	@Override
+	public SortedMap<String, Long> getCommandsExecuted() {
+		return sums(commandsExecuted, name -> name);
+	}
+
+	@Override
+	public long getSegmentsEmitted() {
+		return segmentsEmitted.sum();
+	}
+
+	@Override
+	public long getMaxStackDepth() {
+		return maxStackDepth.get();
+	}
+
+	@Override
+	public SortedMap<String, Long> getPhaseCounts() {
+		return sums(phaseCounts, Phase::name);
+	}
+
+	@Override
+	public SortedMap<String, Long> getPhaseNanos() {
+		return sums(phaseNanos, Phase::name);
+	}
+
+	/**
+	 * Sets all of the counters back to zero. The runs which are still in
+	 * progress are counted once they are done.
+	 */
+	@Override
+	public void reset() {
+		symbolsExpanded.clear();
+		commandsExecuted.clear();
+		segmentsEmitted.reset();
+		maxStackDepth.reset();
+		for (Phase phase : Phase.values()) {
+			phaseCounts.get(phase).reset();
+			phaseNanos.get(phase).reset();
+		}
+	}
+
+	/**
+	 * Private utility method. Sums the counters of a map.
+	 *
+	 * @param counters
+	 *            the counters mapped to their keys
+	 * @param keys
+	 *            maps the keys of the counters to the keys of the sums
+	 * @return the sums of the counters
+	 */
+	private static <K, T extends Comparable<T>> SortedMap<T, Long> sums(
+			Map<K, LongAdder> counters, Function<K, T> keys) {
+		SortedMap<T, Long> sums = new TreeMap<>();
+		counters.forEach(
+				(key, counter) -> sums.put(keys.apply(key), counter.sum()));
+		return sums;
+	}
+
+	/**
+	 * The values of the counters, as they were read by
+	 * {@link RenderMetrics#snapshot()}.
+	 *
+	 * @author 0036502252
+	 *
+	 */
+	public static class Snapshot {
+		/**
+		 * The numbers of symbols expanded, mapped to their levels.
+		 */
+		private SortedMap<Integer, Long> symbolsExpanded;
+		/**
+		 * The numbers of commands executed, mapped to the simple names of
+		 * their classes.
+		 */
+		private SortedMap<String, Long> commandsExecuted;
+		/**
+		 * The number of lines passed on to the painters.
+		 */
+		private long segmentsEmitted;
+		/**
+		 * The largest depth of a context stack.
+		 */
+		private long maxStackDepth;
+		/**
+		 * The numbers of runs of the phases, mapped to their names.
+		 */
+		private SortedMap<String, Long> phaseCounts;
+		/**
+		 * The times spent in the phases, mapped to their names.
+		 */
+		private SortedMap<String, Long> phaseNanos;
+
+		/**
+		 * Creates a new snapshot.
+		 *
+		 * @param symbolsExpanded
+		 *            the numbers of symbols expanded, mapped to their levels
+		 * @param commandsExecuted
+		 *            the numbers of commands executed, mapped to the simple
+		 *            names of their classes
+		 * @param segmentsEmitted
+		 *            the number of lines passed on to the painters
+		 * @param maxStackDepth
+		 *            the largest depth of a context stack
+		 * @param phaseCounts
+		 *            the numbers of runs of the phases, mapped to their names
+		 * @param phaseNanos
+		 *            the times spent in the phases, mapped to their names
+		 */
+		private Snapshot(SortedMap<Integer, Long> symbolsExpanded,
+				SortedMap<String, Long> commandsExecuted,
+				long segmentsEmitted, long maxStackDepth,
+				SortedMap<String, Long> phaseCounts,
+				SortedMap<String, Long> phaseNanos) {
+			this.symbolsExpanded = Collections
+					.unmodifiableSortedMap(symbolsExpanded);
+			this.commandsExecuted = Collections
+					.unmodifiableSortedMap(commandsExecuted);
+			this.segmentsEmitted = segmentsEmitted;
+			this.maxStackDepth = maxStackDepth;
+			this.phaseCounts = Collections.unmodifiableSortedMap(phaseCounts);
+			this.phaseNanos = Collections.unmodifiableSortedMap(phaseNanos);
+		}
+
+		/**
+		 * Gets the number of symbols expanded at each level.
+		 *
+		 * @return the numbers of symbols mapped to their levels
+		 */
+		public SortedMap<Integer, Long> getSymbolsExpanded() {
+			return symbolsExpanded;
+		}
+
+		/**
+		 * Gets the number of symbols expanded at a level.
+		 *
+		 * @param level
+		 *            the level
+		 * @return the number of symbols
+		 */
+		public long getSymbolsExpanded(int level) {
+			return symbolsExpanded.getOrDefault(level, 0L);
+		}
+
+		/**
+		 * Gets the number of commands executed, for each type of command.
+		 *
+		 * @return the numbers of commands mapped to the simple names of their
+		 *         classes
+		 */
+		public SortedMap<String, Long> getCommandsExecuted() {
+			return commandsExecuted;
+		}
+
+		/**
+		 * Gets the number of commands of a type which were executed.
+		 *
+		 * @param type
+		 *            the class of the commands
+		 * @return the number of commands
+		 */
+		public long getCommandsExecuted(Class<? extends Command> type) {
+			return commandsExecuted.getOrDefault(type.getSimpleName(), 0L);
+		}
+
+		/**
+		 * Gets the number of lines passed on to the painters.
+		 *
+		 * @return the number of lines
+		 */
+		public long getSegmentsEmitted() {
+			return segmentsEmitted;
+		}
+
+		/**
+		 * Gets the largest number of states a context stack held.
+		 *
+		 * @return the largest depth of a context stack
+		 */
+		public long getMaxStackDepth() {
+			return maxStackDepth;
+		}
+
+		/**
+		 * Gets the number of runs of a phase.
+		 *
+		 * @param phase
+		 *            the phase
+		 * @return the number of runs
+		 */
+		public long getPhaseCount(Phase phase) {
+			return phaseCounts.getOrDefault(phase.name(), 0L);
+		}
+
+		/**
+		 * Gets the time spent in a phase.
+		 *
+		 * @param phase
+		 *            the phase
+		 * @return the time, in nanoseconds
+		 */
+		public long getPhaseNanos(Phase phase) {
+			return phaseNanos.getOrDefault(phase.name(), 0L);
+		}
+
+		@Override
+		public String toString() {
+			return "symbolsExpanded=" + symbolsExpanded + ", commandsExecuted="
+					+ commandsExecuted + ", segmentsEmitted=" + segmentsEmitted
+					+ ", maxStackDepth=" + maxStackDepth + ", phaseCounts="
+					+ phaseCounts + ", phaseNanos=" + phaseNanos;
+		}
+	}
+}
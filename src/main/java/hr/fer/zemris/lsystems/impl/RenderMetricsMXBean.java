@@ -0,0 +1,63 @@
+package hr.fer.zemris.lsystems.impl;
+
+import java.util.Map;
+
+/**
+ * The management interface the {@link RenderMetrics} are published through.
+ * Every getter reads the counters anew, so the values of different getters
+ * may belong to slightly different moments if the systems are being drawn
+ * meanwhile.
+ *
+ * @author 0036502252
+ *
+ */
+public interface RenderMetricsMXBean {
+
+	/**
+	 * Gets the number of symbols expanded at each level of the derivations.
+	 *
+	 * @return the numbers of symbols mapped to their levels
+	 */
+	Map<Integer, Long> getSymbolsExpanded();
+
+	/**
+	 * Gets the number of commands executed, for each type of command.
+	 *
+	 * @return the numbers of commands mapped to the simple names of their
+	 *         classes
+	 */
+	Map<String, Long> getCommandsExecuted();
+
+	/**
+	 * Gets the number of lines passed on to the painters.
+	 *
+	 * @return the number of lines
+	 */
+	long getSegmentsEmitted();
+
+	/**
+	 * Gets the largest number of states a context stack held.
+	 *
+	 * @return the largest depth of a context stack
+	 */
+	long getMaxStackDepth();
+
+	/**
+	 * Gets the number of times each phase was run.
+	 *
+	 * @return the numbers of runs mapped to the names of the phases
+	 */
+	Map<String, Long> getPhaseCounts();
+
+	/**
+	 * Gets the time spent in each phase, in nanoseconds.
+	 *
+	 * @return the times mapped to the names of the phases
+	 */
+	Map<String, Long> getPhaseNanos();
+
+	/**
+	 * Sets all of the counters back to zero.
+	 */
+	void reset();
+}
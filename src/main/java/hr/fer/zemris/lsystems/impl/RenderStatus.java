@@ -0,0 +1,22 @@
+package hr.fer.zemris.lsystems.impl;
+
+/**
+ * The way a progressive drawing ended.
+ *
+ * @author 0036502252
+ *
+ */
+public enum RenderStatus {
+	/**
+	 * Everything was drawn.
+	 */
+	COMPLETED,
+	/**
+	 * The drawing was cancelled before it was done.
+	 */
+	CANCELLED,
+	/**
+	 * The deadline passed before the drawing was done.
+	 */
+	EXPIRED
+}
@@ -0,0 +1,92 @@
+package hr.fer.zemris.lsystems.impl;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+import hr.fer.zemris.lsystems.Painter;
+
+/**
+ * A {@link Painter} which records the lines it is given, so they can later be
+ * replayed to another painter in the same order. Used by the parallel
+ * interpreters, whose tasks draw into buffers of their own.
+ *
+ * @author 0036502252
+ *
+ */
+class SegmentBuffer implements Painter {
+	/**
+	 * The coordinates of the lines, four for each line.
+	 */
+	private double[] coordinates = new double[256];
+	/**
+	 * The colors of the lines.
+	 */
+	private Color[] colors = new Color[64];
+	/**
+	 * The widths of the lines.
+	 */
+	private float[] sizes = new float[64];
+	/**
+	 * The number of recorded lines.
+	 */
+	private int size;
+
+	/**
+	 * Records the line.
+	 *
+	 * @param x0
+	 *            the x-coordinate of the start
+	 * @param y0
+	 *            the y-coordinate of the start
+	 * @param x1
+	 *            the x-coordinate of the end
+	 * @param y1
+	 *            the y-coordinate of the end
+	 * @param color
+	 *            the color of the line
+	 * @param size
+	 *            the width of the line
+	 */
+	@Override
+	public void drawLine(double x0, double y0, double x1, double y1,
+			Color color, float size) {
+		if (this.size == colors.length) {
+			coordinates = Arrays.copyOf(coordinates, 8 * this.size);
+			colors = Arrays.copyOf(colors, 2 * this.size);
+			sizes = Arrays.copyOf(sizes, 2 * this.size);
+		}
+		int index = 4 * this.size;
+		coordinates[index] = x0;
+		coordinates[index + 1] = y0;
+		coordinates[index + 2] = x1;
+		coordinates[index + 3] = y1;
+		colors[this.size] = color;
+		sizes[this.size] = size;
+		this.size++;
+	}
+
+	/**
+	 * Gets the number of recorded lines.
+	 *
+	 * @return the number of lines
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Draws the recorded lines with the given painter, in the order in which
+	 * they were recorded.
+	 *
+	 * @param painter
+	 *            the painter the lines are drawn with
+	 */
+	void replay(Painter painter) {
+		for (int i = 0; i < size; i++) {
+			int index = 4 * i;
+			painter.drawLine(coordinates[index], coordinates[index + 1],
+					coordinates[index + 2], coordinates[index + 3], colors[i],
+					sizes[i]);
+		}
+	}
+}
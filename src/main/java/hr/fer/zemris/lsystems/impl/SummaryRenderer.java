@@ -0,0 +1,351 @@
+package hr.fer.zemris.lsystems.impl;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+import hr.fer.zemris.lsystems.Painter;
+
+/**
+ * Draws a level by expanding the symbols recursively, letting the
+ * {@link SymbolSummaries summaries} of the symbols stand in for the
+ * expansions which need not be drawn. Before a symbol is expanded, the
+ * bounds of its expansion are placed at the turtle's state; if they miss the
+ * viewport, the expansion is not generated at all, and the turtle is moved,
+ * turned, scaled and colored by the net effect of the expansion instead. The
+ * work done is therefore proportional to the part of the drawing which is
+ * visible, rather than to the whole of it.
+ * <p>
+ * The expansion can also stop at a level of detail: an expansion whose
+ * bounds are smaller than a given size is not expanded either, but replaced
+ * by a single line from the turtle's position to the position the expansion
+ * ends at, or by nothing if the expansion ends where it starts. Since such
+ * expansions cover less than a pixel or so, the drawing looks the same, while
+ * the number of lines drops by orders of magnitude.
+ * </p>
+ * <p>
+ * The symbols which are expanded are interpreted by their own commands, so
+ * the visible lines are the same as those of the full drawing, although
+ * their coordinates may differ in the last few bits, since the state after a
+ * skipped expansion is computed through its summary. This holds for the
+ * detail as well, as long as no expansion is small enough to be replaced.
+ * </p>
+ *
+ * @author 0036502252
+ *
+ */
+class SummaryRenderer {
+	/**
+	 * The summaries of the symbols.
+	 */
+	private SymbolSummaries summaries;
+	/**
+	 * The commands, indexed by the codes of their symbols.
+	 */
+	private Command[] commands;
+	/**
+	 * The table of directions the quantized rotations turn through, or null.
+	 */
+	private DirectionTable directions;
+
+	/**
+	 * Creates a new renderer.
+	 *
+	 * @param summaries
+	 *            the summaries of the symbols
+	 * @param commands
+	 *            the commands, indexed by the codes of their symbols
+	 * @param directions
+	 *            the table of directions the quantized rotations turn
+	 *            through, or null
+	 */
+	SummaryRenderer(SymbolSummaries summaries, Command[] commands,
+			DirectionTable directions) {
+		this.summaries = summaries;
+		this.commands = commands;
+		this.directions = directions;
+	}
+
+	/**
+	 * Draws the part of a level which lies within the viewport, down to the
+	 * given level of detail. Lines partly or wholly outside of the viewport
+	 * may be drawn as well.
+	 *
+	 * @param axiom
+	 *            the codes of the axiom's symbols
+	 * @param level
+	 *            the level to be drawn
+	 * @param ctx
+	 *            the context holding the initial state
+	 * @param angle
+	 *            the initial direction of the turtle, in degrees
+	 * @param minX
+	 *            the smallest x-coordinate of the viewport
+	 * @param minY
+	 *            the smallest y-coordinate of the viewport
+	 * @param maxX
+	 *            the largest x-coordinate of the viewport
+	 * @param maxY
+	 *            the largest y-coordinate of the viewport
+	 * @param detailWidth
+	 *            the width below which an expansion is replaced by a line,
+	 *            if its height is also below the detail height
+	 * @param detailHeight
+	 *            the height below which an expansion is replaced by a line,
+	 *            if its width is also below the detail width
+	 * @param painter
+	 *            the painter used for line drawing
+	 * @param executed
+	 *            the numbers of commands executed, indexed by the codes of
+	 *            their symbols, which are increased by the drawing
+	 * @return the number of expansions which were replaced by a line
+	 * @throws IllegalStateException
+	 *             if the expansions cannot be summarized
+	 */
+	long draw(int[] axiom, int level, Context ctx, double angle, double minX,
+			double minY, double maxX, double maxY, double detailWidth,
+			double detailHeight, Painter painter, long[] executed) {
+		Traversal traversal = new Traversal(ctx, angle, minX, minY, maxX,
+				maxY, detailWidth, detailHeight, painter, executed);
+		for (int code : axiom) {
+			traversal.expand(code, level);
+		}
+		return traversal.chords;
+	}
+
+	/**
+	 * The state of a single drawing.
+	 *
+	 * @author 0036502252
+	 *
+	 */
+	private class Traversal {
+		/**
+		 * The context the symbols are interpreted in.
+		 */
+		private Context ctx;
+		/**
+		 * The painter used for line drawing.
+		 */
+		private Painter painter;
+		/**
+		 * The direction of the turtle, in degrees.
+		 */
+		private double angle;
+		/**
+		 * The directions of the pushed states, in degrees.
+		 */
+		private double[] angles;
+		/**
+		 * The number of pushed directions.
+		 */
+		private int depth;
+		/**
+		 * The smallest x-coordinate of the viewport.
+		 */
+		private double minX;
+		/**
+		 * The smallest y-coordinate of the viewport.
+		 */
+		private double minY;
+		/**
+		 * The largest x-coordinate of the viewport.
+		 */
+		private double maxX;
+		/**
+		 * The largest y-coordinate of the viewport.
+		 */
+		private double maxY;
+		/**
+		 * The width below which an expansion is replaced by a line.
+		 */
+		private double detailWidth;
+		/**
+		 * The height below which an expansion is replaced by a line.
+		 */
+		private double detailHeight;
+		/**
+		 * The numbers of commands executed, indexed by the codes of their
+		 * symbols.
+		 */
+		private long[] executed;
+		/**
+		 * The number of expansions replaced by a line.
+		 */
+		private long chords;
+
+		/**
+		 * Creates a new traversal.
+		 *
+		 * @param ctx
+		 *            the context holding the initial state
+		 * @param angle
+		 *            the initial direction of the turtle, in degrees
+		 * @param minX
+		 *            the smallest x-coordinate of the viewport
+		 * @param minY
+		 *            the smallest y-coordinate of the viewport
+		 * @param maxX
+		 *            the largest x-coordinate of the viewport
+		 * @param maxY
+		 *            the largest y-coordinate of the viewport
+		 * @param detailWidth
+		 *            the width below which an expansion is replaced by a line
+		 * @param detailHeight
+		 *            the height below which an expansion is replaced by a
+		 *            line
+		 * @param painter
+		 *            the painter used for line drawing
+		 * @param executed
+		 *            the numbers of commands executed, indexed by the codes
+		 *            of their symbols
+		 */
+		private Traversal(Context ctx, double angle, double minX, double minY,
+				double maxX, double maxY, double detailWidth,
+				double detailHeight, Painter painter, long[] executed) {
+			this.ctx = ctx;
+			this.angle = angle;
+			this.angles = new double[16];
+			this.minX = minX;
+			this.minY = minY;
+			this.maxX = maxX;
+			this.maxY = maxY;
+			this.detailWidth = detailWidth;
+			this.detailHeight = detailHeight;
+			this.painter = painter;
+			this.executed = executed;
+		}
+
+		/**
+		 * Draws the expansion of a symbol, moves past it if it is not visible,
+		 * or replaces it by a line if it is too small.
+		 *
+		 * @param code
+		 *            the code of the symbol
+		 * @param levels
+		 *            the number of levels the symbol is expanded for
+		 */
+		private void expand(int code, int levels) {
+			int[] production = summaries.productionOf(code);
+			if (levels <= 0 || production == null) {
+				interpret(code);
+				return;
+			}
+
+			SymbolSummaries.Summary summary = summaries.of(code, levels,
+					angle);
+			if (!isVisible(summary)) {
+				skip(summary);
+				return;
+			}
+			if (isDetail(summary)) {
+				TurtleState state = ctx.getCurrentState();
+				double x = state.getX();
+				double y = state.getY();
+				Color color = state.getDrawingColor();
+				skip(summary);
+				if (x != state.getX() || y != state.getY()) {
+					painter.drawLine(x, y, state.getX(), state.getY(), color,
+							1F);
+					chords++;
+				}
+				return;
+			}
+			for (int child : production) {
+				expand(child, levels - 1);
+			}
+		}
+
+		/**
+		 * Executes the command of a symbol which is not expanded.
+		 *
+		 * @param code
+		 *            the code of the symbol
+		 */
+		private void interpret(int code) {
+			Command command = commands[code];
+			if (command != null) {
+				command.execute(ctx, painter);
+				if (RenderMetrics.ENABLED) {
+					executed[code]++;
+				}
+			}
+			if (summaries.isPush(code, 0)) {
+				if (depth == angles.length) {
+					angles = Arrays.copyOf(angles, 2 * depth);
+				}
+				angles[depth++] = angle;
+			} else if (summaries.isPop(code, 0)) {
+				angle = angles[--depth];
+			} else {
+				angle += summaries.rotationOf(code);
+			}
+		}
+
+		/**
+		 * Checks whether an expansion starting at the turtle's state may draw
+		 * any lines within the viewport.
+		 *
+		 * @param summary
+		 *            the summary of the expansion
+		 * @return true if the expansion may be visible, false otherwise
+		 */
+		private boolean isVisible(SymbolSummaries.Summary summary) {
+			if (summary.isEmpty()) {
+				return false;
+			}
+			TurtleState state = ctx.getCurrentState();
+			double length = state.getUnitLength();
+			double x0 = state.getX() + length * summary.minX;
+			double x1 = state.getX() + length * summary.maxX;
+			double y0 = state.getY() + length * summary.minY;
+			double y1 = state.getY() + length * summary.maxY;
+			return Math.max(x0, x1) >= minX && Math.min(x0, x1) <= maxX
+					&& Math.max(y0, y1) >= minY && Math.min(y0, y1) <= maxY;
+		}
+
+		/**
+		 * Checks whether an expansion is smaller than the level of detail.
+		 *
+		 * @param summary
+		 *            the summary of the expansion
+		 * @return true if the expansion is to be replaced by a line, false
+		 *         otherwise
+		 */
+		private boolean isDetail(SymbolSummaries.Summary summary) {
+			double length = Math.abs(ctx.getCurrentState().getUnitLength());
+			return length * (summary.maxX - summary.minX) < detailWidth
+					&& length * (summary.maxY - summary.minY) < detailHeight;
+		}
+
+		/**
+		 * Applies the net effect of an expansion to the turtle's state,
+		 * without drawing anything.
+		 *
+		 * @param summary
+		 *            the summary of the expansion
+		 */
+		private void skip(SymbolSummaries.Summary summary) {
+			TurtleState state = ctx.getCurrentState();
+			double length = state.getUnitLength();
+			state.setPosition(state.getX() + length * summary.endX,
+					state.getY() + length * summary.endY);
+			state.setUnitLength(length * summary.scale);
+			if (summary.color != null) {
+				state.setDrawingColor(summary.color);
+			}
+			if (summary.rotation == 0) {
+				return;
+			}
+
+			angle += summary.rotation;
+			if (directions != null && state.getDirectionIndex() != -1) {
+				int index = directions.indexOf(angle);
+				state.setDirection(directions.getX(index),
+						directions.getY(index), index);
+			} else {
+				double radians = Math.toRadians(angle);
+				state.setDirection(Math.cos(radians), Math.sin(radians));
+			}
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package hr.fer.zemris.lsystems.impl;
+
+/**
+ * Reads the symbols of an L-system generation in order, one by one, from
+ * wherever the generation is kept.
+ *
+ * @author 0036502252
+ *
+ */
+public interface SymbolCursor {
+
+	/**
+	 * Gets the next symbol of the generation.
+	 *
+	 * @return the next symbol, or -1 if all the symbols have been read
+	 */
+	int next();
+}
@@ -0,0 +1,686 @@
+package hr.fer.zemris.lsystems.impl;
+
+import java.awt.Color;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import hr.fer.zemris.lsystems.impl.commands.ColorCommand;
+import hr.fer.zemris.lsystems.impl.commands.DrawCommand;
+import hr.fer.zemris.lsystems.impl.commands.PopCommand;
+import hr.fer.zemris.lsystems.impl.commands.PushCommand;
+import hr.fer.zemris.lsystems.impl.commands.RotateCommand;
+import hr.fer.zemris.lsystems.impl.commands.ScaleCommand;
+import hr.fer.zemris.lsystems.impl.commands.SkipCommand;
+
+/**
+ * A memoized table of what the expansions of the symbols do to the turtle.
+ * For a symbol expanded for a number of levels and a turtle starting at the
+ * origin, with a unit length of 1 and pointing at some angle, a
+ * {@link Summary} holds the bounds of the lines the expansion draws and the
+ * position, the direction, the unit length and the color the turtle ends up
+ * with.
+ * <p>
+ * The summary of a symbol with a production is composed from the summaries
+ * of the symbols of the production, expanded for one level less, so no
+ * expansion is ever generated. The summaries are kept for every direction a
+ * symbol is reached in, which keeps the bounds exact rather than merely
+ * conservative; since the directions of most systems are finitely many, the
+ * summaries of a level take time proportional to the size of the alphabet.
+ * Summaries can only be made of the built-in commands, and of productions
+ * which pop exactly the states they push.
+ * </p>
+ *
+ * @author 0036502252
+ *
+ */
+class SymbolSummaries {
+	/**
+	 * The kind of the symbols without a command.
+	 */
+	private static final int NONE = 0;
+	/**
+	 * The kind of the draw commands.
+	 */
+	private static final int DRAW = 1;
+	/**
+	 * The kind of the skip commands.
+	 */
+	private static final int SKIP = 2;
+	/**
+	 * The kind of the rotate commands.
+	 */
+	private static final int ROTATE = 3;
+	/**
+	 * The kind of the scale commands.
+	 */
+	private static final int SCALE = 4;
+	/**
+	 * The kind of the push commands.
+	 */
+	private static final int PUSH = 5;
+	/**
+	 * The kind of the pop commands.
+	 */
+	private static final int POP = 6;
+	/**
+	 * The kind of the color commands.
+	 */
+	private static final int COLOR = 7;
+	/**
+	 * The kind of the commands other than the built-in ones.
+	 */
+	private static final int CUSTOM = 8;
+	/**
+	 * The number of keys a degree of direction is divided into.
+	 */
+	private static final double KEYS_PER_DEGREE = 1e6;
+	/**
+	 * The number of bits the direction takes in a key.
+	 */
+	private static final int DIRECTION_BITS = 29;
+	/**
+	 * The number of bits the code takes in a key.
+	 */
+	private static final int CODE_BITS = 17;
+	/**
+	 * The largest number of levels a summary can be made for.
+	 */
+	static final int MAX_LEVELS = (1 << (63 - DIRECTION_BITS - CODE_BITS))
+			- 1;
+
+	/**
+	 * The alphabet whose codes index the tables.
+	 */
+	private Alphabet alphabet;
+	/**
+	 * The productions of the system as codes, indexed by the code of the
+	 * symbol they replace; null for symbols without a production.
+	 */
+	private int[][] productions;
+	/**
+	 * The kinds of the commands, indexed by the codes of their symbols.
+	 */
+	private int[] kinds;
+	/**
+	 * The steps of the moves, the angles of the rotations and the factors of
+	 * the scalings, indexed by the codes of their symbols.
+	 */
+	private double[] values;
+	/**
+	 * The colors of the colorings, indexed by the codes of their symbols.
+	 */
+	private Color[] colors;
+	/**
+	 * The summaries made so far.
+	 */
+	private Map<Long, Summary> summaries;
+
+	/**
+	 * What the expansion of a symbol or a word does to the turtle, relative
+	 * to a turtle at the origin with a unit length of 1. If the expansion
+	 * draws nothing, the minimums are infinitely large and the maximums
+	 * infinitely small.
+	 *
+	 * @author 0036502252
+	 *
+	 */
+	static class Summary {
+		/**
+		 * The smallest x-coordinate of the lines.
+		 */
+		double minX = Double.POSITIVE_INFINITY;
+		/**
+		 * The smallest y-coordinate of the lines.
+		 */
+		double minY = Double.POSITIVE_INFINITY;
+		/**
+		 * The largest x-coordinate of the lines.
+		 */
+		double maxX = Double.NEGATIVE_INFINITY;
+		/**
+		 * The largest y-coordinate of the lines.
+		 */
+		double maxY = Double.NEGATIVE_INFINITY;
+		/**
+		 * The x-coordinate the turtle ends up at.
+		 */
+		double endX;
+		/**
+		 * The y-coordinate the turtle ends up at.
+		 */
+		double endY;
+		/**
+		 * The angle the turtle is turned by, in degrees.
+		 */
+		double rotation;
+		/**
+		 * The factor the unit length is multiplied by.
+		 */
+		double scale = 1;
+		/**
+		 * The color the turtle ends up with, or null if it is not changed.
+		 */
+		Color color;
+
+		/**
+		 * Checks whether the expansion draws any lines.
+		 *
+		 * @return true if no lines are drawn, false otherwise
+		 */
+		boolean isEmpty() {
+			return minX > maxX;
+		}
+
+		/**
+		 * Extends the bounds to include the lines of another summary, drawn
+		 * by a turtle at the given position and with the given unit length.
+		 *
+		 * @param other
+		 *            the summary whose lines are included
+		 * @param x
+		 *            the x-coordinate the other expansion starts at
+		 * @param y
+		 *            the y-coordinate the other expansion starts at
+		 * @param m
+		 *            the unit length the other expansion starts with
+		 */
+		void include(Summary other, double x, double y, double m) {
+			if (other.isEmpty()) {
+				return;
+			}
+			double x0 = x + m * other.minX;
+			double x1 = x + m * other.maxX;
+			double y0 = y + m * other.minY;
+			double y1 = y + m * other.maxY;
+			minX = Math.min(minX, Math.min(x0, x1));
+			maxX = Math.max(maxX, Math.max(x0, x1));
+			minY = Math.min(minY, Math.min(y0, y1));
+			maxY = Math.max(maxY, Math.max(y0, y1));
+		}
+	}
+
+	/**
+	 * Creates a new table for the given system.
+	 *
+	 * @param alphabet
+	 *            the alphabet of the system
+	 * @param productions
+	 *            the productions of the system
+	 * @param commands
+	 *            the commands, indexed by the codes of their symbols
+	 */
+	SymbolSummaries(Alphabet alphabet, CharTable<char[]> productions,
+			Command[] commands) {
+		this.alphabet = alphabet;
+		this.productions = alphabet.encode(productions);
+		this.kinds = new int[commands.length];
+		this.values = new double[commands.length];
+		this.colors = new Color[commands.length];
+		this.summaries = new HashMap<>();
+
+		for (int code = 0; code < commands.length; code++) {
+			Command command = commands[code];
+			Class<?> type = command == null ? null : command.getClass();
+			if (type == null) {
+				kinds[code] = NONE;
+			} else if (type == ColorCommand.class) {
+				kinds[code] = COLOR;
+				colors[code] = ((ColorCommand) command).getColor();
+			} else if (type == DrawCommand.class) {
+				kinds[code] = DRAW;
+				values[code] = ((DrawCommand) command).getStep();
+			} else if (type == SkipCommand.class) {
+				kinds[code] = SKIP;
+				values[code] = ((SkipCommand) command).getStep();
+			} else if (type == RotateCommand.class) {
+				kinds[code] = ROTATE;
+				values[code] = ((RotateCommand) command).getAngle();
+			} else if (type == ScaleCommand.class) {
+				kinds[code] = SCALE;
+				values[code] = ((ScaleCommand) command).getFactor();
+			} else if (type == PushCommand.class) {
+				kinds[code] = PUSH;
+			} else if (type == PopCommand.class) {
+				kinds[code] = POP;
+			} else {
+				kinds[code] = CUSTOM;
+			}
+		}
+	}
+
+	/**
+	 * Gets the summary of a symbol's expansion.
+	 *
+	 * @param code
+	 *            the code of the symbol
+	 * @param levels
+	 *            the number of levels the symbol is expanded for; negative
+	 *            levels are treated as level 0
+	 * @param angle
+	 *            the direction the turtle starts in, in degrees
+	 * @return the summary, which must not be modified
+	 * @throws IllegalArgumentException
+	 *             if the number of levels is larger than {@link #MAX_LEVELS}
+	 * @throws IllegalStateException
+	 *             if the expansion contains a command other than the built-in
+	 *             ones, or if a production does not pop exactly the states it
+	 *             pushes
+	 */
+	synchronized Summary of(int code, int levels, double angle) {
+		if (levels > MAX_LEVELS)
+			throw new IllegalArgumentException("Cannot summarize more than "
+					+ MAX_LEVELS + " levels!");
+		levels = Math.max(levels, 0);
+		double direction = normalize(angle);
+		Summary summary = lookup(code, levels, direction);
+		return summary != null ? summary
+				: compose(expansionOf(code, levels, direction));
+	}
+
+	/**
+	 * Gets the summary of a word's expansion. Unlike the productions, the
+	 * word may leave states pushed.
+	 *
+	 * @param word
+	 *            the codes of the word's symbols
+	 * @param levels
+	 *            the number of levels the word is expanded for; negative
+	 *            levels are treated as level 0
+	 * @param angle
+	 *            the direction the turtle starts in, in degrees
+	 * @return the summary
+	 * @throws IllegalArgumentException
+	 *             if the number of levels is larger than {@link #MAX_LEVELS}
+	 * @throws IllegalStateException
+	 *             if the expansion contains a command other than the built-in
+	 *             ones, if the word pops more states than it pushes, or if a
+	 *             production does not pop exactly the states it pushes
+	 */
+	synchronized Summary of(int[] word, int levels, double angle) {
+		if (levels > MAX_LEVELS)
+			throw new IllegalArgumentException("Cannot summarize more than "
+					+ MAX_LEVELS + " levels!");
+		return compose(
+				new Composition(word, Math.max(levels, 0), angle, false, -1));
+	}
+
+	/**
+	 * Checks whether the expansion of a symbol is a single push.
+	 *
+	 * @param code
+	 *            the code of the symbol
+	 * @param levels
+	 *            the number of levels the symbol is expanded for
+	 * @return true if the expansion pushes a state and does nothing else
+	 */
+	boolean isPush(int code, int levels) {
+		return kinds[code] == PUSH
+				&& (levels == 0 || productions[code] == null);
+	}
+
+	/**
+	 * Checks whether the expansion of a symbol is a single pop.
+	 *
+	 * @param code
+	 *            the code of the symbol
+	 * @param levels
+	 *            the number of levels the symbol is expanded for
+	 * @return true if the expansion pops a state and does nothing else
+	 */
+	boolean isPop(int code, int levels) {
+		return kinds[code] == POP
+				&& (levels == 0 || productions[code] == null);
+	}
+
+	/**
+	 * Gets the angle a symbol's command turns the turtle by.
+	 *
+	 * @param code
+	 *            the code of the symbol
+	 * @return the angle of the rotation, in degrees, or 0 if the command is
+	 *         not a rotation
+	 */
+	double rotationOf(int code) {
+		return kinds[code] == ROTATE ? values[code] : 0;
+	}
+
+	/**
+	 * Gets the production of a symbol.
+	 *
+	 * @param code
+	 *            the code of the symbol
+	 * @return the codes of the production's symbols, which must not be
+	 *         modified, or null if the symbol has no production
+	 */
+	int[] productionOf(int code) {
+		return productions[code];
+	}
+
+	/**
+	 * Private utility method. Makes the summary of a symbol which is not
+	 * expanded.
+	 *
+	 * @param code
+	 *            the code of the symbol
+	 * @param angle
+	 *            the direction the turtle starts in, in degrees
+	 * @return the summary
+	 * @throws IllegalStateException
+	 *             if the symbol's command is not one of the built-in ones
+	 */
+	private Summary primitive(int code, double angle) {
+		Summary summary = new Summary();
+		switch (kinds[code]) {
+		case DRAW:
+		case SKIP:
+			double radians = Math.toRadians(angle);
+			summary.endX = values[code] * Math.cos(radians);
+			summary.endY = values[code] * Math.sin(radians);
+			if (kinds[code] == DRAW) {
+				summary.minX = Math.min(0, summary.endX);
+				summary.maxX = Math.max(0, summary.endX);
+				summary.minY = Math.min(0, summary.endY);
+				summary.maxY = Math.max(0, summary.endY);
+			}
+			break;
+		case ROTATE:
+			summary.rotation = values[code];
+			break;
+		case SCALE:
+			summary.scale = values[code];
+			break;
+		case COLOR:
+			summary.color = colors[code];
+			break;
+		case CUSTOM:
+			throw new IllegalStateException("The command of the symbol '"
+					+ alphabet.symbolOf(code) + "' cannot be summarized!");
+		default:
+			break;
+		}
+		return summary;
+	}
+
+	/**
+	 * Private utility method. Brings a direction into the range from 0 to
+	 * 360 degrees.
+	 *
+	 * @param angle
+	 *            the direction, in degrees
+	 * @return the same direction, at least 0 and less than 360 degrees
+	 */
+	private static double normalize(double angle) {
+		double direction = angle % 360;
+		return direction < 0 ? direction + 360 : direction;
+	}
+
+	/**
+	 * Private utility method. Makes the key of a symbol's summary.
+	 *
+	 * @param code
+	 *            the code of the symbol
+	 * @param levels
+	 *            the number of levels the symbol is expanded for, which is 0
+	 *            for symbols without a production
+	 * @param direction
+	 *            the normalized direction the turtle starts in, in degrees
+	 * @return the key
+	 */
+	private static long keyOf(int code, int levels, double direction) {
+		return ((long) levels << (DIRECTION_BITS + CODE_BITS))
+				| ((long) code << DIRECTION_BITS)
+				| (Math.round(direction * KEYS_PER_DEGREE)
+						% Math.round(360 * KEYS_PER_DEGREE));
+	}
+
+	/**
+	 * Private utility method. Gets the summary of a symbol's expansion if it
+	 * has been made, or if it can be made without expanding the symbol.
+	 *
+	 * @param code
+	 *            the code of the symbol
+	 * @param levels
+	 *            the number of levels the symbol is expanded for
+	 * @param direction
+	 *            the normalized direction the turtle starts in, in degrees
+	 * @return the summary, or null if it must be composed from the summaries
+	 *         of the symbol's production
+	 * @throws IllegalStateException
+	 *             if the symbol's command is not one of the built-in ones
+	 */
+	private Summary lookup(int code, int levels, double direction) {
+		if (productions[code] == null) {
+			levels = 0;
+		}
+		long key = keyOf(code, levels, direction);
+		Summary summary = summaries.get(key);
+		if (summary == null && levels == 0) {
+			summary = primitive(code, direction);
+			summaries.put(key, summary);
+		}
+		return summary;
+	}
+
+	/**
+	 * Private utility method. Starts the composition of a symbol's expansion
+	 * from the summaries of its production.
+	 *
+	 * @param code
+	 *            the code of the symbol, which must have a production
+	 * @param levels
+	 *            the number of levels the symbol is expanded for, at least 1
+	 * @param direction
+	 *            the normalized direction the turtle starts in, in degrees
+	 * @return the composition, which memoizes the summary once it is done
+	 */
+	private Composition expansionOf(int code, int levels, double direction) {
+		return new Composition(productions[code], levels - 1, direction, true,
+				keyOf(code, levels, direction));
+	}
+
+	/**
+	 * Private utility method. Runs a composition to its end. The summaries of
+	 * the symbols it meets are memoized bottom-up, from an explicit stack of
+	 * pending compositions rather than by recursion, so the number of levels
+	 * is not limited by the depth of the call stack.
+	 *
+	 * @param root
+	 *            the composition to be run
+	 * @return the summary it makes
+	 * @throws IllegalStateException
+	 *             if the expansion contains a command other than the built-in
+	 *             ones, or if a word does not pop exactly the states it must
+	 */
+	private Summary compose(Composition root) {
+		Deque<Composition> pending = new ArrayDeque<>();
+		pending.push(root);
+		while (true) {
+			Composition composition = pending.peek();
+			Composition missing = composition.advance();
+			if (missing != null) {
+				pending.push(missing);
+				continue;
+			}
+			pending.pop();
+			Summary summary = composition.finish();
+			if (pending.isEmpty()) {
+				return summary;
+			}
+		}
+	}
+
+	/**
+	 * The summary of a word's expansion, made from the summaries of its
+	 * symbols. The composition walks the word until it meets a symbol whose
+	 * summary has yet to be made, and resumes where it stopped once it has.
+	 *
+	 * @author 0036502252
+	 *
+	 */
+	private class Composition {
+		/**
+		 * The codes of the word's symbols.
+		 */
+		private int[] word;
+		/**
+		 * The number of levels the symbols are expanded for.
+		 */
+		private int levels;
+		/**
+		 * The direction the turtle starts in, in degrees.
+		 */
+		private double angle;
+		/**
+		 * Whether the word must pop all the states it pushes.
+		 */
+		private boolean balanced;
+		/**
+		 * The key the summary is memoized under, or -1 if it is not.
+		 */
+		private long key;
+		/**
+		 * The index of the next symbol.
+		 */
+		private int index;
+		/**
+		 * The summary being made.
+		 */
+		private Summary summary = new Summary();
+		/**
+		 * The x-coordinate of the turtle.
+		 */
+		private double x;
+		/**
+		 * The y-coordinate of the turtle.
+		 */
+		private double y;
+		/**
+		 * The direction of the turtle, in degrees.
+		 */
+		private double direction;
+		/**
+		 * The unit length of the turtle.
+		 */
+		private double m = 1;
+		/**
+		 * The last color set, or null.
+		 */
+		private Color color;
+		/**
+		 * The positions, directions and unit lengths of the pushed states.
+		 */
+		private double[] stack = new double[16];
+		/**
+		 * The colors of the pushed states.
+		 */
+		private Color[] colorStack = new Color[4];
+		/**
+		 * The number of values on the stack.
+		 */
+		private int depth;
+
+		/**
+		 * Creates a new composition.
+		 *
+		 * @param word
+		 *            the codes of the word's symbols
+		 * @param levels
+		 *            the number of levels the symbols are expanded for
+		 * @param angle
+		 *            the direction the turtle starts in, in degrees
+		 * @param balanced
+		 *            whether the word must pop all the states it pushes
+		 * @param key
+		 *            the key the summary is memoized under, or -1 if it is not
+		 */
+		private Composition(int[] word, int levels, double angle,
+				boolean balanced, long key) {
+			this.word = word;
+			this.levels = levels;
+			this.angle = angle;
+			this.balanced = balanced;
+			this.key = key;
+			this.direction = angle;
+		}
+
+		/**
+		 * Includes the summaries of the symbols, until the end of the word or
+		 * a symbol whose summary has yet to be made.
+		 *
+		 * @return the composition of the symbol whose summary has yet to be
+		 *         made, or null if the end of the word is reached
+		 * @throws IllegalStateException
+		 *             if the word pops more states than it pushes, or if a
+		 *             symbol's command is not one of the built-in ones
+		 */
+		private Composition advance() {
+			for (; index < word.length; index++) {
+				int code = word[index];
+				if (isPush(code, levels)) {
+					if (depth + 4 > stack.length) {
+						stack = Arrays.copyOf(stack, 2 * stack.length);
+					}
+					if (depth / 4 == colorStack.length) {
+						colorStack = Arrays.copyOf(colorStack, 2 * depth / 4);
+					}
+					colorStack[depth / 4] = color;
+					stack[depth++] = x;
+					stack[depth++] = y;
+					stack[depth++] = direction;
+					stack[depth++] = m;
+				} else if (isPop(code, levels)) {
+					if (depth == 0)
+						throw new IllegalStateException(
+								"The system pops more states than it pushes!");
+					m = stack[--depth];
+					direction = stack[--depth];
+					y = stack[--depth];
+					x = stack[--depth];
+					color = colorStack[depth / 4];
+				} else {
+					double start = normalize(direction);
+					Summary child = lookup(code, levels, start);
+					if (child == null) {
+						return expansionOf(code, levels, start);
+					}
+					summary.include(child, x, y, m);
+					x += m * child.endX;
+					y += m * child.endY;
+					direction += child.rotation;
+					m *= child.scale;
+					if (child.color != null) {
+						color = child.color;
+					}
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Finishes the summary once the end of the word is reached, and
+		 * memoizes it.
+		 *
+		 * @return the summary
+		 * @throws IllegalStateException
+		 *             if the word leaves states pushed although it must not
+		 */
+		private Summary finish() {
+			if (balanced && depth != 0)
+				throw new IllegalStateException(
+						"A production leaves states pushed!");
+
+			summary.endX = x;
+			summary.endY = y;
+			summary.rotation = direction - angle;
+			summary.scale = m;
+			summary.color = color;
+			if (key != -1) {
+				summaries.put(key, summary);
+			}
+			return summary;
+		}
+	}
+}
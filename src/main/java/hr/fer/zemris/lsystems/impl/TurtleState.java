@@ -6,19 +6,34 @@ import hr.fer.zemris.math.Vector2D;
 
 /**
  * Represents the state of a turtle used for fractal drawing. The turtle has its
- * position, orientation, drawing color and step. 
+ * position, orientation, drawing color and step. The position and orientation
+ * are kept as primitive components, which the commands modify in place, so
+ * moving or turning the turtle creates no objects.
  * @author 0036502252
  *
  */
 public class TurtleState {
 	/**
-	 * The current position of the turtle.
+	 * The x-component of the turtle's current position.
 	 */
-	private Vector2D currentPosition;
+	private double x;
 	/**
-	 * The direction in which the turtle is pointing. 
+	 * The y-component of the turtle's current position.
 	 */
-	private Vector2D direction;
+	private double y;
+	/**
+	 * The x-component of the direction in which the turtle is pointing.
+	 */
+	private double directionX;
+	/**
+	 * The y-component of the direction in which the turtle is pointing.
+	 */
+	private double directionY;
+	/**
+	 * The index of the direction in the system's {@link DirectionTable}, or
+	 * -1 if the direction is not taken from a table.
+	 */
+	private int directionIndex;
 	/**
 	 * The color the turtle uses to draw lines. 
 	 */
@@ -38,34 +53,95 @@ public class TurtleState {
 	public TurtleState(Vector2D currentPosition, Vector2D direction,
 			Color drawingColor, double unitLength) {
 		super();
-		this.currentPosition = currentPosition.copy();
-		this.direction = direction.normalize();
+		Vector2D normalized = direction.normalize();
+		this.x = currentPosition.getX();
+		this.y = currentPosition.getY();
+		this.directionX = normalized.getX();
+		this.directionY = normalized.getY();
+		this.directionIndex = -1;
 		this.drawingColor = drawingColor;
 		this.unitLength = unitLength;
 	}
+
+	/**
+	 * Private constructor which copies the given state.
+	 * @param other the state to be copied
+	 */
+	private TurtleState(TurtleState other) {
+		this.x = other.x;
+		this.y = other.y;
+		this.directionX = other.directionX;
+		this.directionY = other.directionY;
+		this.directionIndex = other.directionIndex;
+		this.drawingColor = other.drawingColor;
+		this.unitLength = other.unitLength;
+	}
 	
 	/**
 	 * Creates a copy of this {@link TurtleState}.
 	 * @return the copy of this state
 	 */
 	public TurtleState copy() {
-		return new TurtleState(currentPosition, direction, drawingColor, unitLength);
+		return new TurtleState(this);
 	}
 	
 	/**
-	 * Gets the turtle's current position vector.
+	 * Gets the turtle's current position vector. The vector is a copy, so
+	 * modifying it does not move the turtle.
 	 * @return the turtle's currentPosition 
 	 */
 	public Vector2D getCurrentPosition() {
-		return currentPosition;
+		return new Vector2D(x, y);
 	}
 
 	/**
-	 * Gets the turtle's current directional vector.
+	 * Gets the turtle's current directional vector. The vector is a copy, so
+	 * modifying it does not turn the turtle.
 	 * @return the turtle's currentDirection
 	 */
 	public Vector2D getDirection() {
-		return direction;
+		return new Vector2D(directionX, directionY);
+	}
+
+	/**
+	 * Gets the x-component of the turtle's current position.
+	 * @return the x-component of the position
+	 */
+	public double getX() {
+		return x;
+	}
+
+	/**
+	 * Gets the y-component of the turtle's current position.
+	 * @return the y-component of the position
+	 */
+	public double getY() {
+		return y;
+	}
+
+	/**
+	 * Gets the x-component of the turtle's current direction.
+	 * @return the x-component of the direction
+	 */
+	public double getDirectionX() {
+		return directionX;
+	}
+
+	/**
+	 * Gets the y-component of the turtle's current direction.
+	 * @return the y-component of the direction
+	 */
+	public double getDirectionY() {
+		return directionY;
+	}
+	
+	/**
+	 * Gets the index of the turtle's direction in the system's
+	 * {@link DirectionTable}.
+	 * @return the index of the direction, or -1 if it is not in a table
+	 */
+	public int getDirectionIndex() {
+		return directionIndex;
 	}
 	
 	/**
@@ -105,7 +181,17 @@ public class TurtleState {
 	 * @param vector the currentPosition to set
 	 */
 	public void setPosition(Vector2D vector) {
-		this.currentPosition = vector;
+		setPosition(vector.getX(), vector.getY());
+	}
+
+	/**
+	 * Sets the components of the turtle's position.
+	 * @param x the x-component of the position
+	 * @param y the y-component of the position
+	 */
+	public void setPosition(double x, double y) {
+		this.x = x;
+		this.y = y;
 	}
 	
 	/**
@@ -113,7 +199,31 @@ public class TurtleState {
 	 * @param vector the direction to set
 	 */
 	public void setDirection(Vector2D vector) {
-		this.direction = vector;
+		setDirection(vector.getX(), vector.getY());
+	}
+
+	/**
+	 * Sets the components of the turtle's direction. The direction is
+	 * expected to be normalized.
+	 * @param directionX the x-component of the direction
+	 * @param directionY the y-component of the direction
+	 */
+	public void setDirection(double directionX, double directionY) {
+		setDirection(directionX, directionY, -1);
+	}
+
+	/**
+	 * Sets the components of the turtle's direction, along with the index of
+	 * the direction in the system's {@link DirectionTable}.
+	 * @param directionX the x-component of the direction
+	 * @param directionY the y-component of the direction
+	 * @param directionIndex the index of the direction, or -1 if none
+	 */
+	public void setDirection(double directionX, double directionY,
+			int directionIndex) {
+		this.directionX = directionX;
+		this.directionY = directionY;
+		this.directionIndex = directionIndex;
 	}
 	
 }
@@ -28,6 +28,15 @@ public class ColorCommand implements Command {
 		this.color = color;
 	}
 
+	/**
+	 * Gets the color the command sets.
+	 * 
+	 * @return the color
+	 */
+	public Color getColor() {
+		return color;
+	}
+
 	/**
 	 * Sets the drawing color of the turtle's current state.
 	 * 
@@ -3,7 +3,7 @@ package hr.fer.zemris.lsystems.impl.commands;
 import hr.fer.zemris.lsystems.Painter;
 import hr.fer.zemris.lsystems.impl.Command;
 import hr.fer.zemris.lsystems.impl.Context;
-import hr.fer.zemris.math.Vector2D;
+import hr.fer.zemris.lsystems.impl.TurtleState;
 
 /**
  * Represents a drawing command, in which the turtle moves from one point to
@@ -28,6 +28,15 @@ public class DrawCommand implements Command {
 	public DrawCommand(double step) {
 		this.step = step;
 	}
+
+	/**
+	 * Gets the step by which the command moves the turtle.
+	 * 
+	 * @return the step
+	 */
+	public double getStep() {
+		return step;
+	}
 	
 	/**
 	 * Moves the turtle from one point to another. The second point is
@@ -41,19 +50,20 @@ public class DrawCommand implements Command {
 	 */
 	@Override
 	public void execute(Context ctx, Painter painter) {
-		double x = ctx.getCurrentState().getCurrentPosition().getX();
-		double y = ctx.getCurrentState().getCurrentPosition().getY();
-		double scale = ctx.getCurrentState().getUnitLength();
+		TurtleState state = ctx.getCurrentState();
+		double x = state.getX();
+		double y = state.getY();
+		double scale = state.getUnitLength();
 
-		double xDir = ctx.getCurrentState().getDirection().getX();
-		double yDir = ctx.getCurrentState().getDirection().getY();
+		double xDir = state.getDirectionX();
+		double yDir = state.getDirectionY();
 
 		double newX = x + xDir * step * scale;
 		double newY = y + yDir * step * scale;
 
 		painter.drawLine(x, y, newX, newY,
-				ctx.getCurrentState().getDrawingColor(), 1F);
+				state.getDrawingColor(), 1F);
 
-		ctx.getCurrentState().setPosition(new Vector2D(newX, newY));
+		state.setPosition(newX, newY);
 	}
 }
@@ -15,7 +15,8 @@ import hr.fer.zemris.lsystems.impl.TurtleState;
 public class PushCommand implements Command {
 
 	/**
-	 * Pushes a {@link TurtleState} on the context's stack.
+	 * Pushes a copy of the current {@link TurtleState} on the context's
+	 * stack.
 	 * 
 	 * @param ctx
 	 *            the turtle's current context
@@ -24,7 +25,6 @@ public class PushCommand implements Command {
 	 */
 	@Override
 	public void execute(Context ctx, Painter painter) {
-		TurtleState state = ctx.getCurrentState().copy();
-		ctx.pushState(state);
+		ctx.pushState();
 	}
 }
\ No newline at end of file
@@ -3,12 +3,15 @@ package hr.fer.zemris.lsystems.impl.commands;
 import hr.fer.zemris.lsystems.Painter;
 import hr.fer.zemris.lsystems.impl.Command;
 import hr.fer.zemris.lsystems.impl.Context;
+import hr.fer.zemris.lsystems.impl.DirectionTable;
 import hr.fer.zemris.lsystems.impl.TurtleState;
-import hr.fer.zemris.math.Vector2D;
 
 /**
  * Represents a command which rotates the {@link TurtleState}'s directional
- * vector by the given angle.
+ * vector by the given angle. The sine and cosine of the angle are computed
+ * once, when the command is created. A command quantized to a
+ * {@link DirectionTable} moves the turtle's direction index by a fixed number
+ * of steps instead, as long as the turtle's direction is in the table.
  * 
  * @author 0036502252
  *
@@ -18,6 +21,23 @@ public class RotateCommand implements Command {
 	 * The angle used for rotation, in degrees.
 	 */
 	private double angle;
+	/**
+	 * The cosine of the angle.
+	 */
+	private double cos;
+	/**
+	 * The sine of the angle.
+	 */
+	private double sin;
+	/**
+	 * The table of directions the turtle turns through, or null if the
+	 * command is not quantized.
+	 */
+	private DirectionTable directions;
+	/**
+	 * The number of the table's directions the turtle is turned by.
+	 */
+	private int steps;
 
 	/**
 	 * Creates a new {@link RotateCommand}.
@@ -26,7 +46,53 @@ public class RotateCommand implements Command {
 	 *            the angle to be used by the command, in degrees.
 	 */
 	public RotateCommand(double angle) {
+		double radians = Math.toRadians(angle);
 		this.angle = angle;
+		this.cos = Math.cos(radians);
+		this.sin = Math.sin(radians);
+	}
+
+	/**
+	 * Creates a copy of this command which turns the turtle through the given
+	 * table of directions.
+	 * 
+	 * @param directions
+	 *            the table, which must contain the command's angle
+	 * @return the quantized command
+	 */
+	public RotateCommand quantized(DirectionTable directions) {
+		RotateCommand command = new RotateCommand(angle);
+		command.directions = directions;
+		command.steps = directions.indexOf(angle);
+		return command;
+	}
+
+	/**
+	 * Gets the angle used for rotation.
+	 * 
+	 * @return the angle, in degrees
+	 */
+	public double getAngle() {
+		return angle;
+	}
+
+	/**
+	 * Gets the table of directions the command turns the turtle through.
+	 * 
+	 * @return the table, or null if the command is not quantized
+	 */
+	public DirectionTable getDirections() {
+		return directions;
+	}
+
+	/**
+	 * Gets the number of the table's directions the command turns the turtle
+	 * by.
+	 * 
+	 * @return the number of steps, or 0 if the command is not quantized
+	 */
+	public int getSteps() {
+		return steps;
 	}
 
 	/**
@@ -36,8 +102,21 @@ public class RotateCommand implements Command {
 	 */
 	@Override
 	public void execute(Context ctx, Painter painter) {
-		Vector2D vector = ctx.getCurrentState().getDirection().rotated(angle)
-				.normalize();
-		ctx.getCurrentState().setDirection(vector);
+		TurtleState state = ctx.getCurrentState();
+		int index = state.getDirectionIndex();
+		if (directions != null && index != -1) {
+			index += steps;
+			if (index >= directions.size()) {
+				index -= directions.size();
+			}
+			state.setDirection(directions.getX(index), directions.getY(index),
+					index);
+			return;
+		}
+
+		double x = state.getDirectionX() * cos - state.getDirectionY() * sin;
+		double y = state.getDirectionX() * sin + state.getDirectionY() * cos;
+		double length = Math.sqrt(x * x + y * y);
+		state.setDirection(x / length, y / length);
 	}
 }
@@ -26,6 +26,15 @@ public class ScaleCommand implements Command {
 		this.factor = factor;
 	}
 
+	/**
+	 * Gets the factor by which the command scales the unit length.
+	 * 
+	 * @return the factor
+	 */
+	public double getFactor() {
+		return factor;
+	}
+
 	/**
 	 * Executes the {@link ScaleCommand}. Scales the turtle's unit length using
 	 * the scale factor given by the command.
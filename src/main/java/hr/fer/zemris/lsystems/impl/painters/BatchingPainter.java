@@ -0,0 +1,351 @@
+package hr.fer.zemris.lsystems.impl.painters;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+import hr.fer.zemris.lsystems.Painter;
+
+/**
+ * A {@link Painter} which buffers the lines it is given instead of drawing
+ * them one by one. The lines are grouped by their color and width and stored
+ * in primitive float arrays. A line which starts where the previous line of
+ * its group ended extends that line's polyline, and if it also continues in
+ * the same direction, it merely moves the polyline's last point.
+ * <p>
+ * The buffered lines are drawn by the delegate on {@link #flush()}, which is
+ * also called whenever the buffer fills up. A {@link BulkPainter} delegate
+ * receives each group as a single batch of polylines; any other painter
+ * receives the merged lines one by one. The groups are drawn in the order in
+ * which their styles first appeared, so where lines of different styles
+ * overlap, the order in which they are drawn may change.
+ * </p>
+ *
+ * @author 0036502252
+ *
+ */
+public class BatchingPainter implements Painter {
+	/**
+	 * The default number of points buffered before the painter is flushed.
+	 */
+	public static final int DEFAULT_CAPACITY = 1 << 16;
+	/**
+	 * The largest sine of the angle between two lines which are still
+	 * considered collinear.
+	 */
+	private static final double COLLINEARITY_TOLERANCE = 1E-6;
+
+	/**
+	 * The painter the batches are drawn with.
+	 */
+	private Painter delegate;
+	/**
+	 * The number of points buffered before the painter is flushed.
+	 */
+	private int capacity;
+	/**
+	 * The groups of lines, one for each style.
+	 */
+	private Group[] groups;
+	/**
+	 * The number of groups in use.
+	 */
+	private int groupCount;
+	/**
+	 * The group the last line was added to.
+	 */
+	private Group last;
+	/**
+	 * The number of points buffered in all the groups.
+	 */
+	private int buffered;
+
+	/**
+	 * The lines of a single color and width.
+	 *
+	 * @author 0036502252
+	 *
+	 */
+	private static class Group {
+		/**
+		 * The color of the lines.
+		 */
+		private Color color;
+		/**
+		 * The width of the lines.
+		 */
+		private float size;
+		/**
+		 * The points of the polylines, as pairs of coordinates.
+		 */
+		private float[] coordinates = new float[64];
+		/**
+		 * The number of points in each of the polylines.
+		 */
+		private int[] lengths = new int[8];
+		/**
+		 * The number of buffered points.
+		 */
+		private int points;
+		/**
+		 * The number of buffered polylines.
+		 */
+		private int polylines;
+
+		/**
+		 * Creates a new, empty group.
+		 *
+		 * @param color
+		 *            the color of the lines
+		 * @param size
+		 *            the width of the lines
+		 */
+		private Group(Color color, float size) {
+			this.color = color;
+			this.size = size;
+		}
+
+		/**
+		 * Checks whether the group holds lines of the given style.
+		 *
+		 * @param color
+		 *            the color of the lines
+		 * @param size
+		 *            the width of the lines
+		 * @return true if the style is the group's, false otherwise
+		 */
+		private boolean matches(Color color, float size) {
+			return this.size == size && (this.color == color
+					|| this.color != null && this.color.equals(color));
+		}
+
+		/**
+		 * Adds a line to the group.
+		 *
+		 * @param x0
+		 *            the x-coordinate of the start
+		 * @param y0
+		 *            the y-coordinate of the start
+		 * @param x1
+		 *            the x-coordinate of the end
+		 * @param y1
+		 *            the y-coordinate of the end
+		 * @return the number of points added
+		 */
+		private int add(float x0, float y0, float x1, float y1) {
+			int length = polylines == 0 ? 0 : lengths[polylines - 1];
+			int end = 2 * points;
+			if (length > 0 && coordinates[end - 2] == x0
+					&& coordinates[end - 1] == y0) {
+				if (length > 1 && collinear(coordinates[end - 4],
+						coordinates[end - 3], x0, y0, x1, y1)) {
+					coordinates[end - 2] = x1;
+					coordinates[end - 1] = y1;
+					return 0;
+				}
+				ensureCapacity(1);
+				coordinates[end] = x1;
+				coordinates[end + 1] = y1;
+				points++;
+				lengths[polylines - 1]++;
+				return 1;
+			}
+
+			ensureCapacity(2);
+			coordinates[end] = x0;
+			coordinates[end + 1] = y0;
+			coordinates[end + 2] = x1;
+			coordinates[end + 3] = y1;
+			points += 2;
+			lengths[polylines++] = 2;
+			return 2;
+		}
+
+		/**
+		 * Makes room for the given number of points and a new polyline.
+		 *
+		 * @param extra
+		 *            the number of points to be added
+		 */
+		private void ensureCapacity(int extra) {
+			if (2 * (points + extra) > coordinates.length) {
+				coordinates = Arrays.copyOf(coordinates,
+						Math.max(2 * coordinates.length,
+								2 * (points + extra)));
+			}
+			if (polylines == lengths.length) {
+				lengths = Arrays.copyOf(lengths, 2 * lengths.length);
+			}
+		}
+
+		/**
+		 * Empties the group, keeping its arrays.
+		 */
+		private void clear() {
+			points = 0;
+			polylines = 0;
+		}
+	}
+
+	/**
+	 * Creates a new painter which buffers up to {@link #DEFAULT_CAPACITY}
+	 * points.
+	 *
+	 * @param delegate
+	 *            the painter the batches are drawn with
+	 */
+	public BatchingPainter(Painter delegate) {
+		this(delegate, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a new painter.
+	 *
+	 * @param delegate
+	 *            the painter the batches are drawn with
+	 * @param capacity
+	 *            the number of points buffered before the painter is flushed
+	 * @throws NullPointerException
+	 *             if the delegate is null
+	 * @throws IllegalArgumentException
+	 *             if the capacity is less than 2
+	 */
+	public BatchingPainter(Painter delegate, int capacity) {
+		if (delegate == null)
+			throw new NullPointerException("The delegate cannot be null!");
+		if (capacity < 2)
+			throw new IllegalArgumentException(
+					"The capacity must be at least 2!");
+		this.delegate = delegate;
+		this.capacity = capacity;
+		this.groups = new Group[4];
+	}
+
+	/**
+	 * Buffers the line.
+	 *
+	 * @param x0
+	 *            the x-coordinate of the start
+	 * @param y0
+	 *            the y-coordinate of the start
+	 * @param x1
+	 *            the x-coordinate of the end
+	 * @param y1
+	 *            the y-coordinate of the end
+	 * @param color
+	 *            the color of the line
+	 * @param size
+	 *            the width of the line
+	 */
+	@Override
+	public void drawLine(double x0, double y0, double x1, double y1,
+			Color color, float size) {
+		if (buffered + 2 > capacity) {
+			flush();
+		}
+		buffered += group(color, size).add((float) x0, (float) y0,
+				(float) x1, (float) y1);
+	}
+
+	/**
+	 * Draws all the buffered lines with the delegate and empties the buffer.
+	 */
+	public void flush() {
+		for (int i = 0; i < groupCount; i++) {
+			Group group = groups[i];
+			if (group.polylines == 0) {
+				continue;
+			}
+			if (delegate instanceof BulkPainter) {
+				((BulkPainter) delegate).drawPolylines(group.coordinates,
+						group.lengths, group.polylines, group.color,
+						group.size);
+			} else {
+				drawLines(group);
+			}
+			group.clear();
+		}
+		buffered = 0;
+	}
+
+	/**
+	 * Private utility method. Draws the polylines of a group line by line.
+	 *
+	 * @param group
+	 *            the group to be drawn
+	 */
+	private void drawLines(Group group) {
+		float[] coordinates = group.coordinates;
+		int point = 0;
+		for (int i = 0; i < group.polylines; i++) {
+			int end = point + group.lengths[i];
+			for (point++; point < end; point++) {
+				int index = 2 * point;
+				delegate.drawLine(coordinates[index - 2],
+						coordinates[index - 1], coordinates[index],
+						coordinates[index + 1], group.color, group.size);
+			}
+		}
+	}
+
+	/**
+	 * Private utility method. Finds the group of the given style, creating it
+	 * if required.
+	 *
+	 * @param color
+	 *            the color of the lines
+	 * @param size
+	 *            the width of the lines
+	 * @return the group
+	 */
+	private Group group(Color color, float size) {
+		if (last != null && last.matches(color, size)) {
+			return last;
+		}
+		for (int i = 0; i < groupCount; i++) {
+			if (groups[i].matches(color, size)) {
+				last = groups[i];
+				return last;
+			}
+		}
+		if (groupCount == groups.length) {
+			groups = Arrays.copyOf(groups, 2 * groupCount);
+		}
+		last = new Group(color, size);
+		groups[groupCount++] = last;
+		return last;
+	}
+
+	/**
+	 * Private utility method. Checks whether the line from the second point to
+	 * the third continues the line from the first point to the second in the
+	 * same direction.
+	 *
+	 * @param x0
+	 *            the x-coordinate of the first point
+	 * @param y0
+	 *            the y-coordinate of the first point
+	 * @param x1
+	 *            the x-coordinate of the second point
+	 * @param y1
+	 *            the y-coordinate of the second point
+	 * @param x2
+	 *            the x-coordinate of the third point
+	 * @param y2
+	 *            the y-coordinate of the third point
+	 * @return true if the lines are collinear and point the same way
+	 */
+	private static boolean collinear(float x0, float y0, float x1, float y1,
+			float x2, float y2) {
+		double ax = x1 - x0;
+		double ay = y1 - y0;
+		double bx = x2 - x1;
+		double by = y2 - y1;
+		double dot = ax * bx + ay * by;
+		if (dot <= 0) {
+			return false;
+		}
+		double cross = ax * by - ay * bx;
+		double norms = Math.sqrt((ax * ax + ay * ay) * (bx * bx + by * by));
+		return Math.abs(cross) <= COLLINEARITY_TOLERANCE * norms;
+	}
+}
@@ -0,0 +1,34 @@
+package hr.fer.zemris.lsystems.impl.painters;
+
+import java.awt.Color;
+
+import hr.fer.zemris.lsystems.Painter;
+
+/**
+ * A {@link Painter} which can also draw many polylines of the same color and
+ * width in a single call. The {@link BatchingPainter} flushes its batches
+ * through this method whenever its delegate supports it.
+ *
+ * @author 0036502252
+ *
+ */
+public interface BulkPainter extends Painter {
+
+	/**
+	 * Draws a batch of polylines of the same color and width.
+	 *
+	 * @param coordinates
+	 *            the points of all the polylines, one after another, as pairs
+	 *            of x and y coordinates
+	 * @param lengths
+	 *            the number of points in each of the polylines
+	 * @param polylines
+	 *            the number of polylines in the batch
+	 * @param color
+	 *            the color of the polylines
+	 * @param size
+	 *            the width of the polylines
+	 */
+	void drawPolylines(float[] coordinates, int[] lengths, int polylines,
+			Color color, float size);
+}
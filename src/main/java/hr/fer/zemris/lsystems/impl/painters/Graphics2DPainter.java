@@ -0,0 +1,139 @@
+package hr.fer.zemris.lsystems.impl.painters;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+
+/**
+ * A {@link BulkPainter} which draws onto a {@link Graphics2D}. The
+ * coordinates are mapped onto the drawing area the same way the L-system
+ * viewer maps them: x grows to the right and y grows upwards, both from 0 to
+ * 1. A batch of polylines is drawn as a single {@link Path2D} with a single
+ * stroke.
+ *
+ * @author 0036502252
+ *
+ */
+public class Graphics2DPainter implements BulkPainter {
+	/**
+	 * The graphics the lines are drawn onto.
+	 */
+	private Graphics2D g2d;
+	/**
+	 * The width of the drawing area, in pixels.
+	 */
+	private int width;
+	/**
+	 * The height of the drawing area, in pixels.
+	 */
+	private int height;
+	/**
+	 * The stroke used last.
+	 */
+	private BasicStroke stroke;
+	/**
+	 * The path reused for every batch.
+	 */
+	private Path2D.Float path;
+	/**
+	 * The line reused for every single line.
+	 */
+	private Line2D.Double line;
+
+	/**
+	 * Creates a new painter.
+	 *
+	 * @param g2d
+	 *            the graphics the lines are drawn onto
+	 * @param width
+	 *            the width of the drawing area, in pixels
+	 * @param height
+	 *            the height of the drawing area, in pixels
+	 */
+	public Graphics2DPainter(Graphics2D g2d, int width, int height) {
+		this.g2d = g2d;
+		this.width = width;
+		this.height = height;
+		this.path = new Path2D.Float();
+		this.line = new Line2D.Double();
+	}
+
+	/**
+	 * Draws a single line.
+	 *
+	 * @param x0
+	 *            the x-coordinate of the start
+	 * @param y0
+	 *            the y-coordinate of the start
+	 * @param x1
+	 *            the x-coordinate of the end
+	 * @param y1
+	 *            the y-coordinate of the end
+	 * @param color
+	 *            the color of the line
+	 * @param size
+	 *            the width of the line
+	 */
+	@Override
+	public void drawLine(double x0, double y0, double x1, double y1,
+			Color color, float size) {
+		prepare(color, size);
+		line.setLine(x0 * (width - 1), (1 - y0) * (height - 1),
+				x1 * (width - 1), (1 - y1) * (height - 1));
+		g2d.draw(line);
+	}
+
+	/**
+	 * Draws a batch of polylines as a single path.
+	 *
+	 * @param coordinates
+	 *            the points of all the polylines, one after another, as pairs
+	 *            of x and y coordinates
+	 * @param lengths
+	 *            the number of points in each of the polylines
+	 * @param polylines
+	 *            the number of polylines in the batch
+	 * @param color
+	 *            the color of the polylines
+	 * @param size
+	 *            the width of the polylines
+	 */
+	@Override
+	public void drawPolylines(float[] coordinates, int[] lengths,
+			int polylines, Color color, float size) {
+		float w = width - 1;
+		float h = height - 1;
+		path.reset();
+		int index = 0;
+		for (int i = 0; i < polylines; i++) {
+			int end = index + 2 * lengths[i];
+			path.moveTo(coordinates[index] * w,
+					(1 - coordinates[index + 1]) * h);
+			for (index += 2; index < end; index += 2) {
+				path.lineTo(coordinates[index] * w,
+						(1 - coordinates[index + 1]) * h);
+			}
+		}
+		prepare(color, size);
+		g2d.draw(path);
+	}
+
+	/**
+	 * Private utility method. Sets the color and the stroke of the graphics.
+	 *
+	 * @param color
+	 *            the color of the lines
+	 * @param size
+	 *            the width of the lines
+	 */
+	private void prepare(Color color, float size) {
+		g2d.setColor(color);
+		if (stroke == null || stroke.getLineWidth() != size) {
+			stroke = new BasicStroke(size, BasicStroke.CAP_SQUARE,
+					BasicStroke.JOIN_BEVEL);
+		}
+		g2d.setStroke(stroke);
+	}
+}
@@ -0,0 +1,399 @@
+package hr.fer.zemris.lsystems.impl.painters;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import javax.imageio.ImageIO;
+
+import hr.fer.zemris.lsystems.Painter;
+
+/**
+ * A headless {@link Painter} which rasterizes lines into an ARGB framebuffer.
+ * The coordinates are mapped onto the image the same way the L-system viewer
+ * maps them: x grows to the right and y grows upwards, both from 0 to 1.
+ * <p>
+ * Drawing a line only records it and bins it into the square tiles of the
+ * image its bounding box overlaps. {@link #rasterize()} then rasterizes the
+ * tiles in parallel, one task per tile; each task only writes the pixels of
+ * its own tile, so no locking is needed, and it draws the lines of the tile
+ * in the order in which they were drawn, so the result does not depend on the
+ * scheduling. Once {@link #LINE_CAPACITY} lines are recorded, they are
+ * rasterized before the next one is drawn, so the painter takes the same
+ * memory however many lines are drawn, and the image is the same as if they
+ * were all rasterized at once.
+ * </p>
+ *
+ * @author 0036502252
+ *
+ */
+public class RasterPainter implements Painter {
+	/**
+	 * The default width and height of a tile, in pixels.
+	 */
+	public static final int DEFAULT_TILE_SIZE = 64;
+	/**
+	 * The largest number of lines recorded before they are rasterized.
+	 */
+	public static final int LINE_CAPACITY = 1 << 20;
+
+	/**
+	 * The width of the image, in pixels.
+	 */
+	private int width;
+	/**
+	 * The height of the image, in pixels.
+	 */
+	private int height;
+	/**
+	 * The width and height of a tile, in pixels.
+	 */
+	private int tileSize;
+	/**
+	 * The number of tiles in a row.
+	 */
+	private int tileColumns;
+	/**
+	 * The number of tiles in a column.
+	 */
+	private int tileRows;
+	/**
+	 * The pixels of the image, row by row, as ARGB values.
+	 */
+	private int[] framebuffer;
+	/**
+	 * The pixel coordinates of the recorded lines, four for each line.
+	 */
+	private float[] coordinates;
+	/**
+	 * The colors of the recorded lines, as ARGB values.
+	 */
+	private int[] colors;
+	/**
+	 * The widths of the recorded lines.
+	 */
+	private float[] sizes;
+	/**
+	 * The number of recorded lines.
+	 */
+	private int lines;
+	/**
+	 * The indices of the lines binned into each tile.
+	 */
+	private int[][] bins;
+	/**
+	 * The number of lines binned into each tile.
+	 */
+	private int[] binSizes;
+
+	/**
+	 * Creates a new painter with a white background and tiles of the default
+	 * size.
+	 *
+	 * @param width
+	 *            the width of the image, in pixels
+	 * @param height
+	 *            the height of the image, in pixels
+	 */
+	public RasterPainter(int width, int height) {
+		this(width, height, Color.WHITE, DEFAULT_TILE_SIZE);
+	}
+
+	/**
+	 * Creates a new painter.
+	 *
+	 * @param width
+	 *            the width of the image, in pixels
+	 * @param height
+	 *            the height of the image, in pixels
+	 * @param background
+	 *            the color of the background
+	 * @param tileSize
+	 *            the width and height of a tile, in pixels
+	 * @throws IllegalArgumentException
+	 *             if a dimension or the tile size is not positive
+	 */
+	public RasterPainter(int width, int height, Color background,
+			int tileSize) {
+		if (width <= 0 || height <= 0)
+			throw new IllegalArgumentException(
+					"The image must be at least one pixel wide and high!");
+		if (tileSize <= 0)
+			throw new IllegalArgumentException(
+					"The tile size must be positive!");
+		this.width = width;
+		this.height = height;
+		this.tileSize = tileSize;
+		this.tileColumns = (width + tileSize - 1) / tileSize;
+		this.tileRows = (height + tileSize - 1) / tileSize;
+		this.framebuffer = new int[Math.multiplyExact(width, height)];
+		Arrays.fill(framebuffer, background.getRGB());
+
+		this.coordinates = new float[256];
+		this.colors = new int[64];
+		this.sizes = new float[64];
+		this.bins = new int[tileColumns * tileRows][];
+		this.binSizes = new int[bins.length];
+	}
+
+	/**
+	 * Records the line and bins it into the tiles it may cover. If the
+	 * recorded lines are at the capacity, they are rasterized first.
+	 *
+	 * @param x0
+	 *            the x-coordinate of the start
+	 * @param y0
+	 *            the y-coordinate of the start
+	 * @param x1
+	 *            the x-coordinate of the end
+	 * @param y1
+	 *            the y-coordinate of the end
+	 * @param color
+	 *            the color of the line
+	 * @param size
+	 *            the width of the line
+	 */
+	@Override
+	public void drawLine(double x0, double y0, double x1, double y1,
+			Color color, float size) {
+		float px0 = (float) (x0 * (width - 1));
+		float py0 = (float) ((1 - y0) * (height - 1));
+		float px1 = (float) (x1 * (width - 1));
+		float py1 = (float) ((1 - y1) * (height - 1));
+		float radius = Math.max(size, 1) / 2;
+
+		int left = Math.round(Math.min(px0, px1) - radius);
+		int right = Math.round(Math.max(px0, px1) + radius);
+		int top = Math.round(Math.min(py0, py1) - radius);
+		int bottom = Math.round(Math.max(py0, py1) + radius);
+		if (!(right >= 0 && left < width && bottom >= 0 && top < height)) {
+			return;
+		}
+		int fromColumn = tile(left, tileColumns);
+		int toColumn = tile(right, tileColumns);
+		int fromRow = tile(top, tileRows);
+		int toRow = tile(bottom, tileRows);
+
+		if (lines == LINE_CAPACITY) {
+			rasterize();
+		}
+		if (lines == colors.length) {
+			int capacity = Math.min(2 * lines, LINE_CAPACITY);
+			coordinates = Arrays.copyOf(coordinates, 4 * capacity);
+			colors = Arrays.copyOf(colors, capacity);
+			sizes = Arrays.copyOf(sizes, capacity);
+		}
+		coordinates[4 * lines] = px0;
+		coordinates[4 * lines + 1] = py0;
+		coordinates[4 * lines + 2] = px1;
+		coordinates[4 * lines + 3] = py1;
+		colors[lines] = color.getRGB();
+		sizes[lines] = size;
+
+		for (int row = fromRow; row <= toRow; row++) {
+			for (int column = fromColumn; column <= toColumn; column++) {
+				bin(row * tileColumns + column, lines);
+			}
+		}
+		lines++;
+	}
+
+	/**
+	 * Rasterizes all the lines recorded so far on the common pool, and
+	 * forgets them.
+	 */
+	public void rasterize() {
+		rasterize(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Rasterizes all the lines recorded so far on the given pool, and forgets
+	 * them.
+	 *
+	 * @param pool
+	 *            the pool on which the tiles are rasterized
+	 */
+	public void rasterize(ForkJoinPool pool) {
+		pool.submit(() -> IntStream.range(0, bins.length).parallel()
+				.forEach(this::rasterizeTile)).join();
+		lines = 0;
+		Arrays.fill(binSizes, 0);
+	}
+
+	/**
+	 * Gets the pixels of the image. Lines which were not rasterized yet are
+	 * not included.
+	 *
+	 * @return the pixels, row by row, as ARGB values
+	 */
+	public int[] getFramebuffer() {
+		return framebuffer;
+	}
+
+	/**
+	 * Gets the width of the image.
+	 *
+	 * @return the width, in pixels
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Gets the height of the image.
+	 *
+	 * @return the height, in pixels
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Rasterizes the recorded lines and copies the framebuffer into an image.
+	 *
+	 * @return the image
+	 */
+	public BufferedImage toImage() {
+		rasterize();
+		BufferedImage image = new BufferedImage(width, height,
+				BufferedImage.TYPE_INT_ARGB);
+		image.setRGB(0, 0, width, height, framebuffer, 0, width);
+		return image;
+	}
+
+	/**
+	 * Rasterizes the recorded lines and writes the image as a PNG file.
+	 *
+	 * @param file
+	 *            the file the image is written to
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public void writePng(Path file) throws IOException {
+		if (!ImageIO.write(toImage(), "png", file.toFile()))
+			throw new IOException("No PNG writer is available!");
+	}
+
+	/**
+	 * Private utility method. Adds a line to the bin of a tile.
+	 *
+	 * @param tile
+	 *            the index of the tile
+	 * @param line
+	 *            the index of the line
+	 */
+	private void bin(int tile, int line) {
+		int[] bin = bins[tile];
+		if (bin == null) {
+			bin = new int[16];
+			bins[tile] = bin;
+		} else if (binSizes[tile] == bin.length) {
+			bin = Arrays.copyOf(bin, 2 * bin.length);
+			bins[tile] = bin;
+		}
+		bin[binSizes[tile]++] = line;
+	}
+
+	/**
+	 * Private utility method. Gets the index of the tile a pixel lies in,
+	 * clamped to the image.
+	 *
+	 * @param pixel
+	 *            the coordinate of the pixel
+	 * @param tiles
+	 *            the number of tiles along the coordinate's axis
+	 * @return the index of the tile
+	 */
+	private int tile(int pixel, int tiles) {
+		return Math.max(0, Math.min(pixel / tileSize, tiles - 1));
+	}
+
+	/**
+	 * Private utility method. Rasterizes the lines binned into a tile, writing
+	 * only the pixels of the tile. Each line is clipped to the tile, widened
+	 * by the line's radius, before it is stepped through, so a long line
+	 * costs each tile only the steps which lie within it; the steps are the
+	 * same ones the whole line would take, so the tiles fit together exactly.
+	 *
+	 * @param tile
+	 *            the index of the tile
+	 */
+	private void rasterizeTile(int tile) {
+		int left = (tile % tileColumns) * tileSize;
+		int top = (tile / tileColumns) * tileSize;
+		int right = Math.min(left + tileSize, width) - 1;
+		int bottom = Math.min(top + tileSize, height) - 1;
+
+		int[] bin = bins[tile];
+		double[] range = new double[2];
+		for (int i = 0, n = binSizes[tile]; i < n; i++) {
+			int line = bin[i];
+			float x0 = coordinates[4 * line];
+			float y0 = coordinates[4 * line + 1];
+			float x1 = coordinates[4 * line + 2];
+			float y1 = coordinates[4 * line + 3];
+			int radius = Math.max(0, (Math.round(sizes[line]) - 1) / 2);
+
+			int steps = Math.max(1, Math.round(
+					Math.max(Math.abs(x1 - x0), Math.abs(y1 - y0))));
+			float dx = (x1 - x0) / steps;
+			float dy = (y1 - y0) / steps;
+
+			// Liang-Barsky on the step index, with a pixel of slack for the
+			// rounding; the loops below still stay within the tile
+			range[0] = 0;
+			range[1] = steps;
+			if (!clip(x0, dx, left - radius - 1, right + radius + 1, range)
+					|| !clip(y0, dy, top - radius - 1, bottom + radius + 1,
+							range)) {
+				continue;
+			}
+			int first = (int) Math.max(0, Math.floor(range[0]));
+			int last = (int) Math.min(steps, Math.ceil(range[1]));
+			for (int step = first; step <= last; step++) {
+				int x = Math.round(x0 + dx * step);
+				int y = Math.round(y0 + dy * step);
+				for (int py = Math.max(top, y - radius); py <= Math
+						.min(bottom, y + radius); py++) {
+					for (int px = Math.max(left, x - radius); px <= Math
+							.min(right, x + radius); px++) {
+						framebuffer[py * width + px] = colors[line];
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Private utility method. Narrows the range of the steps of a line to
+	 * those whose coordinate along one axis lies within the given bounds.
+	 *
+	 * @param start
+	 *            the coordinate at the first step
+	 * @param delta
+	 *            the change of the coordinate per step
+	 * @param min
+	 *            the smallest coordinate within the bounds
+	 * @param max
+	 *            the largest coordinate within the bounds
+	 * @param range
+	 *            the first and the last step of the range, which are
+	 *            narrowed in place
+	 * @return true if the narrowed range is not empty, false otherwise
+	 */
+	private static boolean clip(float start, float delta, double min,
+			double max, double[] range) {
+		if (delta == 0) {
+			return start >= min && start <= max;
+		}
+		double t0 = (min - start) / delta;
+		double t1 = (max - start) / delta;
+		range[0] = Math.max(range[0], Math.min(t0, t1));
+		range[1] = Math.min(range[1], Math.max(t0, t1));
+		return range[0] <= range[1];
+	}
+}
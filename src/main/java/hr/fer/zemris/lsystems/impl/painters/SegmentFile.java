@@ -0,0 +1,282 @@
+package hr.fer.zemris.lsystems.impl.painters;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import hr.fer.zemris.lsystems.Painter;
+
+/**
+ * A segment file, memory-mapped for replaying. A segment file records the
+ * lines of a drawing, so it can be drawn again, at another resolution or
+ * zoom, without generating and interpreting the L-system again. It is
+ * written by a {@link SegmentFileWriter}.
+ * <p>
+ * The file starts with a header of {@value #HEADER_SIZE} bytes: the magic
+ * number, the version, the number of lines, the bounds of the lines as four
+ * floats and the palette, which is the number of its entries followed by a
+ * color and a width for each entry. Each line follows as a record of
+ * {@value #RECORD_SIZE} bytes: the coordinates of its start and end as four
+ * floats and the index of its palette entry as a byte. All values are
+ * little-endian.
+ * </p>
+ *
+ * @author 0036502252
+ *
+ */
+public class SegmentFile {
+	/**
+	 * The magic number a segment file starts with.
+	 */
+	static final int MAGIC = 0x4C534547;
+	/**
+	 * The version of the format.
+	 */
+	static final int VERSION = 1;
+	/**
+	 * The largest number of entries in the palette.
+	 */
+	public static final int MAX_PALETTE_SIZE = 256;
+	/**
+	 * The size of the header, in bytes.
+	 */
+	public static final int HEADER_SIZE = 36 + 8 * MAX_PALETTE_SIZE;
+	/**
+	 * The size of a record, in bytes.
+	 */
+	public static final int RECORD_SIZE = 17;
+	/**
+	 * The byte order of the values.
+	 */
+	static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+	/**
+	 * The largest number of records in a single mapping.
+	 */
+	private static final int RECORDS_PER_MAPPING = 1 << 26;
+
+	/**
+	 * The mappings of the records.
+	 */
+	private MappedByteBuffer[] mappings;
+	/**
+	 * The number of lines.
+	 */
+	private long count;
+	/**
+	 * The smallest x-coordinate of the lines.
+	 */
+	private float minX;
+	/**
+	 * The smallest y-coordinate of the lines.
+	 */
+	private float minY;
+	/**
+	 * The largest x-coordinate of the lines.
+	 */
+	private float maxX;
+	/**
+	 * The largest y-coordinate of the lines.
+	 */
+	private float maxY;
+	/**
+	 * The colors of the palette.
+	 */
+	private Color[] colors;
+	/**
+	 * The widths of the palette.
+	 */
+	private float[] sizes;
+
+	/**
+	 * Private constructor which maps an open file.
+	 *
+	 * @param channel
+	 *            the channel of the file
+	 * @throws IOException
+	 *             if the file cannot be read or is not a valid segment file
+	 */
+	private SegmentFile(FileChannel channel) throws IOException {
+		long fileSize = channel.size();
+		if (fileSize < HEADER_SIZE)
+			throw new IOException(
+					"The file is too short to be a segment file!");
+		MappedByteBuffer header = channel.map(MapMode.READ_ONLY, 0,
+				HEADER_SIZE);
+		header.order(BYTE_ORDER);
+		if (header.getInt() != MAGIC)
+			throw new IOException("The file is not a segment file!");
+		int version = header.getInt();
+		if (version != VERSION)
+			throw new IOException(
+					"Unsupported segment file version " + version + "!");
+		count = header.getLong();
+		if (count < 0 || (fileSize - HEADER_SIZE) / RECORD_SIZE < count)
+			throw new IOException("The segment file is truncated!");
+		minX = header.getFloat();
+		minY = header.getFloat();
+		maxX = header.getFloat();
+		maxY = header.getFloat();
+
+		int paletteSize = header.getInt();
+		if (paletteSize < 0 || paletteSize > MAX_PALETTE_SIZE)
+			throw new IOException(
+					"The palette of the segment file is invalid!");
+		colors = new Color[paletteSize];
+		sizes = new float[paletteSize];
+		for (int i = 0; i < paletteSize; i++) {
+			colors[i] = new Color(header.getInt(), true);
+			sizes[i] = header.getFloat();
+		}
+
+		mappings = new MappedByteBuffer[(int) ((count + RECORDS_PER_MAPPING
+				- 1) / RECORDS_PER_MAPPING)];
+		for (int i = 0; i < mappings.length; i++) {
+			long first = (long) i * RECORDS_PER_MAPPING;
+			long records = Math.min(count - first, RECORDS_PER_MAPPING);
+			mappings[i] = channel.map(MapMode.READ_ONLY,
+					HEADER_SIZE + first * RECORD_SIZE, records * RECORD_SIZE);
+			mappings[i].order(BYTE_ORDER);
+		}
+	}
+
+	/**
+	 * Opens and maps a segment file. The file is closed once it is mapped;
+	 * the mapping stays valid until the segment file is garbage collected.
+	 *
+	 * @param file
+	 *            the path of the file
+	 * @return the segment file
+	 * @throws IOException
+	 *             if the file cannot be read or is not a valid segment file
+	 */
+	public static SegmentFile open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.READ)) {
+			return new SegmentFile(channel);
+		}
+	}
+
+	/**
+	 * Gets the number of lines in the file.
+	 *
+	 * @return the number of lines
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the smallest x-coordinate of the lines.
+	 *
+	 * @return the smallest x-coordinate, or 0 if there are no lines
+	 */
+	public double getMinX() {
+		return minX;
+	}
+
+	/**
+	 * Gets the smallest y-coordinate of the lines.
+	 *
+	 * @return the smallest y-coordinate, or 0 if there are no lines
+	 */
+	public double getMinY() {
+		return minY;
+	}
+
+	/**
+	 * Gets the largest x-coordinate of the lines.
+	 *
+	 * @return the largest x-coordinate, or 0 if there are no lines
+	 */
+	public double getMaxX() {
+		return maxX;
+	}
+
+	/**
+	 * Gets the largest y-coordinate of the lines.
+	 *
+	 * @return the largest y-coordinate, or 0 if there are no lines
+	 */
+	public double getMaxY() {
+		return maxY;
+	}
+
+	/**
+	 * Gets the number of entries in the palette.
+	 *
+	 * @return the size of the palette
+	 */
+	public int getPaletteSize() {
+		return colors.length;
+	}
+
+	/**
+	 * Gets the color of a palette entry.
+	 *
+	 * @param entry
+	 *            the index of the entry
+	 * @return the color
+	 */
+	public Color getColor(int entry) {
+		return colors[entry];
+	}
+
+	/**
+	 * Gets the width of a palette entry.
+	 *
+	 * @param entry
+	 *            the index of the entry
+	 * @return the width
+	 */
+	public float getSize(int entry) {
+		return sizes[entry];
+	}
+
+	/**
+	 * Draws the lines with the painter, in the order they were recorded.
+	 *
+	 * @param painter
+	 *            the painter the lines are drawn with
+	 */
+	public void replay(Painter painter) {
+		replay(painter, 1, 0, 0);
+	}
+
+	/**
+	 * Draws the lines with the painter, in the order they were recorded,
+	 * scaling and then translating each coordinate.
+	 *
+	 * @param painter
+	 *            the painter the lines are drawn with
+	 * @param scale
+	 *            the factor the coordinates are multiplied by
+	 * @param translateX
+	 *            the offset added to the x-coordinates
+	 * @param translateY
+	 *            the offset added to the y-coordinates
+	 * @throws IllegalStateException
+	 *             if a record refers to a missing palette entry
+	 */
+	public void replay(Painter painter, double scale, double translateX,
+			double translateY) {
+		for (MappedByteBuffer mapping : mappings) {
+			int end = mapping.limit();
+			for (int offset = 0; offset < end; offset += RECORD_SIZE) {
+				double x0 = mapping.getFloat(offset) * scale + translateX;
+				double y0 = mapping.getFloat(offset + 4) * scale + translateY;
+				double x1 = mapping.getFloat(offset + 8) * scale + translateX;
+				double y1 = mapping.getFloat(offset + 12) * scale + translateY;
+				int entry = mapping.get(offset + 16) & 0xFF;
+				if (entry >= colors.length)
+					throw new IllegalStateException("The segment file refers "
+							+ "to the missing palette entry " + entry + "!");
+				painter.drawLine(x0, y0, x1, y1, colors[entry], sizes[entry]);
+			}
+		}
+	}
+}
@@ -0,0 +1,245 @@
+package hr.fer.zemris.lsystems.impl.painters;
+
+import java.awt.Color;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import hr.fer.zemris.lsystems.Painter;
+
+/**
+ * A {@link Painter} which records the lines into a segment file, to be
+ * replayed later through a {@link SegmentFile}. The lines are streamed to the
+ * file through a reusable direct buffer as they are drawn, while the bounds
+ * and the palette of the distinct colors and widths are collected; these are
+ * written into the header once the writer is closed, and the file is only
+ * valid from then on.
+ *
+ * @author 0036502252
+ *
+ */
+public class SegmentFileWriter implements Painter, Closeable {
+	/**
+	 * The size of the output buffer, in bytes.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * The channel the file is written to.
+	 */
+	private FileChannel channel;
+	/**
+	 * The buffer the records are encoded into.
+	 */
+	private ByteBuffer buffer;
+	/**
+	 * The colors in the palette, as ARGB values.
+	 */
+	private int[] colors;
+	/**
+	 * The widths in the palette.
+	 */
+	private float[] sizes;
+	/**
+	 * The number of entries in the palette.
+	 */
+	private int paletteSize;
+	/**
+	 * The index of the palette entry used last.
+	 */
+	private int lastEntry;
+	/**
+	 * The number of recorded lines.
+	 */
+	private long count;
+	/**
+	 * The smallest x-coordinate of the recorded lines.
+	 */
+	private float minX;
+	/**
+	 * The smallest y-coordinate of the recorded lines.
+	 */
+	private float minY;
+	/**
+	 * The largest x-coordinate of the recorded lines.
+	 */
+	private float maxX;
+	/**
+	 * The largest y-coordinate of the recorded lines.
+	 */
+	private float maxY;
+
+	/**
+	 * Creates a new writer, replacing the file if it exists.
+	 *
+	 * @param file
+	 *            the file the lines are recorded into
+	 * @throws IOException
+	 *             if the file cannot be opened
+	 */
+	public SegmentFileWriter(Path file) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE);
+		this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE)
+				.order(SegmentFile.BYTE_ORDER);
+		this.colors = new int[SegmentFile.MAX_PALETTE_SIZE];
+		this.sizes = new float[SegmentFile.MAX_PALETTE_SIZE];
+		this.lastEntry = -1;
+		this.minX = Float.POSITIVE_INFINITY;
+		this.minY = Float.POSITIVE_INFINITY;
+		this.maxX = Float.NEGATIVE_INFINITY;
+		this.maxY = Float.NEGATIVE_INFINITY;
+		channel.position(SegmentFile.HEADER_SIZE);
+	}
+
+	/**
+	 * Records the line.
+	 *
+	 * @param x0
+	 *            the x-coordinate of the start
+	 * @param y0
+	 *            the y-coordinate of the start
+	 * @param x1
+	 *            the x-coordinate of the end
+	 * @param y1
+	 *            the y-coordinate of the end
+	 * @param color
+	 *            the color of the line
+	 * @param size
+	 *            the width of the line
+	 * @throws IllegalStateException
+	 *             if the writer was closed, or if the line would make the
+	 *             palette exceed {@value SegmentFile#MAX_PALETTE_SIZE} entries
+	 * @throws UncheckedIOException
+	 *             if the file cannot be written
+	 */
+	@Override
+	public void drawLine(double x0, double y0, double x1, double y1,
+			Color color, float size) {
+		if (channel == null)
+			throw new IllegalStateException("The writer was closed!");
+		int entry = entryOf(color.getRGB(), size);
+
+		try {
+			if (buffer.remaining() < SegmentFile.RECORD_SIZE) {
+				flush();
+			}
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Cannot write the segment file!",
+					ex);
+		}
+		float fx0 = (float) x0;
+		float fy0 = (float) y0;
+		float fx1 = (float) x1;
+		float fy1 = (float) y1;
+		buffer.putFloat(fx0).putFloat(fy0).putFloat(fx1).putFloat(fy1)
+				.put((byte) entry);
+
+		minX = Math.min(minX, Math.min(fx0, fx1));
+		minY = Math.min(minY, Math.min(fy0, fy1));
+		maxX = Math.max(maxX, Math.max(fx0, fx1));
+		maxY = Math.max(maxY, Math.max(fy0, fy1));
+		count++;
+	}
+
+	/**
+	 * Gets the number of lines recorded so far.
+	 *
+	 * @return the number of lines
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Writes out the remaining lines and the header, and closes the file.
+	 * Closing a closed writer has no effect.
+	 *
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	@Override
+	public void close() throws IOException {
+		if (channel == null) {
+			return;
+		}
+		try {
+			flush();
+
+			ByteBuffer header = ByteBuffer.allocate(SegmentFile.HEADER_SIZE)
+					.order(SegmentFile.BYTE_ORDER);
+			header.putInt(SegmentFile.MAGIC).putInt(SegmentFile.VERSION)
+					.putLong(count);
+			if (count == 0) {
+				header.putFloat(0).putFloat(0).putFloat(0).putFloat(0);
+			} else {
+				header.putFloat(minX).putFloat(minY).putFloat(maxX)
+						.putFloat(maxY);
+			}
+			header.putInt(paletteSize);
+			for (int i = 0; i < paletteSize; i++) {
+				header.putInt(colors[i]).putFloat(sizes[i]);
+			}
+			header.clear();
+			while (header.hasRemaining()) {
+				channel.write(header, header.position());
+			}
+		} finally {
+			channel.close();
+			channel = null;
+		}
+	}
+
+	/**
+	 * Private utility method. Gets the palette entry of a color and width,
+	 * adding it if it has not been used yet.
+	 *
+	 * @param argb
+	 *            the color, as an ARGB value
+	 * @param size
+	 *            the width
+	 * @return the index of the entry
+	 * @throws IllegalStateException
+	 *             if the palette is full
+	 */
+	private int entryOf(int argb, float size) {
+		if (lastEntry != -1 && colors[lastEntry] == argb
+				&& sizes[lastEntry] == size) {
+			return lastEntry;
+		}
+		for (int i = 0; i < paletteSize; i++) {
+			if (colors[i] == argb && sizes[i] == size) {
+				lastEntry = i;
+				return i;
+			}
+		}
+		if (paletteSize == SegmentFile.MAX_PALETTE_SIZE)
+			throw new IllegalStateException(
+					"A segment file cannot hold more than "
+							+ SegmentFile.MAX_PALETTE_SIZE
+							+ " colors and widths!");
+		colors[paletteSize] = argb;
+		sizes[paletteSize] = size;
+		lastEntry = paletteSize;
+		return paletteSize++;
+	}
+
+	/**
+	 * Private utility method. Writes out the buffer.
+	 *
+	 * @throws IOException
+	 *             if the buffer cannot be written
+	 */
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
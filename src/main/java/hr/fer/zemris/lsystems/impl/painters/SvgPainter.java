@@ -0,0 +1,384 @@
+package hr.fer.zemris.lsystems.impl.painters;
+
+import java.awt.Color;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import hr.fer.zemris.lsystems.Painter;
+
+/**
+ * A {@link Painter} which exports the lines as an SVG document, streaming
+ * them to a file as they are drawn. The coordinates are mapped onto the
+ * document the same way the L-system viewer and the {@link RasterPainter}
+ * map them: x grows to the right and y grows upwards, both from 0 to 1, and
+ * 0 and 1 are mapped to the first and the last pixel of the document.
+ * <p>
+ * Consecutive lines of the same color and width are written as a single
+ * {@code <path>} element, and a line starting where the previous one ended
+ * continues its subpath. The text is encoded straight into a reusable direct
+ * buffer, numbers included, and the buffer is written to the file's channel
+ * whenever it fills up, so the memory used does not depend on the number of
+ * lines. The document is complete once the painter is closed.
+ * </p>
+ *
+ * @author 0036502252
+ *
+ */
+public class SvgPainter implements Painter, Closeable {
+	/**
+	 * The default number of decimal places the coordinates are written with.
+	 */
+	public static final int DEFAULT_PRECISION = 2;
+	/**
+	 * The size of the output buffer, in bytes.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+	/**
+	 * The most bytes a single element may take before the buffer is flushed.
+	 */
+	private static final int MAX_ELEMENT_SIZE = 256;
+	/**
+	 * The hexadecimal digits.
+	 */
+	private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes();
+	/**
+	 * The largest magnitude a scaled coordinate is clamped to.
+	 */
+	private static final double MAX_SCALED = 1e18;
+
+	/**
+	 * The channel the document is written to.
+	 */
+	private FileChannel channel;
+	/**
+	 * The buffer the text is encoded into.
+	 */
+	private ByteBuffer buffer;
+	/**
+	 * The width of the document.
+	 */
+	private int width;
+	/**
+	 * The height of the document.
+	 */
+	private int height;
+	/**
+	 * Ten to the power of the precision.
+	 */
+	private long scale;
+	/**
+	 * Whether a path element is open.
+	 */
+	private boolean pathOpen;
+	/**
+	 * The color of the open path, as an ARGB value.
+	 */
+	private int pathColor;
+	/**
+	 * The width of the open path.
+	 */
+	private float pathSize;
+	/**
+	 * The rounded x-coordinate the open path ends at.
+	 */
+	private long lastX;
+	/**
+	 * The rounded y-coordinate the open path ends at.
+	 */
+	private long lastY;
+
+	/**
+	 * Creates a new painter which writes the coordinates with the default
+	 * precision.
+	 *
+	 * @param file
+	 *            the file the document is written to
+	 * @param width
+	 *            the width of the document
+	 * @param height
+	 *            the height of the document
+	 * @throws IOException
+	 *             if the file cannot be opened
+	 */
+	public SvgPainter(Path file, int width, int height) throws IOException {
+		this(file, width, height, DEFAULT_PRECISION);
+	}
+
+	/**
+	 * Creates a new painter.
+	 *
+	 * @param file
+	 *            the file the document is written to
+	 * @param width
+	 *            the width of the document
+	 * @param height
+	 *            the height of the document
+	 * @param precision
+	 *            the number of decimal places the coordinates are written
+	 *            with, between 0 and 6
+	 * @throws IllegalArgumentException
+	 *             if a dimension is not positive or the precision is out of
+	 *             range
+	 * @throws IOException
+	 *             if the file cannot be opened
+	 */
+	public SvgPainter(Path file, int width, int height, int precision)
+			throws IOException {
+		if (width <= 0 || height <= 0)
+			throw new IllegalArgumentException(
+					"The document must have a positive width and height!");
+		if (precision < 0 || precision > 6)
+			throw new IllegalArgumentException(
+					"The precision must be between 0 and 6!");
+		this.width = width;
+		this.height = height;
+		this.scale = 1;
+		for (int i = 0; i < precision; i++) {
+			scale *= 10;
+		}
+		this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE);
+
+		put("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		put("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"");
+		put(width);
+		put("\" height=\"");
+		put(height);
+		put("\" viewBox=\"0 0 ");
+		put(width);
+		put(' ');
+		put(height);
+		put("\">\n<g fill=\"none\" stroke-linecap=\"square\">\n");
+	}
+
+	/**
+	 * Writes the line, continuing the open path if it has the same color and
+	 * width.
+	 *
+	 * @param x0
+	 *            the x-coordinate of the start
+	 * @param y0
+	 *            the y-coordinate of the start
+	 * @param x1
+	 *            the x-coordinate of the end
+	 * @param y1
+	 *            the y-coordinate of the end
+	 * @param color
+	 *            the color of the line
+	 * @param size
+	 *            the width of the line
+	 * @throws IllegalStateException
+	 *             if the painter was closed
+	 * @throws UncheckedIOException
+	 *             if the document cannot be written
+	 */
+	@Override
+	public void drawLine(double x0, double y0, double x1, double y1,
+			Color color, float size) {
+		if (channel == null)
+			throw new IllegalStateException("The painter was closed!");
+		long startX = round(x0 * (width - 1));
+		long startY = round((1 - y0) * (height - 1));
+		long endX = round(x1 * (width - 1));
+		long endY = round((1 - y1) * (height - 1));
+
+		try {
+			if (buffer.remaining() < MAX_ELEMENT_SIZE) {
+				flush();
+			}
+			int argb = color.getRGB();
+			if (pathOpen && (argb != pathColor || size != pathSize)) {
+				put("\"/>\n");
+				pathOpen = false;
+			}
+			if (!pathOpen) {
+				openPath(argb, size);
+			} else if (startX == lastX && startY == lastY) {
+				put('L');
+				putPoint(endX, endY);
+				lastX = endX;
+				lastY = endY;
+				return;
+			}
+			put('M');
+			putPoint(startX, startY);
+			put('L');
+			putPoint(endX, endY);
+			lastX = endX;
+			lastY = endY;
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Cannot write the document!", ex);
+		}
+	}
+
+	/**
+	 * Completes the document, writes out the buffer and closes the file.
+	 * Closing a closed painter has no effect.
+	 *
+	 * @throws IOException
+	 *             if the document cannot be written
+	 */
+	@Override
+	public void close() throws IOException {
+		if (channel == null) {
+			return;
+		}
+		try {
+			if (pathOpen) {
+				put("\"/>\n");
+				pathOpen = false;
+			}
+			put("</g>\n</svg>\n");
+			flush();
+		} finally {
+			channel.close();
+			channel = null;
+		}
+	}
+
+	/**
+	 * Private utility method. Opens a new path element.
+	 *
+	 * @param argb
+	 *            the color of the path, as an ARGB value
+	 * @param size
+	 *            the width of the path
+	 */
+	private void openPath(int argb, float size) {
+		put("<path stroke=\"#");
+		for (int shift = 20; shift >= 0; shift -= 4) {
+			buffer.put(HEX_DIGITS[(argb >>> shift) & 0xF]);
+		}
+		int alpha = argb >>> 24;
+		if (alpha != 0xFF) {
+			put("\" stroke-opacity=\"");
+			putFixed(Math.round(alpha / 255.0 * 1000), 1000);
+		}
+		if (size != 1) {
+			put("\" stroke-width=\"");
+			putFixed(Math.round(size * 1000.0), 1000);
+		}
+		put("\" d=\"");
+		pathOpen = true;
+		pathColor = argb;
+		pathSize = size;
+	}
+
+	/**
+	 * Private utility method. Writes out the buffer.
+	 *
+	 * @throws IOException
+	 *             if the buffer cannot be written
+	 */
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Private utility method. Rounds a coordinate to the precision.
+	 *
+	 * @param coordinate
+	 *            the coordinate
+	 * @return the coordinate multiplied by the scale, clamped to a range
+	 *         which can be encoded and rounded, or 0 if it is not finite
+	 */
+	private long round(double coordinate) {
+		if (!Double.isFinite(coordinate)) {
+			return 0;
+		}
+		return Math.round(Math.max(-MAX_SCALED,
+				Math.min(MAX_SCALED, coordinate * scale)));
+	}
+
+	/**
+	 * Private utility method. Encodes a point of the path.
+	 *
+	 * @param x
+	 *            the rounded x-coordinate
+	 * @param y
+	 *            the rounded y-coordinate
+	 */
+	private void putPoint(long x, long y) {
+		putFixed(x, scale);
+		put(' ');
+		putFixed(y, scale);
+	}
+
+	/**
+	 * Private utility method. Encodes a decimal number without trailing zeros
+	 * in its fraction.
+	 *
+	 * @param value
+	 *            the number multiplied by the scale
+	 * @param scale
+	 *            a power of ten the number was multiplied by
+	 */
+	private void putFixed(long value, long scale) {
+		if (value < 0) {
+			put('-');
+			value = -value;
+		}
+		put(value / scale);
+		long fraction = value % scale;
+		if (fraction == 0) {
+			return;
+		}
+		put('.');
+		for (long digit = scale / 10; fraction != 0; digit /= 10) {
+			put((char) ('0' + fraction / digit));
+			fraction %= digit;
+		}
+	}
+
+	/**
+	 * Private utility method. Encodes a non-negative integer.
+	 *
+	 * @param value
+	 *            the integer
+	 */
+	private void put(long value) {
+		int start = buffer.position();
+		do {
+			buffer.put((byte) ('0' + value % 10));
+			value /= 10;
+		} while (value != 0);
+		for (int i = start, j = buffer.position() - 1; i < j; i++, j--) {
+			byte b = buffer.get(i);
+			buffer.put(i, buffer.get(j));
+			buffer.put(j, b);
+		}
+	}
+
+	/**
+	 * Private utility method. Encodes an ASCII character.
+	 *
+	 * @param c
+	 *            the character
+	 */
+	private void put(char c) {
+		buffer.put((byte) c);
+	}
+
+	/**
+	 * Private utility method. Encodes an ASCII string.
+	 *
+	 * @param s
+	 *            the string
+	 */
+	private void put(String s) {
+		for (int i = 0, n = s.length(); i < n; i++) {
+			buffer.put((byte) s.charAt(i));
+		}
+	}
+}
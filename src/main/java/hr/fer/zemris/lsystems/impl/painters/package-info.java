@@ -0,0 +1,10 @@
+/**
+ * Contains Painter implementations and adapters which reduce the cost of
+ * drawing a large number of lines. Used in the 3rd problem of the 4th Java
+ * course homework.
+ */
+/**
+ * @author 0036502252
+ *
+ */
+package hr.fer.zemris.lsystems.impl.painters;
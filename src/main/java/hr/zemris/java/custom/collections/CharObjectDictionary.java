@@ -0,0 +1,230 @@
+package hr.zemris.java.custom.collections;
+
+import java.util.Arrays;
+
+/**
+ * A variant of the {@link Dictionary} whose keys are primitive characters.
+ * Since the keys are never boxed into {@link Character} objects, neither
+ * storing nor looking up an entry allocates. Like the {@link Dictionary}, it
+ * uses open addressing with linear probing and tombstone-free removal.
+ * @author 0036502252
+ *
+ */
+public class CharObjectDictionary {
+	/**
+	 * The default capacity of the dictionary. Must be a power of two.
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+	/**
+	 * The ratio of the size and capacity at which the table is enlarged.
+	 */
+	private static final double LOAD_FACTOR = 0.75;
+
+	/**
+	 * The keys of the entries, indexed by their slot in the table.
+	 */
+	private char[] keys;
+	/**
+	 * The values of the entries, at the same slots as their keys.
+	 */
+	private Object[] values;
+	/**
+	 * Marks the slots which hold an entry.
+	 */
+	private boolean[] used;
+	/**
+	 * The number of entries in the dictionary.
+	 */
+	private int size;
+	/**
+	 * The number of entries at which the table is enlarged.
+	 */
+	private int threshold;
+
+	/**
+	 * Creates a new empty dictionary.
+	 */
+	public CharObjectDictionary() {
+		allocate(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Checks if the dictionary is empty.
+	 * @return true if the dictionary is empty, false otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the size of the dictionary.
+	 * @return the dictionary's size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Clears the dictionary of its entries.
+	 */
+	public void clear() {
+		Arrays.fill(values, null);
+		Arrays.fill(used, false);
+		size = 0;
+	}
+
+	/**
+	 * Puts the entry in the dictionary at the given key.
+	 * @param key the key
+	 * @param value the value to be assigned to the key
+	 */
+	public void put(char key, Object value) {
+		int slot = slotOf(key);
+		if(used[slot]) {
+			values[slot] = value;
+			return;
+		}
+
+		keys[slot] = key;
+		values[slot] = value;
+		used[slot] = true;
+		size++;
+		if(size > threshold) {
+			resize();
+		}
+	}
+
+	/**
+	 * Gets the value of the entry at the given key.
+	 * @param key the key of the desired object
+	 * @return the object mapped by the given key, or null if the key is not
+	 * present in the dictionary.
+	 */
+	public Object get(char key) {
+		return values[slotOf(key)];
+	}
+
+	/**
+	 * Checks if there is an entry at the given key.
+	 * @param key the key to be checked
+	 * @return true if the key is present in the dictionary, false otherwise
+	 */
+	public boolean containsKey(char key) {
+		return used[slotOf(key)];
+	}
+
+	/**
+	 * Removes the entry at the given key, if it is present.
+	 * @param key the key of the entry to be removed
+	 * @return the value which was mapped by the given key, or null if the key
+	 * was not present in the dictionary
+	 */
+	public Object remove(char key) {
+		int slot = slotOf(key);
+		if(!used[slot]) return null;
+
+		Object value = values[slot];
+		shiftBack(slot);
+		size--;
+		return value;
+	}
+
+	/**
+	 * Returns an array of all the keys present in the dictionary.
+	 * @return the keys of the dictionary, in no particular order
+	 */
+	public char[] keys() {
+		char[] result = new char[size];
+		int count = 0;
+		for(int i = 0; i < keys.length; i++) {
+			if(used[i]) {
+				result[count++] = keys[i];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Private utility method. Finds the slot of the given key, or the empty
+	 * slot at which the key would be inserted if it is not present.
+	 * @param key the key of the desired slot
+	 * @return the index of the slot
+	 */
+	private int slotOf(char key) {
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while(used[slot] && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Private utility method. Empties the given slot and moves the entries
+	 * of the probe sequence which follows it back, so that every entry stays
+	 * reachable from its home slot without the use of tombstones.
+	 * @param slot the slot to be emptied
+	 */
+	private void shiftBack(int slot) {
+		int mask = keys.length - 1;
+		int next = slot;
+		while(true) {
+			next = (next + 1) & mask;
+			if(!used[next]) break;
+
+			int home = hash(keys[next]) & mask;
+			boolean reachable = slot <= next
+					? slot < home && home <= next
+					: slot < home || home <= next;
+			if(reachable) continue;
+
+			keys[slot] = keys[next];
+			values[slot] = values[next];
+			slot = next;
+		}
+		values[slot] = null;
+		used[slot] = false;
+	}
+
+	/**
+	 * Private utility method. Doubles the capacity of the table and reinserts
+	 * all the entries.
+	 */
+	private void resize() {
+		char[] oldKeys = keys;
+		Object[] oldValues = values;
+		boolean[] oldUsed = used;
+		allocate(keys.length * 2);
+
+		for(int i = 0; i < oldKeys.length; i++) {
+			if(oldUsed[i]) {
+				int slot = slotOf(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+				used[slot] = true;
+			}
+		}
+	}
+
+	/**
+	 * Private utility method. Allocates empty arrays of the given capacity.
+	 * @param capacity the new capacity of the table, a power of two
+	 */
+	private void allocate(int capacity) {
+		this.keys = new char[capacity];
+		this.values = new Object[capacity];
+		this.used = new boolean[capacity];
+		this.threshold = (int) (capacity * LOAD_FACTOR);
+	}
+
+	/**
+	 * Private utility method. Scatters the key over the table, so that
+	 * neighbouring symbols do not form long probe sequences.
+	 * @param key the key
+	 * @return the hash code of the key
+	 */
+	private static int hash(char key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -1,138 +1,76 @@
 package hr.zemris.java.custom.collections;
 
-import java.util.Objects;
+import java.util.Arrays;
 
 /**
  * A custom implementation of the Map data structure. A map consists of multiple
- * entries, and the entries are essentially keys mapped to their values. 
+ * entries, and the entries are essentially keys mapped to their values.
+ * The entries are kept in a hash table with open addressing: the keys and
+ * values are stored in two parallel arrays, and collisions are resolved by
+ * linear probing. Removed entries do not leave tombstones behind; instead,
+ * the entries following them are shifted back into place.
  * @author 0036502252
  *
  */
 public class Dictionary {
 	/**
-	 * The collection used to store the entries.
-	 */
-	private ArrayIndexedCollection col;	
-	
-	/**
-	 * Represents a single entry in a map.
-	 * @author 0036502252
-	 *
-	 */
-	private static class Entry{
-		/**
-		 * Value of the entry.
-		 */
-		private Object value;
-		/**
-		 * Key of the entry. Each entry value is mapped to a unique key.
-		 */
-		private Object key;
-		
-		/**
-		 * Creates a single entry. Null values are allowed for the entry, but 
-		 * not for the key.
-		 * @param value the value of the new entry
-		 * @param key the key of the new entry
-		 */
-		public Entry(Object key, Object value) {
-			this.value = value;
-			this.key = Objects.requireNonNull(key);
-		}
-		
-		/**
-		 * Gets the key of the entry.
-		 * @return the key of the entry
-		 */
-		public Object getKey() {
-			return key;
-		}
-		
-		/**
-		 * Gets the value of the entry.
-		 * @return the value of the entry
-		 */
-		public Object getValue() {
-			return value;
-		}
-		
-		/**
-		 * Sets the value of the given entry.
-		 * @param value the value to be set
-		 */
-		public void setValue(Object value) {
-			this.value = value;
-		}
-		
-		@Override
-		public String toString() {
-			return "Key: " + key + " Value: "+ value; 
-		}
+	 * The default capacity of the dictionary. Must be a power of two.
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+	/**
+	 * The ratio of the size and capacity at which the table is enlarged.
+	 */
+	private static final double LOAD_FACTOR = 0.75;
 
-		@Override
-		public int hashCode() {
-			final int prime = 31;
-			int result = 1;
-			result = prime * result + ((key == null) ? 0 : key.hashCode());
-			result = prime * result + ((value == null) ? 0 : value.hashCode());
-			return result;
-		}
+	/**
+	 * The keys of the entries, indexed by their slot in the table.
+	 */
+	private Object[] keys;
+	/**
+	 * The values of the entries, at the same slots as their keys.
+	 */
+	private Object[] values;
+	/**
+	 * The number of entries in the dictionary.
+	 */
+	private int size;
+	/**
+	 * The number of entries at which the table is enlarged.
+	 */
+	private int threshold;
 
-		@Override
-		public boolean equals(Object obj) {
-			if (this == obj)
-				return true;
-			if (obj == null)
-				return false;
-			if (!(obj instanceof Entry))
-				return false;
-			Entry other = (Entry) obj;
-			if (key == null) {
-				if (other.key != null)
-					return false;
-			} else if (!key.equals(other.key))
-				return false;
-			if (value == null) {
-				if (other.value != null)
-					return false;
-			} else if (!value.equals(other.value))
-				return false;
-			return true;
-		}
-		
-		
-	}
-	
 	/**
 	 * Creates a new empty dictionary.
 	 */
 	public Dictionary() {
-		this.col = new ArrayIndexedCollection();		
+		allocate(DEFAULT_CAPACITY);
 	}
-	
+
 	/**
 	 * Checks if the dictionary is empty.
 	 * @return true if the dictionary is empty, false otherwise
 	 */
 	public boolean isEmpty() {
-		return this.col.size() == 0;
+		return size == 0;
 	}
-	
+
 	/**
 	 * Gets the size of the dictionary.
 	 * @return the dictionary's size
 	 */
 	public int size() {
-		return this.col.size();
+		return size;
 	}
-	
+
 	/**
 	 * Clears the dictionary of its entries.
 	 */
 	public void clear() {
-		this.col.clear();
+		Arrays.fill(keys, null);
+		Arrays.fill(values, null);
+		size = 0;
 	}
-	
+
 	/**
 	 * Puts the entry in the dictionary at the given key.
 	 * @param key the key
@@ -141,52 +79,146 @@ public class Dictionary {
 	 */
 	public void put(Object key, Object value) {
 		if(key == null) throw new NullPointerException("Key can't be a null value!");
-		
-		Entry entry = (Entry) this.getEntry(key);
-		
-		if(entry != null) {
-			entry.setValue(value);
-		} else {
-			this.col.add(new Entry(key, value));		
+
+		int slot = slotOf(key);
+		if(keys[slot] != null) {
+			values[slot] = value;
+			return;
+		}
+
+		keys[slot] = key;
+		values[slot] = value;
+		size++;
+		if(size > threshold) {
+			resize();
 		}
 	}
-	
+
 	/**
 	 * Gets the value of the entry at the given key.
 	 * @param key the key of the desired object
-	 * @return the object mapped by the given key, or null if the key is not 
+	 * @return the object mapped by the given key, or null if the key is not
 	 * present in the dictionary.
 	 * @throws NullPointerException if the key is null
 	 */
 	public Object get(Object key) {
 		if(key == null) throw new NullPointerException("Key can't be a null value!");
-		
-		for(int i = 0, n = size(); i < n; i++) {
-			Entry currentEntry = (Entry) this.col.get(i);
-			if(key.equals(currentEntry.getKey())) {
-				return currentEntry.getValue();
-			}
-		}
-		return null;
+
+		return values[slotOf(key)];
 	}
-	
+
 	/**
-	 * Private utility method. Gets the dictionary entry at the given key.
-	 * @param key the key of the desired object
-	 * @return the entry mapped by the given key, or null if the key is not 
-	 * present in the dictionary.
+	 * Removes the entry at the given key, if it is present.
+	 * @param key the key of the entry to be removed
+	 * @return the value which was mapped by the given key, or null if the key
+	 * was not present in the dictionary
 	 * @throws NullPointerException if the key is null
 	 */
-	private Object getEntry(Object key) {
+	public Object remove(Object key) {
 		if(key == null) throw new NullPointerException("Key can't be a null value!");
-		
-		for(int i = 0, n = size(); i < n; i++) {
-			Entry currentEntry = (Entry) this.col.get(i);
-			if(key.equals(currentEntry.getKey())) {
-				return currentEntry;
+
+		int slot = slotOf(key);
+		if(keys[slot] == null) return null;
+
+		Object value = values[slot];
+		shiftBack(slot);
+		size--;
+		return value;
+	}
+
+	/**
+	 * Returns an array of all the keys present in the dictionary.
+	 * @return the keys of the dictionary, in no particular order
+	 */
+	public Object[] keys() {
+		Object[] result = new Object[size];
+		int count = 0;
+		for(Object key : keys) {
+			if(key != null) {
+				result[count++] = key;
 			}
 		}
-		return null;
+		return result;
 	}
 
+	/**
+	 * Private utility method. Finds the slot of the given key, or the empty
+	 * slot at which the key would be inserted if it is not present.
+	 * @param key the key of the desired slot
+	 * @return the index of the slot
+	 */
+	private int slotOf(Object key) {
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while(keys[slot] != null && !key.equals(keys[slot])) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Private utility method. Empties the given slot and moves the entries
+	 * of the probe sequence which follows it back, so that every entry stays
+	 * reachable from its home slot without the use of tombstones.
+	 * @param slot the slot to be emptied
+	 */
+	private void shiftBack(int slot) {
+		int mask = keys.length - 1;
+		int next = slot;
+		while(true) {
+			next = (next + 1) & mask;
+			if(keys[next] == null) break;
+
+			int home = hash(keys[next]) & mask;
+			boolean reachable = slot <= next
+					? slot < home && home <= next
+					: slot < home || home <= next;
+			if(reachable) continue;
+
+			keys[slot] = keys[next];
+			values[slot] = values[next];
+			slot = next;
+		}
+		keys[slot] = null;
+		values[slot] = null;
+	}
+
+	/**
+	 * Private utility method. Doubles the capacity of the table and reinserts
+	 * all the entries.
+	 */
+	private void resize() {
+		Object[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(keys.length * 2);
+
+		for(int i = 0; i < oldKeys.length; i++) {
+			if(oldKeys[i] != null) {
+				int slot = slotOf(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	/**
+	 * Private utility method. Allocates empty arrays of the given capacity.
+	 * @param capacity the new capacity of the table, a power of two
+	 */
+	private void allocate(int capacity) {
+		this.keys = new Object[capacity];
+		this.values = new Object[capacity];
+		this.threshold = (int) (capacity * LOAD_FACTOR);
+	}
+
+	/**
+	 * Private utility method. Spreads the hash code of the key, so that keys
+	 * differing only in their upper bits do not collide.
+	 * @param key the key
+	 * @return the spread hash code
+	 */
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
 }
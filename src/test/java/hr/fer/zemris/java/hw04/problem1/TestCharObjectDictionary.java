@@ -0,0 +1,60 @@
+package hr.fer.zemris.java.hw04.problem1;
+import org.junit.Assert;
+import org.junit.Test;
+
+import hr.zemris.java.custom.collections.CharObjectDictionary;
+
+/**
+ * Testing class for the {@link CharObjectDictionary} class.
+ * @author 0036502252
+ *
+ */
+public class TestCharObjectDictionary {
+	@Test
+	public void basicPutAndGetTest() {
+		CharObjectDictionary d = new CharObjectDictionary();
+		d.put('F', "draw");
+		d.put('+', "rotate");
+		d.put('F', "skip");
+
+		Assert.assertEquals("skip", d.get('F'));
+		Assert.assertEquals("rotate", d.get('+'));
+		Assert.assertEquals(null, d.get('G'));
+		Assert.assertEquals(2, d.size());
+	}
+	
+	@Test
+	public void nullValueTest() {
+		CharObjectDictionary d = new CharObjectDictionary();
+		d.put('F', null);
+		Assert.assertTrue(d.containsKey('F'));
+		Assert.assertFalse(d.containsKey('G'));
+		Assert.assertEquals(1, d.size());
+	}
+	
+	@Test
+	public void resizeAndRemoveTest() {
+		CharObjectDictionary d = new CharObjectDictionary();
+		for(char c = 0; c < 2000; c++) {
+			d.put(c, (int) c);
+		}
+		for(char c = 0; c < 2000; c += 3) {
+			Assert.assertEquals((int) c, d.remove(c));
+		}
+		for(char c = 0; c < 2000; c++) {
+			Assert.assertEquals(c % 3 == 0 ? null : (int) c, d.get(c));
+		}
+		Assert.assertEquals(2000 - 667, d.size());
+		Assert.assertEquals(2000 - 667, d.keys().length);
+	}
+	
+	@Test
+	public void clearTest() {
+		CharObjectDictionary d = new CharObjectDictionary();
+		d.put('F', 1);
+		d.put('G', 2);
+		d.clear();
+		Assert.assertTrue(d.isEmpty());
+		Assert.assertEquals(null, d.get('F'));
+	}
+}
@@ -1,4 +1,6 @@
 package hr.fer.zemris.java.hw04.problem1;
+import java.util.Arrays;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -78,4 +80,60 @@ public class TestDictionary {
 		d.put("Key", 56);
 		d.put(null, 42);
 	}
+
+	@Test
+	public void resizeTest() {
+		Dictionary d = new Dictionary();
+		for(int i = 0; i < 1000; i++) {
+			d.put("Key" + i, i);
+		}
+		Assert.assertEquals(1000, d.size());
+		for(int i = 0; i < 1000; i++) {
+			Assert.assertEquals(i, d.get("Key" + i));
+		}
+	}
+
+	@Test
+	public void removeTest() {
+		Dictionary d = new Dictionary();
+		d.put("Key", 1);
+		d.put("Key2", 2);
+		Assert.assertEquals(1, d.remove("Key"));
+		Assert.assertEquals(null, d.remove("Key"));
+		Assert.assertEquals(null, d.get("Key"));
+		Assert.assertEquals(2, d.get("Key2"));
+		Assert.assertEquals(1, d.size());
+	}
+
+	@Test
+	public void removeKeepsCollidingKeysTest() {
+		Dictionary d = new Dictionary();
+		for(int i = 0; i < 500; i++) {
+			d.put(i * 16, i);
+		}
+		for(int i = 0; i < 500; i += 2) {
+			d.remove(i * 16);
+		}
+		Assert.assertEquals(250, d.size());
+		for(int i = 0; i < 500; i++) {
+			Assert.assertEquals(i % 2 == 0 ? null : i, d.get(i * 16));
+		}
+	}
+
+	@Test
+	public void keysTest() {
+		Dictionary d = new Dictionary();
+		d.put("Key", 1);
+		d.put("Key2", 2);
+		d.put("Key", 56);
+		Object[] keys = d.keys();
+		Arrays.sort(keys);
+		Assert.assertArrayEquals(new Object[] {"Key", "Key2"}, keys);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void invalidRemoveTest() {
+		Dictionary d = new Dictionary();
+		d.remove(null);
+	}
 }
@@ -0,0 +1,101 @@
+package hr.fer.zemris.java.hw04.problem3;
+
+import hr.fer.zemris.lsystems.impl.LSystemBuilderImpl;
+import hr.fer.zemris.lsystems.impl.LSystemImpl;
+
+/**
+ * The L-systems shared by the tests. Every call builds a new system, so the
+ * caches of one test never carry over into another.
+ *
+ * @author 0036502252
+ *
+ */
+final class Fixtures {
+
+	private Fixtures() {
+	}
+
+	/**
+	 * Builds the Koch curve.
+	 *
+	 * @return the Koch curve
+	 */
+	static LSystemImpl koch() {
+		return new LSystemBuilderImpl().registerCommand('F', "draw 1")
+				.registerCommand('+', "rotate 60")
+				.registerCommand('-', "rotate -60").setOrigin(0.05, 0.4)
+				.setAngle(0).setUnitLength(0.9)
+				.setUnitLengthDegreeScaler(1.0 / 3.0)
+				.registerProduction('F', "F+F--F+F").setAxiom("F").build();
+	}
+
+	/**
+	 * Builds the dragon curve.
+	 *
+	 * @return the dragon curve
+	 */
+	static LSystemImpl dragon() {
+		return new LSystemBuilderImpl().registerCommand('F', "draw 1")
+				.registerCommand('+', "rotate 90")
+				.registerCommand('-', "rotate -90").setOrigin(0.3, 0.5)
+				.setUnitLength(0.01).setUnitLengthDegreeScaler(1)
+				.registerProduction('X', "X+YF+")
+				.registerProduction('Y', "-FX-Y").setAxiom("FX").build();
+	}
+
+	/**
+	 * Builds the Hilbert curve.
+	 *
+	 * @return the Hilbert curve
+	 */
+	static LSystemImpl hilbert() {
+		return new LSystemBuilderImpl().registerCommand('F', "draw 1")
+				.registerCommand('+', "rotate 90")
+				.registerCommand('-', "rotate -90").setOrigin(0.05, 0.05)
+				.setUnitLength(0.9).setUnitLengthDegreeScaler(1.0 / 2.0)
+				.registerProduction('L', "+RF-LFL-FR+")
+				.registerProduction('R', "-LF+RFR+FL-").setAxiom("L").build();
+	}
+
+	/**
+	 * Builds a plant growing upwards from the bottom center, where F draws,
+	 * + and - rotate by 25 degrees, [ and ] push and pop, S scales by 0.8,
+	 * and G and R color green and red.
+	 *
+	 * @param axiom
+	 *            the axiom of the plant
+	 * @param production
+	 *            the production of F
+	 * @param unitLength
+	 *            the unit length of the plant
+	 * @return the plant
+	 */
+	static LSystemImpl plant(String axiom, String production,
+			double unitLength) {
+		return new LSystemBuilderImpl().registerCommand('F', "draw 1")
+				.registerCommand('+', "rotate 25")
+				.registerCommand('-', "rotate -25")
+				.registerCommand('[', "push").registerCommand(']', "pop")
+				.registerCommand('S', "scale 0.8")
+				.registerCommand('G', "color 00ff00")
+				.registerCommand('R', "color ff0000").setOrigin(0.5, 0)
+				.setAngle(90).setUnitLength(unitLength)
+				.setUnitLengthDegreeScaler(1.0 / 2.05)
+				.registerProduction('F', production).setAxiom(axiom).build();
+	}
+
+	/**
+	 * Builds the plant of the plant1.txt example from its text
+	 * configuration.
+	 *
+	 * @return the plant
+	 */
+	static LSystemImpl textPlant() {
+		return new LSystemBuilderImpl().configureFromText(new String[] {
+				"origin 0.5 0.0", "angle 90", "unitLength 0.1",
+				"unitLengthDegreeScaler 1.0 /2.05", "command F draw 1",
+				"command + rotate 25.7", "command - rotate -25.7",
+				"command [ push", "command ] pop", "command G color 00FF00",
+				"axiom GF", "production F F[+F]F[-F]F" }).build();
+	}
+}
@@ -0,0 +1,146 @@
+package hr.fer.zemris.java.hw04.problem3;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hr.fer.zemris.lsystems.LSystem;
+import hr.fer.zemris.lsystems.impl.LSystemBuilderImpl;
+import hr.fer.zemris.lsystems.impl.painters.BatchingPainter;
+import hr.fer.zemris.lsystems.impl.painters.BulkPainter;
+import hr.fer.zemris.lsystems.impl.painters.Graphics2DPainter;
+
+/**
+ * Testing class for the {@link BatchingPainter} class.
+ * 
+ * @author 0036502252
+ *
+ */
+public class TestBatchingPainter {
+
+	@Test
+	public void mergeCollinearTest() {
+		List<String> lines = new ArrayList<>();
+		BatchingPainter painter = new BatchingPainter(
+				(x0, y0, x1, y1, color, size) -> lines
+						.add(x0 + " " + y0 + " " + x1 + " " + y1));
+		painter.drawLine(0, 0, 0.25, 0, Color.BLACK, 1);
+		painter.drawLine(0.25, 0, 0.5, 0, Color.BLACK, 1);
+		painter.drawLine(0.5, 0, 0.5, 0.5, Color.BLACK, 1);
+		painter.drawLine(0.5, 0.5, 0.5, 0.25, Color.BLACK, 1);
+		Assert.assertTrue(lines.isEmpty());
+
+		painter.flush();
+		Assert.assertEquals(3, lines.size());
+		Assert.assertEquals("0.0 0.0 0.5 0.0", lines.get(0));
+		Assert.assertEquals("0.5 0.0 0.5 0.5", lines.get(1));
+		Assert.assertEquals("0.5 0.5 0.5 0.25", lines.get(2));
+	}
+
+	@Test
+	public void bulkGroupingTest() {
+		List<String> batches = new ArrayList<>();
+		BulkPainter bulk = new BulkPainter() {
+			@Override
+			public void drawLine(double x0, double y0, double x1, double y1,
+					Color color, float size) {
+				Assert.fail();
+			}
+
+			@Override
+			public void drawPolylines(float[] coordinates, int[] lengths,
+					int polylines, Color color, float size) {
+				StringBuilder sb = new StringBuilder(color.getRed() + ":");
+				int index = 0;
+				for (int i = 0; i < polylines; i++) {
+					sb.append(" [");
+					for (int j = 0; j < lengths[i]; j++, index += 2) {
+						sb.append("(" + coordinates[index] + ","
+								+ coordinates[index + 1] + ")");
+					}
+					sb.append("]");
+				}
+				batches.add(sb.toString());
+			}
+		};
+
+		BatchingPainter painter = new BatchingPainter(bulk);
+		painter.drawLine(0, 0, 0.5, 0, Color.RED, 1);
+		painter.drawLine(0, 1, 1, 1, Color.BLACK, 1);
+		painter.drawLine(0.5, 0, 0.5, 0.5, Color.RED, 1);
+		painter.drawLine(1, 1, 1, 0, Color.BLACK, 1);
+		painter.drawLine(0.25, 0.25, 0.75, 0.75, Color.RED, 1);
+		painter.flush();
+
+		Assert.assertEquals(2, batches.size());
+		Assert.assertEquals(
+				"255: [(0.0,0.0)(0.5,0.0)(0.5,0.5)] [(0.25,0.25)(0.75,0.75)]",
+				batches.get(0));
+		Assert.assertEquals("0: [(0.0,1.0)(1.0,1.0)(1.0,0.0)]",
+				batches.get(1));
+	}
+
+	@Test
+	public void flushWhenFullTest() {
+		List<String> lines = new ArrayList<>();
+		BatchingPainter painter = new BatchingPainter(
+				(x0, y0, x1, y1, color, size) -> lines.add(color.toString()),
+				4);
+		painter.drawLine(0, 0, 1, 0, Color.BLACK, 1);
+		painter.drawLine(0, 1, 1, 1, Color.BLACK, 1);
+		Assert.assertTrue(lines.isEmpty());
+
+		painter.drawLine(0, 0.5, 1, 0.5, Color.BLACK, 1);
+		Assert.assertEquals(2, lines.size());
+		painter.flush();
+		Assert.assertEquals(3, lines.size());
+	}
+
+	@Test
+	public void graphics2DTest() {
+		BufferedImage image = new BufferedImage(11, 11,
+				BufferedImage.TYPE_INT_RGB);
+		Graphics2D g2d = image.createGraphics();
+		BatchingPainter painter = new BatchingPainter(
+				new Graphics2DPainter(g2d, 11, 11));
+		painter.drawLine(0, 0, 0.5, 0, Color.WHITE, 1);
+		painter.drawLine(0.5, 0, 1, 0, Color.WHITE, 1);
+		painter.drawLine(1, 0, 1, 1, Color.RED, 1);
+		painter.flush();
+		g2d.dispose();
+
+		Assert.assertEquals(Color.WHITE.getRGB(), image.getRGB(5, 10));
+		Assert.assertEquals(Color.RED.getRGB(), image.getRGB(10, 5));
+		Assert.assertEquals(Color.BLACK.getRGB(), image.getRGB(5, 5));
+	}
+
+	@Test
+	public void drawsEveryLineOfSystemTest() {
+		List<Double> lengths = new ArrayList<>();
+		double[] total = new double[2];
+		LSystemBuilderImpl builder = new LSystemBuilderImpl();
+		builder.configureFromText(new String[] { "origin 0.05 0.4",
+				"unitLength 0.9", "unitLengthDegreeScaler 1.0 / 4.0",
+				"command F draw 1", "command + rotate 90",
+				"command - rotate -90", "axiom F",
+				"production F F+F-F-FF+F+F-F" });
+		LSystem system = builder.build();
+		system.draw(3, (x0, y0, x1, y1, color, size) -> total[0] += Math
+				.hypot(x1 - x0, y1 - y0));
+
+		BatchingPainter painter = new BatchingPainter(
+				(x0, y0, x1, y1, color, size) -> {
+					lengths.add(Math.hypot(x1 - x0, y1 - y0));
+					total[1] += Math.hypot(x1 - x0, y1 - y0);
+				});
+		system.draw(3, painter);
+		painter.flush();
+		Assert.assertEquals(total[0], total[1], 1E-5);
+		Assert.assertTrue(lengths.size() < 512);
+	}
+}
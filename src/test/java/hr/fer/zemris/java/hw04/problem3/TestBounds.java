@@ -0,0 +1,135 @@
+package hr.fer.zemris.java.hw04.problem3;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hr.fer.zemris.lsystems.LSystem;
+import hr.fer.zemris.lsystems.Painter;
+import hr.fer.zemris.lsystems.impl.Bounds;
+import hr.fer.zemris.lsystems.impl.LSystemBuilderImpl;
+import hr.fer.zemris.lsystems.impl.LSystemImpl;
+
+/**
+ * Testing class for the bounds computed by the {@link LSystemImpl} class.
+ *
+ * @author 0036502252
+ *
+ */
+public class TestBounds {
+	private static final double DELTA = 1e-9;
+
+	private static double[] measure(LSystem system, int level) {
+		double[] measured = { Double.POSITIVE_INFINITY,
+				Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+				Double.NEGATIVE_INFINITY, 0, 0 };
+		Painter painter = (x0, y0, x1, y1, color, size) -> {
+			measured[0] = Math.min(measured[0], Math.min(x0, x1));
+			measured[1] = Math.min(measured[1], Math.min(y0, y1));
+			measured[2] = Math.max(measured[2], Math.max(x0, x1));
+			measured[3] = Math.max(measured[3], Math.max(y0, y1));
+			measured[4] = x1;
+			measured[5] = y1;
+		};
+		system.draw(level, painter);
+		return measured;
+	}
+
+	private static void assertBounds(double[] expected, Bounds bounds) {
+		Assert.assertEquals(expected[0], bounds.getMinX(), DELTA);
+		Assert.assertEquals(expected[1], bounds.getMinY(), DELTA);
+		Assert.assertEquals(expected[2], bounds.getMaxX(), DELTA);
+		Assert.assertEquals(expected[3], bounds.getMaxY(), DELTA);
+	}
+
+	@Test
+	public void boundsTest() {
+		LSystemImpl[] systems = { Fixtures.koch(),
+				Fixtures.plant("GF", "F[+SF]F[-GF]SF", 0.3), Fixtures.dragon(),
+				Fixtures.hilbert() };
+		for (LSystemImpl system : systems) {
+			for (int level = 0; level <= 6; level++) {
+				assertBounds(measure(system, level), system.bounds(level));
+			}
+		}
+	}
+
+	@Test
+	public void endTest() {
+		for (LSystemImpl system : new LSystemImpl[] { Fixtures.koch(),
+				Fixtures.dragon() }) {
+			for (int level = 1; level <= 8; level++) {
+				double[] measured = measure(system, level);
+				Bounds bounds = system.bounds(level);
+				Assert.assertEquals(measured[4], bounds.getEndX(), DELTA);
+				Assert.assertEquals(measured[5], bounds.getEndY(), DELTA);
+			}
+		}
+	}
+
+	@Test
+	public void deepLevelTest() {
+		Bounds bounds = Fixtures.koch().bounds(40);
+		Assert.assertEquals(0.05, bounds.getMinX(), DELTA);
+		Assert.assertEquals(0.95, bounds.getMaxX(), DELTA);
+		Assert.assertEquals(0.95, bounds.getEndX(), DELTA);
+		Assert.assertEquals(0.4, bounds.getEndY(), DELTA);
+		Assert.assertEquals(0.4 + 0.9 * Math.sqrt(3) / 6, bounds.getMaxY(),
+				1e-6);
+	}
+
+	@Test
+	public void deepRecursionTest() {
+		LSystemImpl system = new LSystemBuilderImpl()
+				.registerCommand('F', "draw 1")
+				.registerCommand('+', "rotate 90")
+				.registerProduction('X', "+X").setAxiom("XF").build();
+		Bounds bounds = system.bounds(100001);
+		Assert.assertEquals(0, bounds.getEndX(), DELTA);
+		Assert.assertEquals(0.1, bounds.getEndY(), DELTA);
+		Assert.assertEquals(0.1, bounds.getMaxY(), DELTA);
+
+		LSystemImpl dragon = Fixtures.dragon();
+		for (int level : new int[] { 5000, 20000, 100000 }) {
+			dragon.bounds(level);
+		}
+	}
+
+	@Test
+	public void negativeLevelTest() {
+		LSystemImpl[] systems = { Fixtures.koch(),
+				Fixtures.plant("GF", "F[+SF]F[-GF]SF", 0.3), Fixtures.dragon(),
+				Fixtures.hilbert() };
+		for (LSystemImpl system : systems) {
+			assertBounds(measure(system, -1), system.bounds(-1));
+		}
+		double[] measured = measure(Fixtures.koch().fitted(-1, 0.1), -1);
+		Assert.assertEquals(0.1, measured[0], DELTA);
+		Assert.assertEquals(0.9, measured[2], DELTA);
+	}
+
+	@Test
+	public void fittedTest() {
+		LSystemImpl[] systems = {
+				Fixtures.plant("GF", "F[+SF]F[-GF]SF", 0.3), Fixtures.dragon(),
+				Fixtures.hilbert() };
+		for (LSystemImpl system : systems) {
+			LSystemImpl fitted = system.fitted(5, 0.05);
+			double[] measured = measure(fitted, 5);
+			Assert.assertTrue(measured[0] >= 0.05 - DELTA);
+			Assert.assertTrue(measured[1] >= 0.05 - DELTA);
+			Assert.assertTrue(measured[2] <= 0.95 + DELTA);
+			Assert.assertTrue(measured[3] <= 0.95 + DELTA);
+			Assert.assertEquals(0.9, Math.max(measured[2] - measured[0],
+					measured[3] - measured[1]), DELTA);
+			Assert.assertEquals(0.5, (measured[0] + measured[2]) / 2, DELTA);
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void unbalancedTest() {
+		LSystemImpl system = new LSystemBuilderImpl()
+				.registerCommand('F', "draw 1").registerCommand('[', "push")
+				.registerProduction('X', "[F").setAxiom("FX").build();
+		system.bounds(2);
+	}
+}
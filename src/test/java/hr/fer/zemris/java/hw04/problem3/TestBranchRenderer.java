@@ -0,0 +1,68 @@
+package hr.fer.zemris.java.hw04.problem3;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hr.fer.zemris.lsystems.impl.LSystemBuilderImpl;
+import hr.fer.zemris.lsystems.impl.LSystemImpl;
+
+/**
+ * Testing class for the parallel drawing of branches by {@link LSystemImpl}.
+ * 
+ * @author 0036502252
+ *
+ */
+public class TestBranchRenderer {
+
+	/**
+	 * Draws the system, collecting its lines.
+	 * 
+	 * @param system
+	 *            the system to be drawn
+	 * @param level
+	 *            the level to be drawn
+	 * @param branches
+	 *            whether the branches are drawn in parallel
+	 * @return the lines
+	 */
+	private static List<String> lines(LSystemImpl system, int level,
+			boolean branches) {
+		List<String> lines = new ArrayList<>();
+		hr.fer.zemris.lsystems.Painter painter = (x0, y0, x1, y1, color,
+				size) -> lines.add(x0 + " " + y0 + " " + x1 + " " + y1 + " "
+						+ color.getRGB());
+		if (branches) {
+			system.drawBranches(level, painter);
+		} else {
+			system.draw(level, painter);
+		}
+		return lines;
+	}
+
+	@Test
+	public void sameLinesTest() {
+		LSystemBuilderImpl builder = new LSystemBuilderImpl();
+		builder.configureFromText(new String[] { "origin 0.5 0.0",
+				"angle 90", "unitLength 0.3",
+				"unitLengthDegreeScaler 1.0 /2.05", "command F draw 1",
+				"command + rotate 25.7", "command - rotate -25.7",
+				"command [ push", "command ] pop", "command G color 00FF00",
+				"command R color FF0000", "command s scale 0.9",
+				"axiom GF", "production F F[+RsF]F[-GF]F" });
+		LSystemImpl system = builder.build();
+		Assert.assertEquals(lines(system, 7, false), lines(system, 7, true));
+	}
+
+	@Test
+	public void unbalancedTest() {
+		LSystemBuilderImpl builder = new LSystemBuilderImpl();
+		builder.configureFromText(new String[] { "command F draw 1",
+				"command + rotate 20", "command [ push", "command ] pop",
+				"unitLength 0.001", "axiom [F[+F", "production F F[+F]F[F" });
+		LSystemImpl system = builder.build();
+		Assert.assertEquals(lines(system, 6, false), lines(system, 6, true));
+	}
+}
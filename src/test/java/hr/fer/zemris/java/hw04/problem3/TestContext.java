@@ -0,0 +1,87 @@
+package hr.fer.zemris.java.hw04.problem3;
+
+import java.awt.Color;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hr.fer.zemris.lsystems.impl.Context;
+import hr.fer.zemris.lsystems.impl.TurtleState;
+import hr.fer.zemris.math.Vector2D;
+import hr.zemris.java.custom.collections.EmptyStackException;
+
+/**
+ * Testing class for the {@link Context} class.
+ * 
+ * @author 0036502252
+ *
+ */
+public class TestContext {
+
+	@Test
+	public void pushAndPopRestoreStateTest() {
+		Context ctx = new Context();
+		ctx.pushState(new TurtleState(new Vector2D(1, 2), new Vector2D(1, 0),
+				Color.BLACK, 0.5));
+
+		for (int i = 0; i < 100; i++) {
+			ctx.pushState();
+			TurtleState state = ctx.getCurrentState();
+			state.setPosition(i, -i);
+			state.setDirection(0, 1);
+			state.setUnitLength(i);
+			state.setDrawingColor(i % 2 == 0 ? Color.RED : Color.GREEN);
+		}
+		Assert.assertEquals(101, ctx.getDepth());
+
+		for (int i = 99; i > 0; i--) {
+			ctx.popState();
+			TurtleState state = ctx.getCurrentState();
+			Assert.assertEquals(i - 1, state.getX(), 0);
+			Assert.assertEquals(1 - i, state.getY(), 0);
+			Assert.assertEquals(i - 1, state.getUnitLength(), 0);
+			Assert.assertSame(i % 2 == 1 ? Color.RED : Color.GREEN,
+					state.getDrawingColor());
+		}
+
+		ctx.popState();
+		TurtleState state = ctx.getCurrentState();
+		Assert.assertEquals(new Vector2D(1, 2), state.getCurrentPosition());
+		Assert.assertEquals(new Vector2D(1, 0), state.getDirection());
+		Assert.assertEquals(0.5, state.getUnitLength(), 0);
+		Assert.assertSame(Color.BLACK, state.getDrawingColor());
+		Assert.assertEquals(1, ctx.getDepth());
+	}
+
+	@Test
+	public void pushGivenStateTest() {
+		Context ctx = new Context();
+		TurtleState first = new TurtleState(new Vector2D(0, 0),
+				new Vector2D(1, 0), Color.BLACK, 1);
+		TurtleState second = new TurtleState(new Vector2D(3, 4),
+				new Vector2D(0, 1), Color.BLUE, 2);
+		ctx.pushState(first);
+		ctx.pushState(second);
+		Assert.assertSame(second, ctx.getCurrentState());
+
+		ctx.popState();
+		Assert.assertEquals(new Vector2D(0, 0),
+				ctx.getCurrentState().getCurrentPosition());
+		Assert.assertSame(Color.BLACK,
+				ctx.getCurrentState().getDrawingColor());
+	}
+
+	@Test(expected = EmptyStackException.class)
+	public void popEmptyTest() {
+		Context ctx = new Context();
+		ctx.pushState(new TurtleState(new Vector2D(0, 0), new Vector2D(1, 0),
+				Color.BLACK, 1));
+		ctx.popState();
+		ctx.popState();
+	}
+
+	@Test(expected = EmptyStackException.class)
+	public void peekEmptyTest() {
+		new Context().getCurrentState();
+	}
+}
@@ -0,0 +1,80 @@
+package hr.fer.zemris.java.hw04.problem3;
+
+import java.awt.Color;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hr.fer.zemris.lsystems.impl.Context;
+import hr.fer.zemris.lsystems.impl.DirectionTable;
+import hr.fer.zemris.lsystems.impl.TurtleState;
+import hr.fer.zemris.lsystems.impl.commands.RotateCommand;
+import hr.fer.zemris.math.Vector2D;
+
+/**
+ * Testing class for the {@link DirectionTable} class and the quantized
+ * {@link RotateCommand}s.
+ * 
+ * @author 0036502252
+ *
+ */
+public class TestDirectionTable {
+
+	@Test
+	public void sizeTest() {
+		Assert.assertEquals(12, DirectionTable.forAngles(0, 90, -60).size());
+		Assert.assertEquals(3600,
+				DirectionTable.forAngles(90, 25.7, -25.7).size());
+		Assert.assertEquals(8, DirectionTable.forAngles(45).size());
+	}
+
+	@Test
+	public void irrationalAngleTest() {
+		Assert.assertNull(DirectionTable.forAngles(90, Math.sqrt(2)));
+		Assert.assertNull(DirectionTable.forAngles(Double.NaN));
+	}
+
+	@Test
+	public void indexOfTest() {
+		DirectionTable table = DirectionTable.forAngles(60);
+		Assert.assertEquals(1, table.indexOf(60));
+		Assert.assertEquals(5, table.indexOf(-60));
+		Assert.assertEquals(0, table.indexOf(720));
+		Assert.assertEquals(0.5, table.getX(1), 1E-15);
+	}
+
+	@Test
+	public void quantizedRotationDoesNotDriftTest() {
+		DirectionTable table = DirectionTable.forAngles(0, 25.7);
+		RotateCommand rotate = new RotateCommand(25.7).quantized(table);
+
+		Context ctx = new Context();
+		TurtleState state = new TurtleState(new Vector2D(0, 0),
+				new Vector2D(1, 0), Color.BLACK, 1);
+		state.setDirection(1, 0, 0);
+		ctx.pushState(state);
+
+		for (int i = 0; i < 3600 * 100; i++) {
+			rotate.execute(ctx, null);
+		}
+		Assert.assertEquals(0, state.getDirectionIndex());
+		Assert.assertEquals(1, state.getDirectionX(), 0);
+		Assert.assertEquals(0, state.getDirectionY(), 0);
+	}
+
+	@Test
+	public void quantizedFallsBackTest() {
+		RotateCommand rotate = new RotateCommand(90)
+				.quantized(DirectionTable.forAngles(90));
+
+		Context ctx = new Context();
+		ctx.pushState(new TurtleState(new Vector2D(0, 0), new Vector2D(1, 1),
+				Color.BLACK, 1));
+		rotate.execute(ctx, null);
+
+		TurtleState state = ctx.getCurrentState();
+		Assert.assertEquals(-1, state.getDirectionIndex());
+		Assert.assertEquals(-Math.sqrt(0.5), state.getDirectionX(), 1E-12);
+		Assert.assertEquals(Math.sqrt(0.5), state.getDirectionY(), 1E-12);
+	}
+}
@@ -0,0 +1,124 @@
+package hr.fer.zemris.java.hw04.problem3;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hr.fer.zemris.lsystems.impl.LSystemBuilderImpl;
+import hr.fer.zemris.lsystems.impl.LSystemImpl;
+import hr.fer.zemris.lsystems.impl.painters.RasterPainter;
+
+/**
+ * Testing class for the {@link LSystemImpl#drawAdaptive} methods.
+ *
+ * @author 0036502252
+ *
+ */
+public class TestDrawAdaptive {
+	private static final int WHITE = Color.WHITE.getRGB();
+
+	private static int[] counts(LSystemImpl system, int level, int size) {
+		int[] counts = new int[2];
+		system.draw(level, (x0, y0, x1, y1, color, width) -> counts[0]++);
+		system.drawAdaptive(level, size, size,
+				(x0, y0, x1, y1, color, width) -> counts[1]++);
+		return counts;
+	}
+
+	private static double difference(LSystemImpl system, int level,
+			int size) {
+		RasterPainter full = new RasterPainter(size, size);
+		RasterPainter adaptive = new RasterPainter(size, size);
+		system.draw(level, full);
+		system.drawAdaptive(level, size, size, adaptive);
+		full.rasterize();
+		adaptive.rasterize();
+
+		int[] expected = full.getFramebuffer();
+		int[] actual = adaptive.getFramebuffer();
+		int drawn = 0;
+		int different = 0;
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				if (expected[y * size + x] != WHITE) {
+					drawn++;
+				}
+				if (!near(expected, actual[y * size + x], x, y, size)
+						|| !near(actual, expected[y * size + x], x, y,
+								size)) {
+					different++;
+				}
+			}
+		}
+		return (double) different / drawn;
+	}
+
+	private static boolean near(int[] pixels, int color, int x, int y,
+			int size) {
+		if (color == WHITE) {
+			return true;
+		}
+		for (int j = Math.max(0, y - 1); j <= Math.min(size - 1,
+				y + 1); j++) {
+			for (int i = Math.max(0, x - 1); i <= Math.min(size - 1,
+					x + 1); i++) {
+				if (pixels[j * size + i] == color) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Test
+	public void fewerLinesTest() {
+		int[] koch = counts(Fixtures.koch(), 9, 300);
+		Assert.assertEquals(1 << 18, koch[0]);
+		Assert.assertTrue(koch[1] < koch[0] / 50);
+
+		int[] plant = counts(Fixtures.plant("F", "GF[+F]F[-F]F", 0.5), 7,
+				100);
+		Assert.assertTrue(plant[1] <= plant[0] / 5);
+	}
+
+	@Test
+	public void sameImageTest() {
+		Assert.assertTrue(difference(Fixtures.koch(), 8, 300) < 0.01);
+		Assert.assertTrue(difference(Fixtures.plant("F", "GF[+F]F[-F]F", 0.5),
+				7, 100) < 0.01);
+	}
+
+	@Test
+	public void fullDetailTest() {
+		int[] counts = counts(Fixtures.koch(), 5, Integer.MAX_VALUE);
+		Assert.assertEquals(counts[0], counts[1]);
+	}
+
+	@Test
+	public void chordColorTest() {
+		LSystemImpl system = new LSystemBuilderImpl()
+				.registerCommand('F', "draw 1")
+				.registerCommand('R', "color ff0000").setOrigin(0.1, 0.5)
+				.setUnitLength(0.8).setUnitLengthDegreeScaler(1.0 / 2.0)
+				.registerProduction('F', "FRF").setAxiom("F").build();
+		List<Color> full = new ArrayList<>();
+		List<Color> adaptive = new ArrayList<>();
+		system.draw(4, (x0, y0, x1, y1, color, size) -> full.add(color));
+		system.drawAdaptive(4, 1, 1,
+				(x0, y0, x1, y1, color, size) -> adaptive.add(color));
+
+		Assert.assertEquals(1, adaptive.size());
+		Assert.assertFalse(Color.RED.equals(full.get(0)));
+		Assert.assertEquals(full.get(0), adaptive.get(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidThresholdTest() {
+		Fixtures.koch().drawAdaptive(3, 100, 100, 0,
+				(x0, y0, x1, y1, color, size) -> {
+				});
+	}
+}
@@ -0,0 +1,88 @@
+package hr.fer.zemris.java.hw04.problem3;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hr.fer.zemris.lsystems.Painter;
+import hr.fer.zemris.lsystems.impl.LSystemImpl;
+
+/**
+ * Testing class for the {@link LSystemImpl#drawVisible} method.
+ *
+ * @author 0036502252
+ *
+ */
+public class TestDrawVisible {
+
+	private static List<String> visibleLines(int level, double minX,
+			double minY, double maxX, double maxY, boolean culled,
+			LSystemImpl system) {
+		List<String> lines = new ArrayList<>();
+		Painter painter = (x0, y0, x1, y1, color, size) -> {
+			if (Math.max(x0, x1) >= minX && Math.min(x0, x1) <= maxX
+					&& Math.max(y0, y1) >= minY && Math.min(y0, y1) <= maxY) {
+				lines.add(String.format("%.9f %.9f %.9f %.9f %s", x0, y0, x1,
+						y1, color));
+			}
+		};
+		if (culled) {
+			system.drawVisible(level, minX, minY, maxX, maxY, painter);
+		} else {
+			system.draw(level, painter);
+		}
+		return lines;
+	}
+
+	private static int count(int level, double minX, double minY, double maxX,
+			double maxY, LSystemImpl system) {
+		int[] count = new int[1];
+		system.drawVisible(level, minX, minY, maxX, maxY,
+				(x0, y0, x1, y1, color, size) -> count[0]++);
+		return count[0];
+	}
+
+	@Test
+	public void sameVisibleLinesTest() {
+		LSystemImpl koch = Fixtures.koch();
+		Assert.assertEquals(
+				visibleLines(7, 0.1013, 0.3, 0.2017, 0.5, false, koch),
+				visibleLines(7, 0.1013, 0.3, 0.2017, 0.5, true, koch));
+
+		LSystemImpl plant = Fixtures.plant("F", "F[+SF]RF[-GF]SF", 0.3);
+		Assert.assertEquals(
+				visibleLines(6, 0.4013, 0.5011, 0.5517, 0.6019, false,
+						plant),
+				visibleLines(6, 0.4013, 0.5011, 0.5517, 0.6019, true,
+						plant));
+	}
+
+	@Test
+	public void negativeLevelTest() {
+		LSystemImpl plant = Fixtures.plant("F", "F[+SF]RF[-GF]SF", 0.3);
+		List<String> lines = visibleLines(-1, -10, -10, 10, 10, true, plant);
+		Assert.assertEquals(1, lines.size());
+		Assert.assertEquals(
+				visibleLines(-1, -10, -10, 10, 10, false, plant), lines);
+	}
+
+	@Test
+	public void cullingTest() {
+		LSystemImpl koch = Fixtures.koch();
+		int full = count(9, -10, -10, 10, 10, koch);
+		int zoomed = count(9, 0.1, 0.3, 0.12, 0.5, koch);
+		Assert.assertEquals(1 << 18, full);
+		Assert.assertTrue(zoomed > 0);
+		Assert.assertTrue(zoomed < full / 20);
+		Assert.assertEquals(0, count(9, 2, 2, 3, 3, koch));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void emptyViewportTest() {
+		Fixtures.koch().drawVisible(3, 0.5, 0, 0.4, 1,
+				(x0, y0, x1, y1, color, size) -> {
+				});
+	}
+}
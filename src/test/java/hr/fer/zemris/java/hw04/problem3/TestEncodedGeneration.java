@@ -0,0 +1,64 @@
+package hr.fer.zemris.java.hw04.problem3;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hr.fer.zemris.lsystems.impl.EncodedGeneration;
+import hr.fer.zemris.lsystems.impl.LSystemBuilderImpl;
+import hr.fer.zemris.lsystems.impl.LSystemImpl;
+
+/**
+ * Testing class for the {@link EncodedGeneration} class.
+ * 
+ * @author 0036502252
+ *
+ */
+public class TestEncodedGeneration {
+
+	@Test
+	public void packedGenerationTest() {
+		LSystemImpl system = Fixtures.textPlant();
+		String expected = system.generate(4);
+		EncodedGeneration generation = system.generateEncoded(4);
+		Assert.assertTrue(generation.isPacked());
+		Assert.assertEquals((expected.length() + 1) / 2,
+				generation.sizeInBytes());
+		Assert.assertEquals(expected.length(), generation.length());
+		for (int i = 0; i < expected.length(); i++) {
+			Assert.assertEquals(expected.charAt(i), generation.charAt(i));
+		}
+	}
+
+	@Test
+	public void bytePerSymbolTest() {
+		LSystemBuilderImpl builder = new LSystemBuilderImpl();
+		builder.configureFromText(new String[] { "axiom A",
+				"production A ABCDEFGHIJKLMNOPQ" });
+		LSystemImpl system = builder.build();
+
+		String expected = system.generate(3);
+		EncodedGeneration generation = system.generateEncoded(3);
+		Assert.assertFalse(generation.isPacked());
+		Assert.assertEquals(expected.length(), generation.sizeInBytes());
+		for (int i = 0; i < expected.length(); i++) {
+			Assert.assertEquals(expected.charAt(i), generation.charAt(i));
+		}
+	}
+
+	@Test
+	public void drawTest() {
+		LSystemImpl system = Fixtures.textPlant();
+		List<String> expected = new ArrayList<>();
+		system.draw(4, (x0, y0, x1, y1, color, size) -> expected
+				.add(x0 + " " + y0 + " " + x1 + " " + y1 + " " + color));
+
+		List<String> actual = new ArrayList<>();
+		system.draw(system.generateEncoded(4), (x0, y0, x1, y1, color,
+				size) -> actual.add(x0 + " " + y0 + " " + x1 + " " + y1 + " "
+						+ color));
+		Assert.assertEquals(expected, actual);
+	}
+}
@@ -0,0 +1,64 @@
+package hr.fer.zemris.java.hw04.problem3;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hr.fer.zemris.lsystems.impl.GenerationCache;
+import hr.fer.zemris.lsystems.impl.LSystemBuilderImpl;
+import hr.fer.zemris.lsystems.impl.LSystemImpl;
+
+/**
+ * Testing class for the {@link GenerationCache} class.
+ * 
+ * @author 0036502252
+ *
+ */
+public class TestGenerationCache {
+	@Test
+	public void floorTest() {
+		GenerationCache cache = new GenerationCache(1024);
+		cache.put(1, "F+F".toCharArray());
+		cache.put(3, "F+F+F+F".toCharArray());
+
+		Assert.assertNull(cache.floor(0));
+		Assert.assertEquals(1, cache.floor(2).getLevel());
+		Assert.assertEquals(3, cache.floor(7).getLevel());
+		Assert.assertEquals("F+F+F+F",
+				new String(cache.floor(3).getGeneration()));
+	}
+
+	@Test
+	public void evictionTest() {
+		GenerationCache cache = new GenerationCache(200);
+		cache.put(1, new char[30]);
+		cache.put(2, new char[30]);
+		cache.floor(1);
+		cache.put(3, new char[30]);
+
+		Assert.assertTrue(cache.getUsed() <= 200);
+		Assert.assertEquals(1, cache.floor(2).getLevel());
+		Assert.assertEquals(3, cache.floor(3).getLevel());
+	}
+
+	@Test
+	public void oversizedTest() {
+		GenerationCache cache = new GenerationCache(10);
+		cache.put(1, new char[30]);
+		Assert.assertNull(cache.floor(1));
+		Assert.assertEquals(0, cache.getUsed());
+	}
+
+	@Test
+	public void extendFromCacheTest() {
+		LSystemBuilderImpl builder = new LSystemBuilderImpl();
+		builder.registerProduction('F', "F+F--F+F").setAxiom("F");
+		LSystemImpl system = builder.build();
+		String level3 = system.generate(3);
+		Assert.assertEquals(3, system.getGenerationCache().floor(5).getLevel());
+		Assert.assertEquals(level3, system.generate(3));
+
+		String level5 = system.generate(5);
+		system.getGenerationCache().clear();
+		Assert.assertEquals(level5, system.generate(5));
+	}
+}
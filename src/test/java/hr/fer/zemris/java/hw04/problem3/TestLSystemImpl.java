@@ -0,0 +1,172 @@
+package hr.fer.zemris.java.hw04.problem3;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hr.fer.zemris.lsystems.LSystem;
+import hr.fer.zemris.lsystems.impl.CharTable;
+import hr.fer.zemris.lsystems.impl.DerivationCursor;
+import hr.fer.zemris.lsystems.impl.LSystemBuilderImpl;
+import hr.fer.zemris.lsystems.impl.LSystemImpl;
+import hr.fer.zemris.lsystems.impl.LazyGeneration;
+import hr.zemris.java.custom.collections.Dictionary;
+
+/**
+ * Testing class for the {@link LSystem}s created by the
+ * {@link LSystemBuilderImpl}.
+ * 
+ * @author 0036502252
+ *
+ */
+public class TestLSystemImpl {
+
+	@Test
+	public void generateTest() {
+		LSystem system = Fixtures.koch();
+		Assert.assertEquals("F", system.generate(0));
+		Assert.assertEquals("F+F--F+F", system.generate(1));
+		Assert.assertEquals(
+				"F+F--F+F+F+F--F+F--F+F--F+F+F+F--F+F", system.generate(2));
+	}
+
+	@Test
+	public void cursorMatchesGenerateTest() {
+		CharTable<char[]> productions = new CharTable<>(
+				new char[] { 'L', 'R' },
+				new Object[] { "+RF-LFL-FR+".toCharArray(),
+						"-LF+RFR+FL-".toCharArray() });
+		LSystem system = new LSystemBuilderImpl()
+				.registerProduction('L', "+RF-LFL-FR+")
+				.registerProduction('R', "-LF+RFR+FL-").setAxiom("L").build();
+
+		for (int level = 0; level <= 5; level++) {
+			DerivationCursor cursor = new DerivationCursor(
+					"L".toCharArray(), productions, level);
+			StringBuilder sb = new StringBuilder();
+			for (int symbol = cursor.next(); symbol != -1; symbol = cursor
+					.next()) {
+				sb.append((char) symbol);
+			}
+			Assert.assertEquals(system.generate(level), sb.toString());
+		}
+	}
+
+	@Test
+	public void drawTest() {
+		List<double[]> lines = new ArrayList<>();
+		Fixtures.koch().draw(2, (x0, y0, x1, y1, color, size) -> lines
+				.add(new double[] { x0, y0, x1, y1 }));
+
+		Assert.assertEquals(16, lines.size());
+		Assert.assertEquals(0.05, lines.get(0)[0], 1E-9);
+		Assert.assertEquals(0.4, lines.get(0)[1], 1E-9);
+		Assert.assertEquals(0.95, lines.get(15)[2], 1E-9);
+		Assert.assertEquals(0.4, lines.get(15)[3], 1E-9);
+		for (int i = 1; i < lines.size(); i++) {
+			Assert.assertEquals(lines.get(i - 1)[2], lines.get(i)[0], 1E-9);
+			Assert.assertEquals(lines.get(i - 1)[3], lines.get(i)[1], 1E-9);
+		}
+	}
+
+	@Test
+	public void parallelGenerateTest() {
+		Dictionary productions = new Dictionary();
+		productions.put('X', "X+YF+");
+		productions.put('Y', "-FX-Y");
+		LSystem system = new LSystemBuilderImpl()
+				.registerProduction('X', "X+YF+")
+				.registerProduction('Y', "-FX-Y").setAxiom("FX").build();
+
+		String generation = "FX";
+		for (int level = 1; level <= 19; level++) {
+			StringBuilder sb = new StringBuilder();
+			for (char symbol : generation.toCharArray()) {
+				String prod = (String) productions.get(symbol);
+				sb.append(prod == null ? String.valueOf(symbol) : prod);
+			}
+			generation = sb.toString();
+		}
+		Assert.assertTrue(generation.length() > 1 << 20);
+		Assert.assertEquals(generation, system.generate(19));
+	}
+
+	@Test
+	public void lengthAndCountTest() {
+		LSystemImpl system = Fixtures.koch();
+		for (int level = 0; level <= 6; level++) {
+			String generation = system.generate(level);
+			Assert.assertEquals(generation.length(), system.length(level));
+			Assert.assertEquals(generation.replace("F", "").length(),
+					system.count('+', level) + system.count('-', level));
+			Assert.assertEquals((long) Math.pow(4, level),
+					system.count('F', level));
+		}
+		Assert.assertEquals(0, system.count('X', 3));
+	}
+
+	@Test
+	public void exactLengthTest() {
+		LSystemImpl system = Fixtures.koch();
+		BigInteger fours = BigInteger.valueOf(4).pow(40);
+		Assert.assertEquals(fours, system.exactCount('F', 40));
+		Assert.assertEquals(fours.multiply(BigInteger.valueOf(7))
+				.subtract(BigInteger.valueOf(4)).divide(BigInteger.valueOf(3)),
+				system.exactLength(40));
+	}
+
+	@Test
+	public void lazyGenerationTest() {
+		LSystemBuilderImpl builder = new LSystemBuilderImpl();
+		builder.registerProduction('L', "+RF-LFL-FR+")
+				.registerProduction('R', "-LF+RFR+FL-")
+				.registerProduction('F', "F").setAxiom("L");
+		LSystemImpl system = builder.build();
+
+		String generation = system.generate(5);
+		LazyGeneration lazy = system.generateLazily(5);
+		Assert.assertEquals(generation.length(), lazy.length());
+		for (int i = 0; i < generation.length(); i++) {
+			Assert.assertEquals(generation.charAt(i), lazy.charAt(i));
+		}
+		Assert.assertEquals(generation, lazy.toString());
+		Assert.assertEquals(generation.substring(100, 400),
+				lazy.subSequence(100, 400).toString());
+		Assert.assertEquals(generation.substring(150, 160),
+				lazy.subSequence(100, 400).subSequence(50, 60).toString());
+		Assert.assertEquals(generation.substring(777).hashCode(),
+				lazy.subSequence(777, lazy.length()).chars().collect(
+						StringBuilder::new, StringBuilder::appendCodePoint,
+						StringBuilder::append).toString().hashCode());
+	}
+
+	@Test
+	public void deepLazyGenerationTest() {
+		LSystemBuilderImpl builder = new LSystemBuilderImpl();
+		builder.registerProduction('A', "AB").registerProduction('B', "A")
+				.setAxiom("A");
+		LSystemImpl system = builder.build();
+		LazyGeneration lazy = system.generateLazily(80);
+
+		Assert.assertEquals(system.exactLength(80),
+				BigInteger.valueOf(lazy.longLength()));
+		Assert.assertEquals("ABAABABAABAAB",
+				lazy.subSequence(0L, 13L).toString());
+		long last = lazy.longLength() - 1;
+		Assert.assertEquals(lazy.charAt(last),
+				lazy.subSequence(last - 5, last + 1).toString().charAt(5));
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void lengthOverflowTest() {
+		Fixtures.koch().length(40);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void generateTooLongTest() {
+		Fixtures.koch().generate(20);
+	}
+}
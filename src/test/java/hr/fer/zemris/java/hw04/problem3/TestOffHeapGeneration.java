@@ -0,0 +1,50 @@
+package hr.fer.zemris.java.hw04.problem3;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hr.fer.zemris.lsystems.impl.LSystemImpl;
+import hr.fer.zemris.lsystems.impl.OffHeapGeneration;
+
+/**
+ * Testing class for the {@link OffHeapGeneration} class.
+ * 
+ * @author 0036502252
+ *
+ */
+public class TestOffHeapGeneration {
+
+	@Test
+	public void directGenerationTest() {
+		LSystemImpl system = Fixtures.textPlant();
+		String expected = system.generate(4);
+		try (OffHeapGeneration generation = system.generateOffHeap(4,
+				null)) {
+			Assert.assertEquals(expected.length(), generation.length());
+			for (int i = 0; i < expected.length(); i++) {
+				Assert.assertEquals(expected.charAt(i), generation.charAt(i));
+			}
+		}
+	}
+
+	@Test
+	public void mappedDrawTest() {
+		LSystemImpl system = Fixtures.textPlant();
+		List<String> expected = new ArrayList<>();
+		system.draw(4, (x0, y0, x1, y1, color, size) -> expected
+				.add(x0 + " " + y0 + " " + x1 + " " + y1 + " " + color));
+
+		List<String> actual = new ArrayList<>();
+		try (OffHeapGeneration generation = system.generateOffHeap(4,
+				Paths.get(System.getProperty("java.io.tmpdir")))) {
+			Assert.assertEquals(4, generation.getLevel());
+			system.draw(generation, (x0, y0, x1, y1, color, size) -> actual
+					.add(x0 + " " + y0 + " " + x1 + " " + y1 + " " + color));
+		}
+		Assert.assertEquals(expected, actual);
+	}
+}
@@ -0,0 +1,38 @@
+package hr.fer.zemris.java.hw04.problem3;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hr.fer.zemris.lsystems.impl.ParallelGenerator;
+
+/**
+ * Testing class for the {@link ParallelGenerator} class.
+ *
+ * @author 0036502252
+ *
+ */
+public class TestParallelGenerator {
+
+	@Test
+	public void chunkEndTest() {
+		int chunk = ParallelGenerator.chunkEnd(0, Integer.MAX_VALUE);
+		Assert.assertEquals(1 << 16, chunk);
+		Assert.assertEquals(3 * chunk, ParallelGenerator.chunkEnd(2 * chunk,
+				10 * chunk));
+		Assert.assertEquals(10 * chunk + 5,
+				ParallelGenerator.chunkEnd(10 * chunk, 10 * chunk + 5));
+	}
+
+	@Test
+	public void chunkEndNearMaxValueTest() {
+		int chunk = ParallelGenerator.chunkEnd(0, Integer.MAX_VALUE);
+		int length = Integer.MAX_VALUE - 8;
+		int last = (length - 1) / chunk * chunk;
+		Assert.assertTrue(last + chunk < 0);
+		Assert.assertEquals(length, ParallelGenerator.chunkEnd(last, length));
+		Assert.assertEquals(last,
+				ParallelGenerator.chunkEnd(last - chunk, length));
+		Assert.assertEquals(Integer.MAX_VALUE,
+				ParallelGenerator.chunkEnd(last, Integer.MAX_VALUE));
+	}
+}
@@ -0,0 +1,103 @@
+package hr.fer.zemris.java.hw04.problem3;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hr.fer.zemris.lsystems.Painter;
+import hr.fer.zemris.lsystems.impl.LSystemBuilderImpl;
+import hr.fer.zemris.lsystems.impl.LSystemImpl;
+
+/**
+ * Testing class for the parallel drawing of {@link LSystemImpl}.
+ * 
+ * @author 0036502252
+ *
+ */
+public class TestParallelInterpreter {
+
+	/**
+	 * Records the coordinates and colors of the lines.
+	 * 
+	 * @author 0036502252
+	 *
+	 */
+	private static class Recorder implements Painter {
+		/**
+		 * The coordinates of the lines.
+		 */
+		private double[] coordinates = new double[1024];
+		/**
+		 * The colors of the lines.
+		 */
+		private int[] colors = new int[256];
+		/**
+		 * The number of lines.
+		 */
+		private int size;
+
+		@Override
+		public void drawLine(double x0, double y0, double x1, double y1,
+				java.awt.Color color, float size) {
+			if (this.size == colors.length) {
+				coordinates = Arrays.copyOf(coordinates, 8 * this.size);
+				colors = Arrays.copyOf(colors, 2 * this.size);
+			}
+			coordinates[4 * this.size] = x0;
+			coordinates[4 * this.size + 1] = y0;
+			coordinates[4 * this.size + 2] = x1;
+			coordinates[4 * this.size + 3] = y1;
+			colors[this.size++] = color.getRGB();
+		}
+	}
+
+	/**
+	 * Checks that the parallel drawing of a system draws the same lines as
+	 * the sequential one.
+	 * 
+	 * @param system
+	 *            the system
+	 * @param level
+	 *            the level to be drawn
+	 */
+	private static void assertSameLines(LSystemImpl system, int level) {
+		Recorder expected = new Recorder();
+		system.draw(level, expected);
+		Recorder actual = new Recorder();
+		system.drawParallel(level, actual);
+
+		Assert.assertEquals(expected.size, actual.size);
+		for (int i = 0; i < expected.size; i++) {
+			Assert.assertEquals(expected.colors[i], actual.colors[i]);
+		}
+		for (int i = 0; i < 4 * expected.size; i++) {
+			Assert.assertEquals(expected.coordinates[i],
+					actual.coordinates[i], 1E-9);
+		}
+	}
+
+	@Test
+	public void bracketedPlantTest() {
+		LSystemBuilderImpl builder = new LSystemBuilderImpl();
+		builder.configureFromText(new String[] { "origin 0.5 0.0",
+				"angle 90", "unitLength 0.3",
+				"unitLengthDegreeScaler 1.0 /2.05", "command F draw 1",
+				"command + rotate 25.7", "command - rotate -25.7",
+				"command [ push", "command ] pop", "command G color 00FF00",
+				"command R color FF0000", "command s scale 0.9",
+				"axiom GF", "production F F[+RsF]F[-GF]F" });
+		assertSameLines(builder.build(), 8);
+	}
+
+	@Test
+	public void irrationalDragonTest() {
+		LSystemBuilderImpl builder = new LSystemBuilderImpl();
+		builder.configureFromText(new String[] { "origin 0.5 0.5",
+				"unitLength 0.01", "unitLengthDegreeScaler 1.0 / 1.2",
+				"command F draw 1", "command + rotate 89.99",
+				"command - rotate -89.99", "axiom FX",
+				"production X X+YF+", "production Y -FX-Y" });
+		assertSameLines(builder.build(), 19);
+	}
+}
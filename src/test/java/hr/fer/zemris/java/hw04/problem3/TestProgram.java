@@ -0,0 +1,113 @@
+package hr.fer.zemris.java.hw04.problem3;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hr.fer.zemris.lsystems.impl.LSystemBuilderImpl;
+import hr.fer.zemris.lsystems.impl.LSystemImpl;
+import hr.fer.zemris.lsystems.impl.Program;
+
+/**
+ * Testing class for the {@link Program} class.
+ * 
+ * @author 0036502252
+ *
+ */
+public class TestProgram {
+
+	/**
+	 * Creates a system from the given configuration.
+	 * 
+	 * @param lines
+	 *            the lines of the configuration
+	 * @return the system
+	 */
+	private static LSystemImpl create(String... lines) {
+		LSystemBuilderImpl builder = new LSystemBuilderImpl();
+		builder.configureFromText(lines);
+		return builder.build();
+	}
+
+	/**
+	 * Draws the system, collecting its lines.
+	 * 
+	 * @param system
+	 *            the system to be drawn
+	 * @param program
+	 *            the compiled program, or null to draw the level directly
+	 * @param level
+	 *            the level to be drawn
+	 * @return the coordinates of the lines, one after another
+	 */
+	private static List<Double> lines(LSystemImpl system, Program program,
+			int level) {
+		List<Double> lines = new ArrayList<>();
+		if (program == null) {
+			system.draw(level, (x0, y0, x1, y1, color, size) -> {
+				lines.add(x0);
+				lines.add(y0);
+				lines.add(x1);
+				lines.add(y1);
+			});
+		} else {
+			system.draw(program, (x0, y0, x1, y1, color, size) -> {
+				lines.add(x0);
+				lines.add(y0);
+				lines.add(x1);
+				lines.add(y1);
+			});
+		}
+		return lines;
+	}
+
+	@Test
+	public void sameLinesTest() {
+		LSystemImpl system = create("origin 0.5 0.0", "angle 90",
+				"unitLength 0.1", "unitLengthDegreeScaler 1.0 /2.05",
+				"command F draw 1", "command + rotate 25.7",
+				"command - rotate -25.7", "command [ push", "command ] pop",
+				"command G color 00FF00", "axiom GF",
+				"production F F[+F]F[-F]F");
+		for (int level = 0; level <= 4; level++) {
+			List<Double> expected = lines(system, null, level);
+			List<Double> actual = lines(system, system.compile(level), level);
+			Assert.assertEquals(expected.size(), actual.size());
+			for (int i = 0; i < expected.size(); i++) {
+				Assert.assertEquals(expected.get(i), actual.get(i), 1E-12);
+			}
+		}
+	}
+
+	@Test
+	public void fusionTest() {
+		LSystemImpl system = create("command F draw 1",
+				"command + rotate 90", "command - rotate -90",
+				"command [ push", "command ] pop", "command s scale 2",
+				"axiom FF+-FX[]F++--F[F]s", "unitLength 0.1");
+		Program program = system.compile(0);
+		Assert.assertEquals(5, program.size());
+
+		List<Double> lines = lines(system, program, 0);
+		Assert.assertEquals(8, lines.size());
+		Assert.assertEquals(0.5, lines.get(2), 1E-12);
+		Assert.assertEquals(0.5, lines.get(4), 1E-12);
+		Assert.assertEquals(0.6, lines.get(6), 1E-12);
+	}
+
+	@Test
+	public void foldRotationsTest() {
+		LSystemImpl system = create("command F draw 1", "command + rotate 30",
+				"command - rotate -45", "axiom F+++-F", "unitLength 0.5");
+		Program program = system.compile(0);
+		Assert.assertEquals(3, program.size());
+
+		List<Double> lines = lines(system, program, 0);
+		Assert.assertEquals(0.5 + 0.5 * Math.cos(Math.toRadians(45)),
+				lines.get(6), 1E-12);
+		Assert.assertEquals(0.5 * Math.sin(Math.toRadians(45)),
+				lines.get(7), 1E-12);
+	}
+}
@@ -0,0 +1,118 @@
+package hr.fer.zemris.java.hw04.problem3;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hr.fer.zemris.lsystems.Painter;
+import hr.fer.zemris.lsystems.impl.LSystemBuilderImpl;
+import hr.fer.zemris.lsystems.impl.LSystemImpl;
+import hr.fer.zemris.lsystems.impl.RenderControl;
+import hr.fer.zemris.lsystems.impl.RenderStatus;
+
+/**
+ * Testing class for the progressive drawing of the {@link LSystemImpl}
+ * class.
+ *
+ * @author 0036502252
+ *
+ */
+public class TestProgressiveDrawing {
+
+	private static Painter collector(List<String> lines) {
+		return (x0, y0, x1, y1, color, size) -> lines
+				.add(x0 + " " + y0 + " " + x1 + " " + y1);
+	}
+
+	@Test
+	public void completedTest() {
+		LSystemImpl system = Fixtures.koch();
+		List<String> expected = new ArrayList<>();
+		system.draw(8, collector(expected));
+
+		List<String> lines = new ArrayList<>();
+		List<long[]> reports = new ArrayList<>();
+		RenderControl control = new RenderControl().setProgressListener(
+				(level, done, total) -> reports
+						.add(new long[] { level, done, total }));
+		Assert.assertEquals(RenderStatus.COMPLETED,
+				system.drawProgressively(8, collector(lines), control));
+
+		Assert.assertEquals(expected, lines);
+		Assert.assertTrue(reports.size() > 1);
+		long[] last = reports.get(reports.size() - 1);
+		Assert.assertEquals(8, last[0]);
+		Assert.assertEquals(system.length(8), last[1]);
+		Assert.assertEquals(system.length(8), last[2]);
+		for (int i = 1; i < reports.size(); i++) {
+			Assert.assertTrue(reports.get(i)[1] > reports.get(i - 1)[1]);
+		}
+	}
+
+	@Test
+	public void cancelledTest() {
+		List<String> lines = new ArrayList<>();
+		RenderControl control = new RenderControl();
+		control.setProgressListener((level, done, total) -> control.cancel());
+		Assert.assertEquals(RenderStatus.CANCELLED,
+				Fixtures.koch().drawProgressively(9, collector(lines), control));
+		Assert.assertTrue(lines.size() > 0);
+		Assert.assertTrue(lines.size() < 1 << 18);
+	}
+
+	@Test
+	public void fullLastChunkTest() {
+		LSystemImpl system = new LSystemBuilderImpl()
+				.registerCommand('F', "draw 1").registerProduction('F', "FF")
+				.setAxiom("F").build();
+		Assert.assertEquals(2 * 16384, system.length(15));
+
+		List<String> lines = new ArrayList<>();
+		List<Long> reports = new ArrayList<>();
+		RenderControl control = new RenderControl();
+		control.setProgressListener((level, done, total) -> {
+			reports.add(done);
+			if (done == total) {
+				control.cancel();
+			}
+		});
+		Assert.assertEquals(RenderStatus.COMPLETED,
+				system.drawProgressively(15, collector(lines), control));
+		Assert.assertEquals(2 * 16384, lines.size());
+		Assert.assertEquals("[16384, 32768]", reports.toString());
+	}
+
+	@Test
+	public void expiredTest() {
+		List<String> lines = new ArrayList<>();
+		RenderControl control = new RenderControl(0, TimeUnit.NANOSECONDS);
+		Assert.assertTrue(control.hasExpired());
+		Assert.assertEquals(RenderStatus.EXPIRED,
+				Fixtures.koch().drawProgressively(9, collector(lines), control));
+		Assert.assertTrue(lines.isEmpty());
+	}
+
+	@Test
+	public void levelsTest() {
+		List<Integer> levels = new ArrayList<>();
+		List<String> lines = new ArrayList<>();
+		RenderControl control = new RenderControl();
+		RenderStatus status = Fixtures.koch().drawLevels(6, level -> {
+			levels.add(level);
+			if (level == 3) {
+				control.cancel();
+			}
+			return collector(lines);
+		}, control);
+
+		Assert.assertEquals(RenderStatus.CANCELLED, status);
+		Assert.assertEquals("[0, 1, 2, 3]", levels.toString());
+		Assert.assertEquals(1 + 4 + 16, lines.size());
+
+		Assert.assertEquals(RenderStatus.COMPLETED, Fixtures.koch().drawLevels(4,
+				level -> collector(new ArrayList<>()), new RenderControl()));
+	}
+}
@@ -0,0 +1,127 @@
+package hr.fer.zemris.java.hw04.problem3;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hr.fer.zemris.lsystems.LSystem;
+import hr.fer.zemris.lsystems.impl.LSystemBuilderImpl;
+import hr.fer.zemris.lsystems.impl.painters.RasterPainter;
+
+/**
+ * Testing class for the {@link RasterPainter} class.
+ *
+ * @author 0036502252
+ *
+ */
+public class TestRasterPainter {
+
+	@Test
+	public void horizontalLineTest() {
+		RasterPainter painter = new RasterPainter(11, 11, Color.WHITE, 4);
+		painter.drawLine(0, 0.5, 1, 0.5, Color.RED, 1);
+		painter.rasterize();
+
+		int[] pixels = painter.getFramebuffer();
+		for (int y = 0; y < 11; y++) {
+			for (int x = 0; x < 11; x++) {
+				int expected = y == 5 ? Color.RED.getRGB()
+						: Color.WHITE.getRGB();
+				Assert.assertEquals(expected, pixels[y * 11 + x]);
+			}
+		}
+	}
+
+	@Test
+	public void orderAcrossTilesTest() {
+		RasterPainter painter = new RasterPainter(9, 9, Color.WHITE, 2);
+		painter.drawLine(0, 0, 1, 1, Color.RED, 1);
+		painter.drawLine(0, 1, 1, 0, Color.BLUE, 1);
+		painter.drawLine(0.5, 0, 0.5, 1, Color.GREEN, 1);
+		painter.rasterize();
+
+		int[] pixels = painter.getFramebuffer();
+		Assert.assertEquals(Color.RED.getRGB(), pixels[8 * 9]);
+		Assert.assertEquals(Color.BLUE.getRGB(), pixels[0]);
+		Assert.assertEquals(Color.GREEN.getRGB(), pixels[4 * 9 + 4]);
+		Assert.assertEquals(Color.WHITE.getRGB(), pixels[9 + 5]);
+	}
+
+	@Test
+	public void tilesMatchSingleTileTest() {
+		LSystem system = new LSystemBuilderImpl()
+				.registerCommand('F', "draw 1").registerCommand('+', "rotate 25")
+				.registerCommand('-', "rotate -25")
+				.registerCommand('[', "push").registerCommand(']', "pop")
+				.registerCommand('G', "color 00ff00")
+				.setOrigin(0.5, 0).setAngle(90).setUnitLength(0.3)
+				.setUnitLengthDegreeScaler(1.0 / 2.05)
+				.registerProduction('F', "F[+F]F[-F]GF").setAxiom("F").build();
+
+		RasterPainter single = new RasterPainter(200, 150, Color.WHITE, 256);
+		RasterPainter tiled = new RasterPainter(200, 150, Color.WHITE, 16);
+		system.draw(5, single);
+		system.draw(5, tiled);
+		single.rasterize();
+		tiled.rasterize();
+
+		Assert.assertArrayEquals(single.getFramebuffer(),
+				tiled.getFramebuffer());
+	}
+
+	@Test
+	public void longLinesAcrossTilesTest() {
+		RasterPainter single = new RasterPainter(97, 61, Color.WHITE, 128);
+		RasterPainter tiled = new RasterPainter(97, 61, Color.WHITE, 5);
+		for (RasterPainter painter : new RasterPainter[] { single, tiled }) {
+			painter.drawLine(-1, -0.5, 2, 1.7, Color.RED, 1);
+			painter.drawLine(0.9, -3, 0.13, 4, Color.BLUE, 3);
+			painter.drawLine(-2, 0.31, 3, 0.29, Color.GREEN, 5);
+			painter.drawLine(0.5, 0.5, 0.5, 0.5, Color.BLACK, 4);
+			painter.rasterize();
+		}
+
+		Assert.assertArrayEquals(single.getFramebuffer(),
+				tiled.getFramebuffer());
+	}
+
+	@Test
+	public void capacityTest() {
+		RasterPainter painter = new RasterPainter(16, 16, Color.WHITE, 4);
+		for (int i = 0; i < RasterPainter.LINE_CAPACITY; i++) {
+			painter.drawLine(0, 0.5, 1, 0.5, Color.RED, 1);
+		}
+		int[] pixels = painter.getFramebuffer();
+		Assert.assertEquals(Color.WHITE.getRGB(), pixels[8 * 16]);
+
+		painter.drawLine(0, 0.5, 1, 0.5, Color.BLUE, 1);
+		Assert.assertEquals(Color.RED.getRGB(), pixels[8 * 16]);
+		painter.rasterize();
+		Assert.assertEquals(Color.BLUE.getRGB(), pixels[8 * 16]);
+	}
+
+	@Test
+	public void writePngTest() throws IOException {
+		RasterPainter painter = new RasterPainter(32, 16);
+		painter.drawLine(0, 0, 1, 1, Color.BLACK, 3);
+
+		Path file = Files.createTempFile("raster", ".png");
+		try {
+			painter.writePng(file);
+			BufferedImage image = ImageIO.read(file.toFile());
+			Assert.assertEquals(32, image.getWidth());
+			Assert.assertEquals(16, image.getHeight());
+			Assert.assertEquals(Color.BLACK.getRGB(), image.getRGB(0, 15));
+			Assert.assertEquals(Color.WHITE.getRGB(), image.getRGB(0, 0));
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
@@ -0,0 +1,198 @@
+package hr.fer.zemris.java.hw04.problem3;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.management.ObjectName;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hr.fer.zemris.lsystems.Painter;
+import hr.fer.zemris.lsystems.impl.Command;
+import hr.fer.zemris.lsystems.impl.LSystemImpl;
+import hr.fer.zemris.lsystems.impl.RenderControl;
+import hr.fer.zemris.lsystems.impl.RenderMetrics;
+import hr.fer.zemris.lsystems.impl.commands.DrawCommand;
+import hr.fer.zemris.lsystems.impl.commands.PopCommand;
+import hr.fer.zemris.lsystems.impl.commands.PushCommand;
+import hr.fer.zemris.lsystems.impl.commands.RotateCommand;
+
+/**
+ * Testing class for the {@link RenderMetrics} class.
+ *
+ * @author 0036502252
+ *
+ */
+public class TestRenderMetrics {
+
+	@Test
+	public void drawTest() {
+		RenderMetrics metrics = RenderMetrics.getInstance();
+		LSystemImpl koch = Fixtures.koch();
+		RenderMetrics.Snapshot before = metrics.snapshot();
+		koch.draw(4, (x0, y0, x1, y1, color, size) -> {
+		});
+		RenderMetrics.Snapshot after = metrics.snapshot();
+
+		Assert.assertEquals(256, after.getSegmentsEmitted()
+				- before.getSegmentsEmitted());
+		Assert.assertEquals(256, after.getCommandsExecuted(DrawCommand.class)
+				- before.getCommandsExecuted(DrawCommand.class));
+		Assert.assertEquals(koch.length(4) - 256,
+				after.getCommandsExecuted(RotateCommand.class)
+						- before.getCommandsExecuted(RotateCommand.class));
+		for (int level = 0; level < 4; level++) {
+			Assert.assertEquals(koch.length(level),
+					after.getSymbolsExpanded(level)
+							- before.getSymbolsExpanded(level));
+		}
+		Assert.assertEquals(1, after.getPhaseCount(RenderMetrics.Phase.DRAW)
+				- before.getPhaseCount(RenderMetrics.Phase.DRAW));
+		Assert.assertTrue(after.getPhaseNanos(RenderMetrics.Phase.DRAW) > before
+				.getPhaseNanos(RenderMetrics.Phase.DRAW));
+	}
+
+	@Test
+	public void generateTest() {
+		RenderMetrics metrics = RenderMetrics.getInstance();
+		LSystemImpl koch = Fixtures.koch();
+		RenderMetrics.Snapshot before = metrics.snapshot();
+		koch.generate(3);
+		RenderMetrics.Snapshot after = metrics.snapshot();
+
+		for (int level = 0; level < 3; level++) {
+			Assert.assertEquals(koch.length(level),
+					after.getSymbolsExpanded(level)
+							- before.getSymbolsExpanded(level));
+		}
+		Assert.assertEquals(1,
+				after.getPhaseCount(RenderMetrics.Phase.GENERATE) - before
+						.getPhaseCount(RenderMetrics.Phase.GENERATE));
+		Assert.assertEquals(before.getSegmentsEmitted(),
+				after.getSegmentsEmitted());
+	}
+
+	@Test
+	public void stackDepthTest() {
+		RenderMetrics metrics = RenderMetrics.getInstance();
+		RenderMetrics.Snapshot before = metrics.snapshot();
+		Fixtures.plant("F", "F[+F]F[-F]F", 0.5).draw(3,
+				(x0, y0, x1, y1, color, size) -> {
+				});
+		RenderMetrics.Snapshot after = metrics.snapshot();
+
+		Assert.assertTrue(after.getMaxStackDepth() >= 4);
+		Assert.assertEquals(2 * (1 + 5 + 25),
+				after.getCommandsExecuted(PushCommand.class)
+						- before.getCommandsExecuted(PushCommand.class));
+	}
+
+	@Test
+	public void everyDrawTest() {
+		RenderMetrics metrics = RenderMetrics.getInstance();
+		LSystemImpl koch = Fixtures.koch();
+		List<Consumer<Painter>> draws = Arrays.asList(
+				painter -> koch.draw(koch.generateEncoded(4), painter),
+				painter -> koch.draw(koch.compile(4), painter),
+				painter -> koch.drawParallel(4, painter),
+				painter -> koch.drawBranches(4, painter),
+				painter -> koch.drawVisible(4, 0, 0, 1, 1, painter),
+				painter -> koch.drawAdaptive(4, 1 << 20, 1 << 20, painter),
+				painter -> koch.drawProgressively(4, painter,
+						new RenderControl()));
+		for (Consumer<Painter> draw : draws) {
+			long[] lines = new long[1];
+			RenderMetrics.Snapshot before = metrics.snapshot();
+			draw.accept((x0, y0, x1, y1, color, size) -> lines[0]++);
+			RenderMetrics.Snapshot after = metrics.snapshot();
+
+			Assert.assertEquals(256, lines[0]);
+			Assert.assertEquals(256, after.getSegmentsEmitted()
+					- before.getSegmentsEmitted());
+			Assert.assertEquals(256,
+					after.getCommandsExecuted(DrawCommand.class)
+							- before.getCommandsExecuted(DrawCommand.class));
+			Assert.assertEquals(1,
+					after.getPhaseCount(RenderMetrics.Phase.DRAW) - before
+							.getPhaseCount(RenderMetrics.Phase.DRAW));
+		}
+	}
+
+	@Test
+	public void chordsTest() {
+		RenderMetrics metrics = RenderMetrics.getInstance();
+		long[] lines = new long[1];
+		RenderMetrics.Snapshot before = metrics.snapshot();
+		Fixtures.koch().drawAdaptive(8, 50, 50,
+				(x0, y0, x1, y1, color, size) -> lines[0]++);
+		RenderMetrics.Snapshot after = metrics.snapshot();
+
+		Assert.assertTrue(lines[0] < 1 << 16);
+		Assert.assertEquals(lines[0], after.getSegmentsEmitted()
+				- before.getSegmentsEmitted());
+	}
+
+	@Test
+	public void parallelTest() {
+		RenderMetrics metrics = RenderMetrics.getInstance();
+		LSystemImpl plant = Fixtures.plant("F", "F[+F]F[-F]F", 0.5);
+		List<Consumer<Painter>> draws = Arrays.asList(
+				painter -> plant.draw(9, painter),
+				painter -> plant.drawParallel(9, painter),
+				painter -> plant.drawBranches(9, painter));
+		String previous = null;
+		for (Consumer<Painter> draw : draws) {
+			RenderMetrics.Snapshot before = metrics.snapshot();
+			draw.accept((x0, y0, x1, y1, color, size) -> {
+			});
+			RenderMetrics.Snapshot after = metrics.snapshot();
+
+			long[] counts = new long[4];
+			int i = 0;
+			for (Class<? extends Command> type : Arrays.asList(
+					DrawCommand.class, RotateCommand.class, PushCommand.class,
+					PopCommand.class)) {
+				counts[i++] = after.getCommandsExecuted(type)
+						- before.getCommandsExecuted(type);
+			}
+			Assert.assertEquals(counts[0], after.getSegmentsEmitted()
+					- before.getSegmentsEmitted());
+			if (previous != null) {
+				Assert.assertEquals(previous, Arrays.toString(counts));
+			}
+			previous = Arrays.toString(counts);
+		}
+	}
+
+	@Test
+	public void parallelStackDepthTest() {
+		RenderMetrics metrics = RenderMetrics.getInstance();
+		LSystemImpl plant = Fixtures.plant("F", "F[+F]F[-F]F", 0.5);
+		for (int level : new int[] { 6, 9 }) {
+			int depth = level;
+			List<Consumer<Painter>> draws = Arrays.asList(
+					painter -> plant.draw(depth, painter),
+					painter -> plant.drawParallel(depth, painter),
+					painter -> plant.drawBranches(depth, painter));
+			for (Consumer<Painter> draw : draws) {
+				metrics.reset();
+				draw.accept((x0, y0, x1, y1, color, size) -> {
+				});
+				Assert.assertEquals(level + 1, metrics.getMaxStackDepth());
+			}
+		}
+	}
+
+	@Test
+	public void mbeanTest() throws Exception {
+		Fixtures.koch().draw(2, (x0, y0, x1, y1, color, size) -> {
+		});
+		Object segments = ManagementFactory.getPlatformMBeanServer()
+				.getAttribute(new ObjectName(RenderMetrics.OBJECT_NAME),
+						"SegmentsEmitted");
+		Assert.assertTrue((Long) segments > 0);
+	}
+}
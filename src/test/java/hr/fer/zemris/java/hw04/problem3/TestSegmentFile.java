@@ -0,0 +1,119 @@
+package hr.fer.zemris.java.hw04.problem3;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hr.fer.zemris.lsystems.LSystem;
+import hr.fer.zemris.lsystems.impl.LSystemBuilderImpl;
+import hr.fer.zemris.lsystems.impl.painters.SegmentFile;
+import hr.fer.zemris.lsystems.impl.painters.SegmentFileWriter;
+
+/**
+ * Testing class for the {@link SegmentFile} and {@link SegmentFileWriter}
+ * classes.
+ *
+ * @author 0036502252
+ *
+ */
+public class TestSegmentFile {
+
+	@Test
+	public void replayTest() throws IOException {
+		LSystem system = new LSystemBuilderImpl()
+				.registerCommand('F', "draw 1").registerCommand('+', "rotate 25")
+				.registerCommand('-', "rotate -25")
+				.registerCommand('[', "push").registerCommand(']', "pop")
+				.registerCommand('G', "color 00ff00")
+				.registerCommand('S', "scale 0.5")
+				.setOrigin(0.5, 0).setAngle(90).setUnitLength(0.3)
+				.setUnitLengthDegreeScaler(1.0 / 2.05)
+				.registerProduction('F', "F[+SF]F[-GF]F").setAxiom("F").build();
+
+		List<double[]> expected = new ArrayList<>();
+		List<Color> expectedColors = new ArrayList<>();
+		system.draw(4, (x0, y0, x1, y1, color, size) -> {
+			expected.add(new double[] { (float) x0, (float) y0, (float) x1,
+					(float) y1, size });
+			expectedColors.add(color);
+		});
+
+		Path file = Files.createTempFile("segments", ".bin");
+		try {
+			try (SegmentFileWriter writer = new SegmentFileWriter(file)) {
+				system.draw(4, writer);
+				Assert.assertEquals(expected.size(), writer.getCount());
+			}
+			Assert.assertEquals(SegmentFile.HEADER_SIZE
+					+ expected.size() * SegmentFile.RECORD_SIZE,
+					Files.size(file));
+
+			SegmentFile segments = SegmentFile.open(file);
+			Assert.assertEquals(expected.size(), segments.getCount());
+			Assert.assertEquals(2, segments.getPaletteSize());
+			Assert.assertEquals(Color.BLACK, segments.getColor(0));
+			Assert.assertEquals(new Color(0x00ff00), segments.getColor(1));
+
+			double minY = Double.MAX_VALUE;
+			double maxY = -Double.MAX_VALUE;
+			for (double[] line : expected) {
+				minY = Math.min(minY, Math.min(line[1], line[3]));
+				maxY = Math.max(maxY, Math.max(line[1], line[3]));
+			}
+			Assert.assertEquals(minY, segments.getMinY(), 0);
+			Assert.assertEquals(maxY, segments.getMaxY(), 0);
+
+			List<double[]> replayed = new ArrayList<>();
+			List<Color> replayedColors = new ArrayList<>();
+			segments.replay((x0, y0, x1, y1, color, size) -> {
+				replayed.add(new double[] { x0, y0, x1, y1, size });
+				replayedColors.add(color);
+			});
+			Assert.assertEquals(expected.size(), replayed.size());
+			for (int i = 0; i < expected.size(); i++) {
+				Assert.assertArrayEquals(expected.get(i), replayed.get(i), 0);
+			}
+			Assert.assertEquals(expectedColors, replayedColors);
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void transformedReplayTest() throws IOException {
+		Path file = Files.createTempFile("segments", ".bin");
+		try {
+			try (SegmentFileWriter writer = new SegmentFileWriter(file)) {
+				writer.drawLine(0.25, 0.5, 0.75, 1, Color.RED, 2);
+			}
+
+			SegmentFile segments = SegmentFile.open(file);
+			Assert.assertEquals(0.25, segments.getMinX(), 0);
+			Assert.assertEquals(1, segments.getMaxY(), 0);
+			List<String> lines = new ArrayList<>();
+			segments.replay((x0, y0, x1, y1, color, size) -> lines.add(
+					x0 + " " + y0 + " " + x1 + " " + y1 + " " + size),
+					2, -0.5, -1);
+			Assert.assertEquals("0.0 0.0 1.0 1.0 2.0", lines.get(0));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void invalidFileTest() throws IOException {
+		Path file = Files.createTempFile("segments", ".bin");
+		try {
+			Files.write(file, new byte[SegmentFile.HEADER_SIZE]);
+			SegmentFile.open(file);
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
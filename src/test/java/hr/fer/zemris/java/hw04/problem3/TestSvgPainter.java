@@ -0,0 +1,91 @@
+package hr.fer.zemris.java.hw04.problem3;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hr.fer.zemris.lsystems.LSystem;
+import hr.fer.zemris.lsystems.impl.LSystemBuilderImpl;
+import hr.fer.zemris.lsystems.impl.painters.SvgPainter;
+
+/**
+ * Testing class for the {@link SvgPainter} class.
+ *
+ * @author 0036502252
+ *
+ */
+public class TestSvgPainter {
+
+	@Test
+	public void groupingTest() throws IOException {
+		Path file = Files.createTempFile("export", ".svg");
+		try {
+			try (SvgPainter painter = new SvgPainter(file, 201, 101)) {
+				painter.drawLine(0, 0, 0.5, 0, Color.RED, 1);
+				painter.drawLine(0.5, 0, 0.5, 0.5, Color.RED, 1);
+				painter.drawLine(0, 1, 0.125, 1, Color.RED, 1);
+				painter.drawLine(0.125, 1, 0.25, 0.75, Color.BLUE, 2.5F);
+				painter.drawLine(0.25, 0.75, 1, 0.00001, Color.BLUE, 2.5F);
+			}
+
+			String svg = new String(Files.readAllBytes(file),
+					StandardCharsets.UTF_8);
+			Assert.assertTrue(svg.startsWith("<?xml"));
+			Assert.assertTrue(svg.endsWith("</g>\n</svg>\n"));
+			Assert.assertTrue(svg.contains(
+					"<path stroke=\"#ff0000\" d=\"M0 100L100 100L100 50M0 0L25 0\"/>"));
+			Assert.assertTrue(svg.contains("<path stroke=\"#0000ff\" "
+					+ "stroke-width=\"2.5\" d=\"M25 0L50 25L200 100\"/>"));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void precisionTest() throws IOException {
+		Path file = Files.createTempFile("export", ".svg");
+		try {
+			try (SvgPainter painter = new SvgPainter(file, 2, 2, 3)) {
+				painter.drawLine(0.0625, 0.5, -0.25, 1.001,
+						new Color(0, 128, 0, 51), 1);
+			}
+
+			String svg = new String(Files.readAllBytes(file),
+					StandardCharsets.UTF_8);
+			Assert.assertTrue(svg.contains("<path stroke=\"#008000\" "
+					+ "stroke-opacity=\"0.2\" d=\"M0.063 0.5L-0.25 -0.001\"/>"));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void largeSystemTest() throws IOException {
+		LSystem system = new LSystemBuilderImpl()
+				.registerCommand('F', "draw 1").registerCommand('+', "rotate 60")
+				.registerCommand('-', "rotate -60").setOrigin(0.05, 0.4)
+				.setUnitLength(0.9).setUnitLengthDegreeScaler(1.0 / 3.0)
+				.registerProduction('F', "F+F--F+F").setAxiom("F").build();
+
+		Path file = Files.createTempFile("export", ".svg");
+		try {
+			try (SvgPainter painter = new SvgPainter(file, 1000, 1000)) {
+				system.draw(7, painter);
+			}
+
+			String svg = new String(Files.readAllBytes(file),
+					StandardCharsets.UTF_8);
+			Assert.assertEquals(1, svg.split("<path ").length - 1);
+			Assert.assertEquals(1, svg.split("M").length - 1);
+			Assert.assertEquals(16384, svg.split("L").length - 1);
+			Assert.assertTrue(svg.endsWith("\"/>\n</g>\n</svg>\n"));
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package hr.fer.zemris.java.hw04.problem3;
+
+import java.awt.Color;
+import java.lang.management.ManagementFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import hr.fer.zemris.lsystems.Painter;
+import hr.fer.zemris.lsystems.impl.Context;
+import hr.fer.zemris.lsystems.impl.LSystemBuilderImpl;
+import hr.fer.zemris.lsystems.impl.LSystemImpl;
+import hr.fer.zemris.lsystems.impl.TurtleState;
+import hr.fer.zemris.lsystems.impl.commands.DrawCommand;
+import hr.fer.zemris.lsystems.impl.commands.RotateCommand;
+import hr.fer.zemris.math.Vector2D;
+
+/**
+ * Testing class for the {@link TurtleState} class and the commands which
+ * modify it.
+ * 
+ * @author 0036502252
+ *
+ */
+public class TestTurtleState {
+
+	/**
+	 * Painter which ignores all lines.
+	 */
+	private static final Painter NO_OP = (x0, y0, x1, y1, color, size) -> {
+	};
+
+	@Test
+	public void commandsModifyStateInPlaceTest() {
+		Context ctx = new Context();
+		TurtleState state = new TurtleState(new Vector2D(1, 2),
+				new Vector2D(0, 3), Color.BLACK, 0.5);
+		ctx.pushState(state);
+
+		new DrawCommand(2).execute(ctx, NO_OP);
+		Assert.assertSame(state, ctx.getCurrentState());
+		Assert.assertEquals(1, state.getX(), 1E-12);
+		Assert.assertEquals(3, state.getY(), 1E-12);
+
+		new RotateCommand(90).execute(ctx, NO_OP);
+		Assert.assertEquals(-1, state.getDirectionX(), 1E-12);
+		Assert.assertEquals(0, state.getDirectionY(), 1E-12);
+	}
+
+	@Test
+	public void vectorViewsAreCopiesTest() {
+		TurtleState state = new TurtleState(new Vector2D(1, 2),
+				new Vector2D(1, 0), Color.BLACK, 1);
+		state.getCurrentPosition().translate(new Vector2D(5, 5));
+		state.getDirection().rotate(90);
+
+		Assert.assertEquals(new Vector2D(1, 2), state.getCurrentPosition());
+		Assert.assertEquals(new Vector2D(1, 0), state.getDirection());
+	}
+
+	@Test
+	public void drawDoesNotAllocatePerSymbolTest() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory
+				.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+			return;
+		}
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+		if (!threads.isThreadAllocatedMemorySupported()) {
+			return;
+		}
+		threads.setThreadAllocatedMemoryEnabled(true);
+		long thread = Thread.currentThread().getId();
+
+		LSystemImpl system = Fixtures.koch();
+		for (int i = 0; i < 20; i++) {
+			system.draw(6, NO_OP);
+		}
+
+		long before = threads.getThreadAllocatedBytes(thread);
+		system.draw(8, NO_OP);
+		long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+		long symbols = system.length(8);
+		Assert.assertTrue("Allocated " + allocated + " bytes for " + symbols
+				+ " symbols!", allocated < symbols / 8);
+
+		LSystemBuilderImpl builder = new LSystemBuilderImpl();
+		builder.configureFromText(new String[] { "command F draw 1",
+				"command + rotate 25.7", "command - rotate -25.7",
+				"command [ push", "command ] pop", "command G color 00FF00",
+				"axiom GF", "production F F[+F]F[-F]F" });
+		LSystemImpl plant = builder.build();
+		for (int i = 0; i < 20; i++) {
+			plant.draw(3, NO_OP);
+		}
+
+		before = threads.getThreadAllocatedBytes(thread);
+		plant.draw(6, NO_OP);
+		allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+		symbols = plant.length(6);
+		Assert.assertTrue("Allocated " + allocated + " bytes for " + symbols
+				+ " symbols!", allocated < symbols / 8);
+	}
+}
@@ -0,0 +1,7 @@
+/**
+ * Contains tests for the 3rd problem of the 4th Java Course homework.
+ *
+ * @author 0036502252
+ *
+ */
+package hr.fer.zemris.java.hw04.problem3;